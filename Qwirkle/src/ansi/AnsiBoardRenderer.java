@@ -0,0 +1,57 @@
+package ansi;
+
+import model.ReadableBoard;
+import model.Piece;
+import view.BoardRenderer;
+
+/**
+ * Renders a Board with box drawing characters and colored pieces, as used by the AnsiTUI.
+ * Every cell is two characters wide, and every row is followed by a border line.
+ */
+public class AnsiBoardRenderer extends BoardRenderer {
+
+	private static final char VERTICAL_LINE = (char) 179;
+
+	// ----- Queries -----
+	/*@ pure */protected int lineOf(int row) {
+		return row * 2 + 5;
+	}
+
+	/*@ pure */protected int columnOf(int column) {
+		return column * 2 + 5;
+	}
+
+	/*@ pure */protected int lineBelow(int frameRows) {
+		return frameRows * 2 + 5;
+	}
+
+	// ----- Commands -----
+	protected void appendFrame(StringBuilder out, ReadableBoard b) {
+		String newLine = System.lineSeparator();
+		String[] edges = BoardOutlineAnsi.getEdges(getFrameMinColumn(),
+						getFrameMinColumn() + getFrameColumns() - 1);
+		for (int i = 0; i < 4; i++) {
+			out.append(edges[i]).append(newLine);
+		}
+		for (int i = 0; i < getFrameRows(); i++) {
+			if (i > 0) {
+				out.append(edges[4]).append(newLine);
+			}
+			appendIndex(out, getFrameMinRow() + i);
+			for (int j = 0; j < getFrameColumns(); j++) {
+				out.append(VERTICAL_LINE);
+				appendCell(out, getFrameCell(i, j));
+			}
+			out.append(VERTICAL_LINE).append(newLine);
+		}
+		out.append(edges[5]).append(newLine);
+	}
+
+	protected void appendCell(StringBuilder out, Piece piece) {
+		if (piece != null) {
+			out.append(piece.getAnsiCode());
+		} else {
+			out.append(' ');
+		}
+	}
+}
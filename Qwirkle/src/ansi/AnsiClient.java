@@ -11,11 +11,13 @@ import java.net.SocketException;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.InputMismatchException;
+import java.util.List;
 import java.util.Scanner;
 
 import exceptions.InvalidMoveException;
 import exceptions.InvalidNameException;
 import model.*;
+import view.TUI;
 
 
 @SuppressWarnings("resource")
@@ -41,10 +43,9 @@ public class AnsiClient extends Thread {
 	private Boolean firstTurn;
 	private Socket sock;
 	private Player player;
-	private Board board;
+	private ClientBoard board;
 	private AnsiTUI view;
 	private ArrayList<String> players;
-	private int tilesInStack;
 	private BufferedReader in;
 	private BufferedWriter out;
 	private BufferedReader playerInput;
@@ -152,6 +153,8 @@ public class AnsiClient extends Thread {
 						} else {
 							findMove();
 						}
+					} else if (!firstTurn && player instanceof ComputerPlayer) {
+						((ComputerPlayer) player).ponder(board);
 					}
 				} else if (line.startsWith("NEW")) {
 					receiveTiles(line);
@@ -289,9 +292,11 @@ public class AnsiClient extends Thread {
 	public void displayPlayerMenu(/*@ non_null */String nameOfClient,
 				/*@ non_null */ int playerNumber) {
 		System.out.println("What kind of player would you like to register?");
-		System.out.println("Human player ...... ............. 1");
-		System.out.println("Computer player ................. 2");
-		System.out.println("Smarter Computer player ......... 3");
+		System.out.println(TUI.menuLine("Human player", 1));
+		List<StrategyProvider> providers = StrategyRegistry.getDefault().getProviders();
+		for (int i = 0; i < providers.size(); i++) {
+			System.out.println(TUI.menuLine(providers.get(i).getDescription(), i + 2));
+		}
 		Boolean running = true;
 		Scanner line = new Scanner(System.in);
 		while (running) {
@@ -301,18 +306,17 @@ public class AnsiClient extends Thread {
 				running = false;
 				System.out.println(nameOfClient + " was added to the game.");
 			}
-			if (kindOfPlayer.equals("2")) {
-				int aiTimeToThink = requestAITimeToThink();
-				player = new  ComputerPlayer(nameOfClient, playerNumber, "Random", aiTimeToThink);
-				running = false;
-				System.out.println("'" + nameOfClient + "' was added to the game.");
-			}
-			if (kindOfPlayer.equals("3")) {
-				int aiTimeToThink = requestAITimeToThink();
-				player = new ComputerPlayer(nameOfClient, playerNumber,
-													"RandomWithScore", aiTimeToThink);
-				running = false;
-				System.out.println("'" + nameOfClient + "' was added to the game.");
+			for (int i = 0; i < providers.size(); i++) {
+				if (kindOfPlayer.equals(String.valueOf(i + 2))) {
+					StrategyProvider provider = providers.get(i);
+					int aiTimeToThink = requestAITimeToThink();
+					player = new ComputerPlayer(nameOfClient, playerNumber, provider.getName(),
+									aiTimeToThink);
+					((ComputerPlayer) player).setPondering(provider.getCapabilities()
+									.contains(StrategyProvider.Capability.PONDERING));
+					running = false;
+					System.out.println("'" + nameOfClient + "' was added to the game.");
+				}
 			}
 		}	
 	}
@@ -345,9 +349,11 @@ public class AnsiClient extends Thread {
 	 */
 	public void startGame(String line) {
 		System.out.println(line);
-		board = new Board();
+		board = new ClientBoard();
+		if (player instanceof LocalPlayer) {
+			((LocalPlayer) player).setUnseenTiles(board.getUnseenTiles());
+		}
 		players = new ArrayList<>();
-		tilesInStack = 108;
 		Scanner scanLine = new Scanner(line);
 		scanLine.next();
 		boolean notAI = true;
@@ -381,11 +387,15 @@ public class AnsiClient extends Thread {
 				if (move[0].getPiece() == null) {
 					valid = true;
 				} else {
-					valid = board.validMove(move, player);
+					int score = board.validateAndScore(move, player);
+					valid = true;
 					for (int i = 0; i < move.length; i++) {
 						player.remove(move[i].getPiece());
 						print(i + " " + move[i].getPiece().toString());
 					}
+					if (score > 0) {
+						print("This move scores " + score + " points.");
+					}
 				}
 			} catch (InvalidMoveException e) {
 				print(e.getInfo());
@@ -404,11 +414,13 @@ public class AnsiClient extends Thread {
 		boolean valid = false;
 		while (!valid) {
 			try {
-				valid = board.validMove(move, player);
+				int score = board.validateAndScore(move, player);
+				valid = true;
 				for (int i = 0; i < move.length; i++) {
 					player.remove(move[i].getPiece());
 					print(i + " " + move[i].getPiece().toString());
 				}
+				print("This move scores " + score + " points.");
 			} catch (InvalidMoveException e) {
 				print(e.getInfo());
 				move = player.determineFirstMove(board);
@@ -454,8 +466,8 @@ public class AnsiClient extends Thread {
 			if (!chars.equals("empty")) {
 				char color = chars.charAt(0);
 				char shape = chars.charAt(1);
-				player.receive(new Piece(Piece.charToColor(color),
-								Piece.charToShape(shape)));
+				Piece piece = new Piece(Piece.charToColor(color), Piece.charToShape(shape));
+				player.receive(piece);
 			}
 		}
 		scanLine.close();
@@ -480,7 +492,7 @@ public class AnsiClient extends Thread {
 				int column = scanLine.nextInt();
 				Piece piece = new Piece(Piece.charToColor(pieceString.charAt(0)),
 								Piece.charToShape(pieceString.charAt(1)));
-				if (tilesInStack != 0) {
+				if (!board.emptyStack()) {
 					removeFromStack(1);
 				}
 				board.setPiece(row, column, piece);
@@ -490,11 +502,11 @@ public class AnsiClient extends Thread {
 		}
 		scanLine.close();
 		if (moveMade) {
-			board.notifyObservers();
 			int score = board.getScore(places.toArray(new Move[places.size()]));
 			board.addScore(playerID, score);
+			board.endTurn();
 		}
-		print(tilesInStack + " " + board.getStack().size());
+		print("Pieces in stack: " + board.getStackSize());
 	}
 	
 	/**
@@ -530,7 +542,6 @@ public class AnsiClient extends Thread {
 	 * @param toRemove the amount of pieces to remove
 	 */
 	private void removeFromStack(int toRemove) {
-		tilesInStack = tilesInStack - toRemove;
 		for (int i = 0; i < toRemove; i++) {
 			board.draw();
 		}
@@ -541,16 +552,18 @@ public class AnsiClient extends Thread {
 	 * Increases the count of the pieces in the stack by the given amount.
 	 */
 	private void addToStack(int toAdd) {
-		tilesInStack += toAdd;
-		for (int i = 0; i < toAdd; i++) {
-			board.getStack().add(new Piece(Piece.Color.DEFAULT, Piece.Shape.BLOCKED));
-		}
+		board.returnToStack(toAdd);
 	}
 	
 	/**
 	 * ShutsDown the Client.
 	 */
 	public void shutDown() {
+		if (player instanceof ComputerPlayer) {
+			((ComputerPlayer) player).setPondering(false);
+		} else if (player instanceof AnsiHumanPlayer) {
+			((AnsiHumanPlayer) player).shutDown();
+		}
 		try {
 			in.close();
 			out.close();
@@ -1,36 +1,45 @@
 package ansi;
 
 import org.fusesource.jansi.AnsiConsole;
-import static org.fusesource.jansi.Ansi.*;
 
-import java.util.Observable;
-import java.util.Observer;
+import java.util.List;
 
 import model.*;
+import view.BoardRenderer;
 import controller.*;
 
-public class AnsiTUI implements Observer {
+public class AnsiTUI implements BoardListener {
+
+	static {
+		AnsiConsole.systemInstall();
+	}
 
-	private static final int VERTICAL_LINE = 179;
 	/**
 	 * The TUI class is used as the textual user interface.
 	 */
 	private Game control;
 	private Board board;
+	private BoardRenderer renderer;
 	int playerCount;
 	
 	public AnsiTUI(Game game) {
 		control = game;
 		board = game.getBoard();
 		playerCount = control.getPlayerCount();
-		board.addObserver(this);
+		renderer = new AnsiBoardRenderer();
+		renderer.setIncremental(true);
+		renderer.setTracking(true);
+		board.addListener(this);
 	}
 	
 	public AnsiTUI(Board board, int players) {
 		control = null;
 		this.board = board;
 		playerCount = players;
-		board.addObserver(this);
+		renderer = new AnsiBoardRenderer();
+		renderer.setIncremental(true);
+		renderer.setTracking(true);
+		board.addListener(this);
 	}
 	
 	
@@ -38,47 +47,36 @@ public class AnsiTUI implements Observer {
 	
 	// ------------ Commands ------------------------
 	
-	public void update(Observable o, Object arg) {
-		printBoard(board);
-		printScore(board);
+	/**
+	 * Called when a turn on the board has ended. Prints the snapshot of the board that
+	 * the turn published, with the scores; only the placed tiles of the events are written
+	 * over what is on the screen. As the snapshot never changes, this may run on another
+	 * thread.
+	 */
+	public void boardChanged(Board b, List<BoardEvent> events) {
+		for (BoardEvent event: events) {
+			if (event.getType() == BoardEvent.Type.TILE_PLACED) {
+				renderer.markDirty(event.getRow(), event.getColumn());
+			}
+		}
+		BoardSnapshot snapshot = b.getSnapshot();
+		renderer.render(snapshot, getScoreLine(snapshot), System.out);
+	}
+	
+	/**
+	 * Sets if only the changed cells of the board are printed, which is the default, or the
+	 * whole board every turn, for a terminal that scrolls the board out of view.
+	 */
+	public void setIncremental(boolean incremental) {
+		renderer.setIncremental(incremental);
 	}
 	
+	/**
+	 * Prints the board.
+	 * @param b the board to print
+	 */
 	public void printBoard(Board b) {
-		AnsiConsole.systemInstall();
-		String[] edges = BoardOutlineAnsi.getEdges(b);
-		for (int i = b.getMinRow(); i <= b.getMaxRow(); i++) {
-			String row = "";
-			if (i < 10) {
-				row = "  " + i;
-			} else if (i < 100) {
-				row = " " + i;
-			} else {
-				row = "" + i;
-			}
-			
-			for (int j = b.getMinColumn(); j <= b.getMaxColumn(); j++) {
-				if (b.getCell(i, j) != null) {
-					row = row + (char) VERTICAL_LINE + b.getCell(i, j).getAnsiCode();
-				} else {
-					row = row + (char) VERTICAL_LINE + " ";
-				}
-			}
-			row = row + (char) VERTICAL_LINE;
-			if (i == b.getMinRow()) {
-				System.out.println(ansi().render(edges[0]));
-				System.out.println(ansi().render(edges[1]));
-				System.out.println(ansi().render(edges[2]));
-				System.out.println(ansi().render(edges[3]));
-				System.out.println(ansi().render(row));
-			} else if (i == b.getMaxRow()) {
-				System.out.println(ansi().render(edges[4]));
-				System.out.println(ansi().render(row));
-				System.out.println(ansi().render(edges[5]));
-			} else {
-				System.out.println(ansi().render(edges[4]));
-				System.out.println(ansi().render(row));
-			}
-		}
+		renderer.render(b, null, System.out);
 	}
 	
 	/**
@@ -86,10 +84,20 @@ public class AnsiTUI implements Observer {
 	 * @param b the board for the score to print.
 	 */
 	public void printScore(Board b) {
-		String result = "Scores:";
+		System.out.println(getScoreLine(b));
+	}
+	
+	// ------------ Queries -------------------------
+	
+	/**
+	 * Returns the line with the scores of all players.
+	 * @param b the board for the score.
+	 */
+	/*@ pure */public String getScoreLine(ReadableBoard b) {
+		StringBuilder result = new StringBuilder("Scores:");
 		for (int i = 0; i < playerCount; i++) {
-			result += " player" + i + ": " + b.getScore(i);
+			result.append(" player").append(i).append(": ").append(b.getScore(i));
 		}
-		System.out.println(result);
+		return result.toString();
 	}
 }
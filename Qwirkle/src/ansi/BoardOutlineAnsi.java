@@ -22,6 +22,13 @@ public class BoardOutlineAnsi {
 	 * Returns a String[] with all the Strings needed to print a board with markings.
 	 */
 	public static String[] getEdges(Board b) {
+		return getEdges(b.getMinColumn(), b.getMaxColumn());
+	}
+	
+	/**
+	 * Returns a String[] with all the Strings needed to print the given columns with markings.
+	 */
+	public static String[] getEdges(int minColumn, int maxColumn) {
 		String[] result = new String[6];
 		String topIndex0 = "    ";
 		String topIndex10 = "    ";
@@ -29,7 +36,7 @@ public class BoardOutlineAnsi {
 		String top = "   " + (char) TOP_LEFT_CORNER;
 		String border = "   " + (char) LEFT_CROSS;
 		String bottem = "   " + (char) BOTTEM_LEFT_CORNER;
-		for (int i = b.getMinColumn(); i < b.getMaxColumn(); i++) {
+		for (int i = minColumn; i < maxColumn; i++) {
 			if (i < 10) {
 				topIndex0 += "  ";
 				topIndex10 += "  ";
@@ -1,8 +1,6 @@
 package controller;
 
-import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Set;
 
 import exceptions.InvalidMoveException;
 import model.*;
@@ -29,6 +27,7 @@ public class Game implements Runnable {
 	private int playerCount;
 	private Player[] players;
 	private int aiTime;
+	private boolean quiet;
 	
 	private int currentPlayerID;
 	private int moveCounter;
@@ -38,7 +37,7 @@ public class Game implements Runnable {
 	// ----- Constructor -----
 	
 	/**
-	 * Creates a new Game object with a board of a default size (183 x 183).
+	 * Creates a new Game object with an empty board.
 	 * @param playerCount	the amount of players participating in this Game. 
 	 * @param players 		the array with all players participating in this Game.
 	 * @param thinkTime 	the time in milliseconds that a computerplayer can take
@@ -53,13 +52,34 @@ public class Game implements Runnable {
 	 * 				this.thinkTime = aiTime;
 	 */
 	public Game(int playerCount, /*@ non_null */Player[] players, int thinkTime) {
+		this(playerCount, players, thinkTime, false);
+	}
+	
+	/**
+	 * Creates a new Game object that, if quiet, has no view and prints nothing.
+	 * A quiet Game can only be played by ComputerPlayers, for example in a Tournament.
+	 * @param playerCount	the amount of players participating in this Game. 
+	 * @param players 		the array with all players participating in this Game.
+	 * @param thinkTime 	the time in milliseconds that a computerplayer can take
+	 * 						before making a Move. 
+	 * @param quiet			true if the Game should not print anything.
+	 */
+	public Game(int playerCount, /*@ non_null */Player[] players, int thinkTime, boolean quiet) {
 		board = new Board();
+		this.quiet = quiet;
 		this.playerCount = playerCount;
 		this.players = new Player[this.playerCount];
 		for (int i = 0; i < playerCount; i++) {
 			this.players[i] = players[i];
+			if (players[i] instanceof LocalPlayer) {
+				UnseenTiles unseen = new UnseenTiles();
+				board.addListener(unseen);
+				((LocalPlayer) players[i]).setUnseenTiles(unseen);
+			}
+		}
+		if (!quiet) {
+			view = new TUI(this);
 		}
-		view = new TUI(this);
 		aiTime = thinkTime;
 		moveCounter = 0;
 		kickOccured = false;
@@ -76,9 +96,9 @@ public class Game implements Runnable {
 	
 	/**
 	 * Returns a TUI object that is used to communicate with the player. 
-	 * @return the TUI.
+	 * @return the TUI, or null if this Game is quiet.
 	 */
-	/* @pure */public /* @non_null*/ TUI getView() {
+	/* @pure */public TUI getView() {
 		return view;
 	}
 	
@@ -94,6 +114,7 @@ public class Game implements Runnable {
 	 * Returns the maximum amount of points of a given hand. 
 	 * This method is called for each Player at the beginning of this Game to 
 	 * determine which player is allowed to start the game. 
+	 * The longest line is looked up in the OpeningTable.
 	 * @param hand the Hand a player holds. 
 	 * @return the maximum amount of points one can get with the given Hand. 
 	 */
@@ -102,31 +123,7 @@ public class Game implements Runnable {
 	 * @ensures		\result <= 0 && \result < 7;
 	 */
 	/* @pure */public /* @non_null*/ int findMaxScore(HashSet<Piece> hand) {
-		int max = 0;
-		for (Piece p : hand) {
-			Set<Piece> restHand = new HashSet<>(hand);
-			restHand.remove(p);
-			int color = 1;
-			int shape = 1;
-			
-			// Check if either the color or the shape of each rp matches that of p.
-			// If so, add to color or shape. 
-			for (Piece rp : restHand) {
-				if (rp.getColor().equals(p.getColor()) && !rp.getShape().equals(p.getShape())) {
-					color++;
-				} else if (!rp.getColor().equals(p.getColor())
-								&& rp.getShape().equals(p.getShape())) {
-					shape++;
-				}
-			}
-			if (color > max) {
-				max = color;
-			}
-			if (shape > max) {
-				max = shape;
-			}
-		}
-		return max;
+		return OpeningTable.getLength(hand);
 	}
 	
 	
@@ -150,30 +147,37 @@ public class Game implements Runnable {
 		}
 		// Start the Game. 
 		findFirstPlayer();
-		view.printBoard(board);
+		if (!quiet) {
+			view.printBoard(board);
+		}
 		findFirstMove();
 		
 		// During the Game.
 		while (!endGame()) {
 			Move[] moves = players[currentPlayerID].determineMove(board);
 			boolean valid = false;
-			try {
-				valid = board.validMove(moves, players[currentPlayerID]);
-			} catch (InvalidMoveException e) {
-				System.out.println(e.getInfo());
+			int score = 0;
+			if (board.emptyStack() && moves[0].getPiece() == null) {
+				// A pass counts as a turn, so the game ends once nobody can place anymore.
+				moveCounter++;
+			} else {
+				try {
+					score = board.validateAndScore(moves, players[currentPlayerID]);
+					valid = true;
+				} catch (InvalidMoveException e) {
+					show(e.getInfo());
+				}
 			}
 			if (valid) {
 				moveCounter++;
 				if (moves[0] instanceof Place) {
-					place(moves, players[currentPlayerID]);
-					int score = board.getScore(moves);
-					board.addScore(currentPlayerID, score);
+					place(moves, players[currentPlayerID], score);
 				} else if (moves[0] instanceof Trade && moves[0].getPiece() != null) {
 					tradePieces(moves, players[currentPlayerID]);
 				}
 			}			
 			currentPlayerID = nextPlayer();
-			board.notifyObservers();
+			board.endTurn();
 		}
 		// Finishing the Game off. 
 		ending();
@@ -194,13 +198,26 @@ public class Game implements Runnable {
 	}
 
 	/**
-	 * Displays the winner and scores of other players to the Player. 
+	 * Displays the winner and scores of other players to the Player, unless this Game is quiet.
 	 */
 	public void ending() {
-		System.out.println("The game has ended! " + players[isWinner()].getName() + " has won.");
-		System.out.println("The scores: ");
-		for (Player p: players) {
-			System.out.println(p.getName() + " : " + board.getScore(p.getID()));
+		if (!quiet) {
+			System.out.println("The game has ended! " + players[isWinner()].getName()
+							+ " has won.");
+			System.out.println("The scores: ");
+			for (Player p: players) {
+				System.out.println(p.getName() + " : " + board.getScore(p.getID()));
+			}
+		}
+	}
+	
+	/**
+	 * Prints the given message, unless this Game is quiet.
+	 * @param msg the message to print
+	 */
+	private void show(String msg) {
+		if (!quiet) {
+			System.out.println(msg);
 		}
 	}
 
@@ -218,9 +235,9 @@ public class Game implements Runnable {
 	}
 	
 	/**
-	 * Places the Piece from a Player on the Board in the indicated cell.
-	 * After placing a Piece, it is removed from the Players hand and the Player 
-	 * gets a new Piece (if the Stack is not empty). 
+	 * Places the Pieces from a Player on the Board in the indicated cells and adds the score
+	 * of the move, as one unit with Board.apply. The Pieces are removed from the Players hand
+	 * and the Player gets a new Piece for each of them (if the Stack is not empty). 
 	 * @param moves the Moves that a Player wants to make.
 	 * @param player the Player who wants to make the Moves.
 	 */
@@ -229,16 +246,22 @@ public class Game implements Runnable {
 	 *  			myArray[i] instanceof Place)          
 	 */
 	public void place(/* @NonNul*/Move[] moves, /* @NonNul*/Player player) {
-		Place[] places = Arrays.copyOf(moves, moves.length, Place[].class);
-		for (Place m: places) {
-			Piece piece = m.getPiece();
-			player.remove(piece);
-			int row = m.getRow();
-			int column = m.getColumn();
-			board.setPiece(row, column, piece);
-			if (!board.emptyStack()) {
-				player.receive(board.draw());
-			}
+		place(moves, player, board.getScore(moves));
+	}
+	
+	/**
+	 * Places the Pieces from a Player like place, with the score that was found while
+	 * validating the Moves.
+	 * @param moves the Moves that a Player wants to make.
+	 * @param player the Player who wants to make the Moves.
+	 * @param score the score of the Moves.
+	 */
+	public void place(/* @NonNul*/Move[] moves, /* @NonNul*/Player player, int score) {
+		for (Move m: moves) {
+			player.remove(m.getPiece());
+		}
+		for (Piece piece: board.apply(moves, player.getID(), score)) {
+			player.receive(piece);
 		}
 		board.setLastMadeMove(moveCounter);
 	}
@@ -255,13 +278,12 @@ public class Game implements Runnable {
 	 *  			myArray[i] instanceof Trade)
 	 */
 	public void tradePieces(/* @NonNul*/Move[] moves, /* @NonNul*/Player player) {
-		Piece[] pieces = new Piece[moves.length];
-		for (int i = 0; i < moves.length; i++) {
-			pieces[i] = moves[i].getPiece();
-			player.remove(pieces[i]);
-			player.receive(board.draw());
+		for (Move m: moves) {
+			player.remove(m.getPiece());
+		}
+		for (Piece piece: board.apply(moves, player.getID())) {
+			player.receive(piece);
 		}
-		board.tradeReturn(pieces);
 	}
 	
 	/**
@@ -299,19 +321,19 @@ public class Game implements Runnable {
 	public void findFirstMove() {
 		Move[] moves = players[currentPlayerID].determineFirstMove(board);
 		boolean valid = false;
+		int score = 0;
 		try {
-			valid = board.validMove(moves, players[currentPlayerID]);
+			score = board.validateAndScore(moves, players[currentPlayerID]);
+			valid = true;
 		} catch (InvalidMoveException e) {
-			System.out.println(e.getInfo());
+			show(e.getInfo());
 		}
 		if (valid) {
 			moveCounter++;
-			place(moves, players[currentPlayerID]);
-			int score = board.getScore(moves);
-			board.addScore(currentPlayerID, score);
+			place(moves, players[currentPlayerID], score);
 		}			
 		currentPlayerID = (currentPlayerID + 1) % playerCount;
-		board.notifyObservers();
+		board.endTurn();
 	}
 	
 	
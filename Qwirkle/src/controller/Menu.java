@@ -1,9 +1,11 @@
 package controller;
 
+import java.util.List;
 import java.util.Scanner;
 
 import exceptions.InvalidNameException;
 import model.*;
+import view.TUI;
 
 /**
  * Asks the player to register. Once enough players have gathered or they
@@ -80,9 +82,11 @@ public class Menu {
 	 */
 	public void displayRegistrationOptions() {
 		System.out.println("What kind of player would you like to register?");
-		System.out.println("Human player .................... 7");
-		System.out.println("Computer player ................. 8");
-		System.out.println("Smarter Computer player ......... 9");
+		System.out.println(TUI.menuLine("Human player", 7));
+		List<StrategyProvider> providers = StrategyRegistry.getDefault().getProviders();
+		for (int i = 0; i < providers.size(); i++) {
+			System.out.println(TUI.menuLine(providers.get(i).getDescription(), i + 8));
+		}
 	}
 	
 	/**
@@ -99,13 +103,12 @@ public class Menu {
 				registerHumanPlayer();
 				running = false;
 			}
-			if (kindOfPlayer.equals("8")) {
-				registerComputerPlayer();
-				running = false;
-			}
-			if (kindOfPlayer.equals("9")) {
-				registerSmarterComputerPlayer();
-				running = false;
+			List<StrategyProvider> providers = StrategyRegistry.getDefault().getProviders();
+			for (int i = 0; i < providers.size(); i++) {
+				if (kindOfPlayer.equals(String.valueOf(i + 8))) {
+					registerComputerPlayer(providers.get(i).getName());
+					running = false;
+				}
 			}
 		}
 	}
@@ -140,8 +143,9 @@ public class Menu {
 	
 	/**
 	 * Asks the User for the name of the ComputerPlayer to register.
+	 * @param strategy the name of the strategy of the ComputerPlayer
 	 */
-	public void registerComputerPlayer() {
+	public void registerComputerPlayer(String strategy) {
 		System.out.println("What name do you want the Computer Player to have?"
 						+ " (can only contain letters with maximum length of 16)");
 		Boolean running = true;
@@ -152,35 +156,7 @@ public class Menu {
 				isRightLength(name);
 				hasOnlyLetters(name);
 			
-				players[playerCount] = new ComputerPlayer(name, playerCount, "Random", aiTime);
-				playerCount++;
-				running = false;
-			} catch (InvalidNameException e) {
-				e.getInfo();
-			}
-			if (playerCount == 4) {
-				new Game(playerCount, players, aiTime).run();
-				playerCount = 0;
-				players = new Player[4];
-			}
-		}
-	}
-	
-	/**
-	 * Asks the User for the Name of the ComputerPlayer, with a smarter strategy.
-	 */
-	public void registerSmarterComputerPlayer() {
-		System.out.println("What name do you want the Computer Player to have?"
-						+ " (can only contain letters with maximum length of 16)");
-		Boolean running = true;
-		Scanner line = new Scanner(System.in);
-		while (running) {
-			String name = line.nextLine();
-			try {
-				isRightLength(name);
-				hasOnlyLetters(name);
-				players[playerCount] = new ComputerPlayer(name, playerCount,
-															"RandomWithScore", aiTime);
+				players[playerCount] = new ComputerPlayer(name, playerCount, strategy, aiTime);
 				playerCount++;
 				running = false;
 			} catch (InvalidNameException e) {
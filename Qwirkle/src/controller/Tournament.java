@@ -0,0 +1,345 @@
+package controller;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+
+import model.ComputerPlayer;
+import model.Player;
+import model.StrategyConfig;
+import model.StrategyRegistry;
+import util.Elo;
+
+/**
+ * Plays a tournament between computer players, to compare strategies and think times.
+ * Every entry of the roster is a strategy of the StrategyRegistry, optionally followed by a
+ * colon and its think time or other parameters, like "Search:200" or "Search:depth=2", so
+ * two configurations of the same strategy can be compared. The games have two to four
+ * players and are played quietly and in parallel on a work-stealing ForkJoinPool. With round
+ * robin pairing every group of entries meets in every round, with the seats rotated from
+ * round to round; with Swiss pairing every round groups the entries with the closest
+ * ratings, so a round can only start when the previous one has finished. Each result is
+ * printed as soon as its game has ended, together with the new Elo ratings of its players.
+ */
+public class Tournament {
+
+	/**
+	 * The ways in which the tables of a round are chosen.
+	 */
+	public enum Pairing { ROUND_ROBIN, SWISS };
+
+	/**
+	 * An entry of the roster with its results so far.
+	 */
+	public static class Standing {
+
+		private final String name;
+		private final String strategy;
+		private final int thinkTime;
+		private double rating;
+		private int games;
+		private double wins;
+		private long points;
+
+		/**
+		 * Creates a new Standing from an entry like "Search:200".
+		 * @param entry the entry
+		 * @param defaultTime the think time if the entry has none
+		 * @throws IllegalArgumentException if the entry is not a known strategy with
+		 * 			parameters it uses
+		 */
+		public Standing(/*@ non_null */String entry, int defaultTime) {
+			name = entry;
+			strategy = entry;
+			thinkTime = defaultTime;
+			StrategyRegistry.getDefault().parse(entry, new StrategyConfig(defaultTime));
+			rating = Elo.INITIAL;
+		}
+
+		/*@ pure */public String getName() {
+			return name;
+		}
+
+		/*@ pure */public double getRating() {
+			return rating;
+		}
+
+		/*@ pure */public int getGames() {
+			return games;
+		}
+
+		/**
+		 * Returns the amount of games won, where a shared first place counts as half.
+		 */
+		/*@ pure */public double getWins() {
+			return wins;
+		}
+
+		/**
+		 * Returns the average score per game.
+		 */
+		/*@ pure */public double getAverageScore() {
+			return games == 0 ? 0 : (double) points / games;
+		}
+	}
+
+	private static final String USAGE = "When starting the Tournament '"
+					+ Tournament.class.getName() + "', please declare the <pairing>"
+					+ " (roundrobin or swiss), the <players> per game, the amount of <rounds>,"
+					+ " the default <aiTime> and at least as many <entries> as players per game,"
+					+ " like Search:200, Search:depth=2 or Random.";
+
+	/**
+	 * Runs a tournament with the arguments given on startup and prints the final standings.
+	 * @param args the pairing, the players per game, the rounds, the think time and the entries
+	 */
+	public static void main(String[] args) {
+		if (args.length < 5) {
+			System.out.println(USAGE);
+			System.exit(0);
+		}
+		try {
+			Pairing pairing = args[0].equalsIgnoreCase("swiss") ? Pairing.SWISS
+							: Pairing.ROUND_ROBIN;
+			int tableSize = Integer.parseInt(args[1]);
+			int rounds = Integer.parseInt(args[2]);
+			int aiTime = Integer.parseInt(args[3]);
+			List<String> entries = Arrays.asList(args).subList(4, args.length);
+			Tournament tournament = new Tournament(entries, aiTime, pairing, tableSize, rounds,
+							new ForkJoinPool(), System.out);
+			tournament.run();
+			System.out.print(tournament.standings());
+		} catch (IllegalArgumentException e) {
+			System.out.println(USAGE);
+		}
+	}
+
+	/*@
+	 	private invariant	2 <= tableSize && tableSize <= 4 && tableSize <= roster.size();
+	 */
+	// ----- Instance Variables -----
+	private final List<Standing> roster;
+	private final Pairing pairing;
+	private final int tableSize;
+	private final int rounds;
+	private final ForkJoinPool pool;
+	private final PrintStream out;
+	private int gamesPlayed;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new Tournament.
+	 * @param entries the strategies to compare, optionally with their think time or parameters
+	 * @param defaultTime the think time of the entries without one
+	 * @param pairing the way the tables are chosen
+	 * @param tableSize the amount of players per game, from 2 to 4
+	 * @param rounds the amount of rounds
+	 * @param pool the pool on which the games are played
+	 * @param out the stream the results are printed to as games end
+	 * @throws IllegalArgumentException if the table size does not fit the roster
+	 */
+	public Tournament(/*@ non_null */List<String> entries, int defaultTime,
+					/*@ non_null */Pairing pairing, int tableSize, int rounds,
+					/*@ non_null */ForkJoinPool pool, /*@ non_null */PrintStream out) {
+		if (tableSize < 2 || tableSize > 4 || tableSize > entries.size()) {
+			throw new IllegalArgumentException("A game needs 2 to 4 players of the roster.");
+		}
+		roster = new ArrayList<>();
+		for (String entry: entries) {
+			roster.add(new Standing(entry, defaultTime));
+		}
+		this.pairing = pairing;
+		this.tableSize = tableSize;
+		this.rounds = rounds;
+		this.pool = pool;
+		this.out = out;
+	}
+
+	// ----- Queries -----
+	/**
+	 * Returns the standings, from the highest rating down.
+	 */
+	public synchronized List<Standing> getStandings() {
+		List<Standing> result = new ArrayList<>(roster);
+		result.sort((a, b) -> Double.compare(b.rating, a.rating));
+		return result;
+	}
+
+	/**
+	 * Returns the standings as a table.
+	 */
+	public synchronized String standings() {
+		String result = String.format("%-20s %7s %5s %6s %7s%n", "Entry", "Elo", "Games",
+						"Wins", "Score");
+		for (Standing s: getStandings()) {
+			result += String.format("%-20s %7.1f %5d %6.1f %7.1f%n", s.name, s.rating,
+							s.games, s.wins, s.getAverageScore());
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the tables of every round robin round: all groups of tableSize entries.
+	 */
+	/*@ pure */private List<int[]> allTables() {
+		List<int[]> result = new ArrayList<>();
+		int[] table = new int[tableSize];
+		for (int i = 0; i < tableSize; i++) {
+			table[i] = i;
+		}
+		int n = roster.size();
+		boolean more = true;
+		while (more) {
+			result.add(table.clone());
+			int i = tableSize - 1;
+			while (i >= 0 && table[i] == n - tableSize + i) {
+				i--;
+			}
+			more = i >= 0;
+			if (more) {
+				table[i]++;
+				for (int j = i + 1; j < tableSize; j++) {
+					table[j] = table[j - 1] + 1;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the tables of a Swiss round: the entries sorted by rating, cut in groups of
+	 * tableSize. The rest forms a smaller table, or has a bye if it is a single entry.
+	 */
+	private synchronized List<int[]> swissTables() {
+		List<Integer> order = new ArrayList<>();
+		for (int i = 0; i < roster.size(); i++) {
+			order.add(i);
+		}
+		Collections.shuffle(order);
+		order.sort((a, b) -> Double.compare(roster.get(b).rating, roster.get(a).rating));
+		List<int[]> result = new ArrayList<>();
+		for (int i = 0; i + 1 < order.size(); i += tableSize) {
+			int[] table = new int[Math.min(tableSize, order.size() - i)];
+			for (int j = 0; j < table.length; j++) {
+				table[j] = order.get(i + j);
+			}
+			result.add(table);
+		}
+		return result;
+	}
+
+	// ----- Commands -----
+	/**
+	 * Plays all rounds and waits until every game has ended.
+	 */
+	public void run() {
+		if (pairing == Pairing.ROUND_ROBIN) {
+			List<int[]> tables = new ArrayList<>();
+			for (int round = 0; round < rounds; round++) {
+				for (int[] table: allTables()) {
+					tables.add(rotate(table, round));
+				}
+			}
+			playAll(tables);
+		} else {
+			for (int round = 0; round < rounds; round++) {
+				playAll(swissTables());
+			}
+		}
+	}
+
+	/**
+	 * Plays the given tables in parallel and records every result as soon as it is known.
+	 */
+	private void playAll(List<int[]> tables) {
+		CompletionService<int[]> games = new ExecutorCompletionService<>(pool);
+		for (int[] table: tables) {
+			games.submit(() -> play(table));
+		}
+		for (int i = 0; i < tables.size(); i++) {
+			try {
+				int[] result = games.take().get();
+				int[] table = Arrays.copyOf(result, result.length / 2);
+				int[] scores = Arrays.copyOfRange(result, result.length / 2, result.length);
+				out.println(record(table, scores));
+				out.flush();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException e) {
+				out.println("A game failed: " + e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * Plays a single quiet game between the entries at the given table.
+	 * @return the table followed by the scores of its players
+	 */
+	private int[] play(int[] table) {
+		Player[] players = new Player[table.length];
+		for (int i = 0; i < table.length; i++) {
+			Standing entry = roster.get(table[i]);
+			players[i] = new ComputerPlayer(entry.strategy, i, entry.strategy, entry.thinkTime);
+		}
+		Game game = new Game(table.length, players, 0, true);
+		game.playGame();
+		int[] result = Arrays.copyOf(table, table.length * 2);
+		for (int i = 0; i < table.length; i++) {
+			result[table.length + i] = game.getBoard().getScore(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Updates the standings with the result of a game.
+	 * @return a line describing the result and the new ratings
+	 */
+	private synchronized String record(int[] table, int[] scores) {
+		double[] ratings = new double[table.length];
+		int[] games = new int[table.length];
+		int best = 0;
+		for (int i = 0; i < table.length; i++) {
+			ratings[i] = roster.get(table[i]).rating;
+			games[i] = roster.get(table[i]).games;
+			best = Math.max(best, scores[i]);
+		}
+		double[] updated = Elo.update(ratings, games, scores);
+		int winners = 0;
+		for (int score: scores) {
+			if (score == best) {
+				winners++;
+			}
+		}
+		gamesPlayed++;
+		String result = "Game " + gamesPlayed + ":";
+		for (int i = 0; i < table.length; i++) {
+			Standing s = roster.get(table[i]);
+			s.rating = updated[i];
+			s.games++;
+			s.points += scores[i];
+			if (scores[i] == best) {
+				s.wins += 1.0 / winners;
+			}
+			result += String.format(" %s %d (%.1f)", s.name, scores[i], s.rating);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the table with its seats rotated by the given amount.
+	 */
+	/*@ pure */private static int[] rotate(int[] table, int amount) {
+		int[] result = new int[table.length];
+		for (int i = 0; i < table.length; i++) {
+			result[i] = table[(i + amount) % table.length];
+		}
+		return result;
+	}
+}
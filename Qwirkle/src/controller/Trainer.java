@@ -0,0 +1,298 @@
+package controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import model.Board;
+import model.Evaluator;
+import model.MoveGenerator;
+import model.OpeningTable;
+import model.Piece;
+import model.Place;
+import model.Trade;
+import model.UnseenTiles;
+
+/**
+ * Trains the weights of the Evaluator offline, from games that it plays against itself.
+ * Two players choose their moves with the current weights, and now and then a random move
+ * to see positions the weights would avoid. For every placing move the features are kept
+ * together with what the move turned out to be worth: its score, plus the score of the next
+ * turn of the same player, minus the score of the opponent in between. The new weights are
+ * those that predict this worth with the least squared error. Starting again from the
+ * weights written by the previous run refines them further.
+ */
+public class Trainer {
+
+	// ----- Constants -----
+	private static final int PLAYERS = 2;
+	private static final int HAND = 6;
+	private static final int QWIRKLE = 6;
+	private static final double EXPLORATION = 0.1;
+	private static final double RIDGE = 1e-3;
+	private static final String USAGE = "When starting the Trainer '"
+					+ Trainer.class.getName() + "', please declare a positive amount of <games>"
+					+ " and optionally the <file> of the weights, which is read first if it"
+					+ " exists and written afterwards.";
+
+	/*@
+	 	private invariant	sums.length == Evaluator.FEATURES + 1;
+	 	private invariant	targets.length == Evaluator.FEATURES + 1;
+	 */
+	// ----- Instance Variables -----
+	private final Evaluator policy;
+	private final Random random;
+	private final double[][] sums;
+	private final double[] targets;
+	private int samples;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new Trainer whose players choose their moves with the given Evaluator.
+	 * @param policy the evaluator of the players
+	 * @param random the source of randomness of the stack and of the exploring moves
+	 */
+	public Trainer(/*@ non_null */Evaluator policy, /*@ non_null */Random random) {
+		this.policy = policy;
+		this.random = random;
+		sums = new double[Evaluator.FEATURES + 1][Evaluator.FEATURES + 1];
+		targets = new double[Evaluator.FEATURES + 1];
+	}
+
+	// ----- Queries -----
+	/**
+	 * Returns the amount of moves learned from.
+	 */
+	/*@ pure */public int getSamples() {
+		return samples;
+	}
+
+	/**
+	 * Returns the weights that fit the moves learned from so far best, by solving the
+	 * normal equations of least squares, with a little ridge to keep them stable. The fit
+	 * has a constant term as well, which is left out of the result because it does not
+	 * change which move is best.
+	 */
+	/*
+	 *@ requires	getSamples() > 0;
+	 *@ ensures		\result.length == Evaluator.FEATURES;
+	 */
+	/*@ pure */public /*@ non_null */double[] fit() {
+		int n = Evaluator.FEATURES + 1;
+		double[][] system = new double[n][n + 1];
+		for (int i = 0; i < n; i++) {
+			System.arraycopy(sums[i], 0, system[i], 0, n);
+			system[i][i] += RIDGE * samples;
+			system[i][n] = targets[i];
+		}
+		for (int column = 0; column < n; column++) {
+			int pivot = column;
+			for (int row = column + 1; row < n; row++) {
+				if (Math.abs(system[row][column]) > Math.abs(system[pivot][column])) {
+					pivot = row;
+				}
+			}
+			double[] swap = system[column];
+			system[column] = system[pivot];
+			system[pivot] = swap;
+			for (int row = 0; row < n; row++) {
+				if (row != column) {
+					double factor = system[row][column] / system[column][column];
+					for (int k = column; k <= n; k++) {
+						system[row][k] -= factor * system[column][k];
+					}
+				}
+			}
+		}
+		double[] result = new double[Evaluator.FEATURES];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = system[i][n] / system[i][i];
+		}
+		return result;
+	}
+
+	// ----- Commands -----
+	/**
+	 * Plays one game and learns from all its placing moves but the first.
+	 */
+	public void play() {
+		Board board = new Board();
+		List<List<Piece>> hands = new ArrayList<>();
+		for (int p = 0; p < PLAYERS; p++) {
+			List<Piece> hand = new ArrayList<>();
+			for (int i = 0; i < HAND; i++) {
+				hand.add(board.draw());
+			}
+			hands.add(hand);
+		}
+		List<Integer> points = new ArrayList<>();
+		List<double[]> features = new ArrayList<>();
+		List<Integer> turns = new ArrayList<>();
+		int passes = 0;
+		boolean finished = false;
+		for (int turn = 0; passes < PLAYERS && !finished; turn++) {
+			int p = turn % PLAYERS;
+			List<Piece> hand = hands.get(p);
+			Place[] move;
+			if (board.getUndoDepth() == 0) {
+				move = OpeningTable.findOpening(hand, Board.ORIGIN, Board.ORIGIN);
+			} else {
+				double[] chosen = new double[Evaluator.FEATURES];
+				move = choose(board, hand, UnseenTiles.of(board, hand), chosen);
+				if (move != null) {
+					features.add(chosen);
+					turns.add(turn);
+				}
+			}
+			int score = 0;
+			if (move != null) {
+				score = board.getScore(move);
+				Piece[] drawn = board.apply(move, p, score);
+				for (Place place: move) {
+					hand.remove(place.getPiece());
+				}
+				for (Piece piece: drawn) {
+					hand.add(piece);
+				}
+				if (hand.isEmpty()) {
+					score += QWIRKLE;
+					board.addScore(p, QWIRKLE);
+					finished = true;
+				}
+				passes = 0;
+			} else if (board.getStackSize() > 0) {
+				Trade[] trades = new Trade[Math.min(hand.size(), board.getStackSize())];
+				for (int i = 0; i < trades.length; i++) {
+					trades[i] = new Trade(hand.get(i));
+				}
+				Piece[] drawn = board.apply(trades, p);
+				for (int i = 0; i < trades.length; i++) {
+					hand.set(i, drawn[i]);
+				}
+				passes = 0;
+			} else {
+				passes++;
+			}
+			points.add(score);
+			board.endTurn();
+		}
+		for (int i = 0; i < features.size(); i++) {
+			int turn = turns.get(i);
+			learn(features.get(i), points.get(turn) + pointsOf(points, turn + PLAYERS)
+							- pointsOf(points, turn + 1));
+		}
+	}
+
+	/**
+	 * Returns the move of the hand with the highest value, or a random one with chance
+	 * EXPLORATION, and puts its features in the given array. Returns null if no piece can
+	 * be placed.
+	 */
+	private Place[] choose(Board board, List<Piece> hand, UnseenTiles unseen, double[] out) {
+		List<Place[]> moves = new MoveGenerator(board).generate(hand);
+		Place[] result = null;
+		if (!moves.isEmpty()) {
+			double best = Double.NEGATIVE_INFINITY;
+			if (random.nextDouble() < EXPLORATION) {
+				result = moves.get(random.nextInt(moves.size()));
+			} else {
+				for (Place[] move: moves) {
+					double value = valueOf(board, hand, move, unseen, null);
+					if (value > best) {
+						best = value;
+						result = move;
+					}
+				}
+			}
+			valueOf(board, hand, result, unseen, out);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the value of the move to the policy, after putting its features in the given
+	 * array unless that is null. The board is left as it was.
+	 */
+	private double valueOf(Board board, List<Piece> hand, Place[] move, UnseenTiles unseen,
+					double[] out) {
+		int score = board.getScore(move);
+		board.apply(move, 0, score);
+		long leave = Evaluator.leaveOf(hand, move);
+		int leaveSize = hand.size() - move.length;
+		double result = policy.evaluate(board, score, leave, leaveSize, unseen);
+		if (out != null) {
+			Evaluator.features(board, score, leave, leaveSize, unseen, out);
+		}
+		board.undo();
+		return result;
+	}
+
+	/**
+	 * Adds a move with the given features and worth to the sums of the normal equations,
+	 * with a last feature that is always 1 for the constant term.
+	 */
+	private void learn(double[] features, double y) {
+		double[] x = Arrays.copyOf(features, Evaluator.FEATURES + 1);
+		x[Evaluator.FEATURES] = 1;
+		for (int i = 0; i < x.length; i++) {
+			for (int j = 0; j < x.length; j++) {
+				sums[i][j] += x[i] * x[j];
+			}
+			targets[i] += x[i] * y;
+		}
+		samples++;
+	}
+
+	/**
+	 * Returns the points scored in the given turn, or 0 if the game ended before it.
+	 */
+	/*@ pure */private static int pointsOf(List<Integer> points, int turn) {
+		return turn < points.size() ? points.get(turn) : 0;
+	}
+
+	/**
+	 * Trains with the arguments given on startup and prints the weights.
+	 * @param args the amount of games and optionally the file of the weights
+	 */
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.out.println(USAGE);
+			System.exit(0);
+		}
+		try {
+			int games = Integer.parseInt(args[0]);
+			if (games <= 0) {
+				System.out.println(USAGE);
+				System.exit(0);
+			}
+			File file = args.length > 1 ? new File(args[1]) : null;
+			Evaluator policy = file != null && file.exists() ? Evaluator.load(file)
+							: Evaluator.getDefault();
+			Trainer trainer = new Trainer(policy, new Random());
+			for (int i = 0; i < games; i++) {
+				trainer.play();
+			}
+			double[] weights = trainer.fit();
+			StringBuilder line = new StringBuilder();
+			for (double weight: weights) {
+				line.append(line.length() == 0 ? "" : " ")
+								.append(String.format(Locale.ROOT, "%.4f", weight));
+			}
+			System.out.println(trainer.getSamples() + " moves from " + games + " games: " + line);
+			if (file != null) {
+				Files.write(file.toPath(), (line + System.lineSeparator())
+								.getBytes(StandardCharsets.US_ASCII));
+			}
+		} catch (NumberFormatException e) {
+			System.out.println(USAGE);
+		} catch (IOException e) {
+			System.out.println(e.getMessage());
+		}
+	}
+}
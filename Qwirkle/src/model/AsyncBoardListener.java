@@ -0,0 +1,94 @@
+package model;
+
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import util.Log;
+
+/**
+ * Hands the batches of a Board to another BoardListener on its own thread.
+ * Ending a turn only puts the batch in a queue, so a slow listener,
+ * like a spectator or a journal, never holds up the game.
+ * As the board may already have changed further when a batch is delivered,
+ * the target should rely on the events or on the snapshot of the board, which is
+ * always consistent, rather than on the board itself.
+ */
+public class AsyncBoardListener implements BoardListener, Runnable {
+
+	// ----- Instance Variables -----
+	private final BoardListener target;
+	private final LinkedBlockingQueue<Batch> batches;
+	private final Thread thread;
+	private volatile boolean running;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new AsyncBoardListener and starts its thread.
+	 * @param target the listener that receives the batches
+	 * @param name the name of the thread
+	 */
+	public AsyncBoardListener(/*@ non_null */BoardListener target, /*@ non_null */String name) {
+		this.target = target;
+		batches = new LinkedBlockingQueue<>();
+		running = true;
+		thread = new Thread(this, name);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	// ----- Queries -----
+	/**
+	 * Returns the amount of batches that have not been delivered yet.
+	 */
+	/*@ pure */public int getBacklog() {
+		return batches.size();
+	}
+
+	// ----- Commands -----
+	/**
+	 * Queues the batch for the target listener. Never blocks.
+	 */
+	public void boardChanged(Board b, List<BoardEvent> events) {
+		batches.offer(new Batch(b, events));
+	}
+
+	/**
+	 * Delivers the queued batches to the target listener until closed.
+	 */
+	public void run() {
+		while (running || !batches.isEmpty()) {
+			try {
+				Batch batch = batches.take();
+				target.boardChanged(batch.board, batch.events);
+			} catch (InterruptedException e) {
+				running = false;
+			} catch (RuntimeException e) {
+				Log.warn(thread.getName(), "Listener failed: " + e);
+			}
+		}
+	}
+
+	/**
+	 * Stops the thread once the queued batches have been delivered.
+	 */
+	public void close() {
+		running = false;
+		if (batches.isEmpty()) {
+			thread.interrupt();
+		}
+	}
+
+	/**
+	 * A queued batch together with the board it came from, so that it is handed over to
+	 * the delivery thread by the queue.
+	 */
+	private static class Batch {
+		private final Board board;
+		private final List<BoardEvent> events;
+
+		private Batch(Board board, List<BoardEvent> events) {
+			this.board = board;
+			this.events = events;
+		}
+	}
+}
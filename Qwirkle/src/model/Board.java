@@ -4,8 +4,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
-import java.util.Observable;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
 
 import exceptions.InvalidMoveException;
 
@@ -15,18 +19,46 @@ import exceptions.InvalidMoveException;
  * @version $1.0
  */
 
-public class Board extends Observable {
+public class Board implements ReadableBoard {
 
 	/*@
 	 	private invariant	0 <= stack.size() && stack.size() <= 108;
-		private invariant 	0 <= minRow && minRow <= 86;
-		private invariant	97 <= maxRow && maxRow <= 183;
-		private invariant	0 <= minColumn && minColumn <= 85;
-		private invariant	97 <= maxColumn && maxColumn <= 183;
+		private invariant	frontier != null ==> (\forall long cell; frontier.contains(cell);
+								isEmpty(rowOf(cell), columnOf(cell)));
+		private invariant	dead != null ==> frontier != null && frontier.containsAll(dead);
 	*/
 	// ----- Constants -----
-	public static final int DIM = 183;
+	/**
+	 * The row and column of the cell where the first piece of a game is placed.
+	 */
+	public static final int ORIGIN = 91;
+	/**
+	 * The board has no edges, but rows and columns further than LIMIT from 0 are not fields,
+	 * so the coordinates and the bounds around them can never overflow.
+	 */
+	public static final int LIMIT = 1 << 26;
 	public static final int MAX_STACK_SIZE = 108;
+	private static final int COPIES = MAX_STACK_SIZE / Piece.CODES;
+	private static final long ALL_KINDS = (1L << Piece.CODES) - 1;
+	/**
+	 * The changed cells kept before the dead cells are found again: two moves of a whole hand.
+	 */
+	private static final int MAX_DIRTY = 12;
+	private static final int[][] NEIGHBOURS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+	/**
+	 * The steps along the row (axis 0) and the column (axis 1) through a cell.
+	 */
+	private static final int[][] AXES = {{0, 1}, {1, 0}};
+	/**
+	 * Every piece keeps the line segment it is in for both axes as one int: a mask of the
+	 * colors in bits 0 to 7, a mask of the shapes from bit SHAPES, the length from bit
+	 * LENGTH and the mode of the line in the COLOR_LINE and SHAPE_LINE bits. A segment of
+	 * one piece has both modes, a segment that is no longer a valid line has neither.
+	 */
+	private static final int SHAPES = 8;
+	private static final int LENGTH = 16;
+	private static final int COLOR_LINE = 1 << 24;
+	private static final int SHAPE_LINE = 1 << 25;
 
 	// ----- Instance Variables -----
 	private int minRow;
@@ -36,66 +68,104 @@ public class Board extends Observable {
 	
 	private int lastMadeMove;
 	
-	private int size;
-	private Piece[][] board;
+	private boolean boundsChanged;
+	
+	private ChunkedGrid board;
+	private TreeSet<Long> frontier;
+	private HashSet<Long> dead;
+	private int pieceCount;
+	private int[] played;
+	private long usedUp;
+	private int[] dirty;
+	private int dirtyCount;
+	private int[] openFives;
+	private int openFiveCount;
 	private ArrayList<Piece> stack;
 	private int[] scores;
+	private long hash;
+	private ArrayList<Undo> history;
+	private List<BoardListener> listeners;
+	private List<BoardEvent> pending;
+	private volatile BoardSnapshot snapshot;
 	
 	// ----- Constructors -----
 	
 	/**
-	 * Creates a new Board object of default size (183 x 183).
+	 * Creates a new Board object without edges. Only the parts of the board that hold
+	 * pieces take memory.
 	 */
 	/*
-	 *@ ensures		getSize() == DIM;
-	 *				getMinRow() == 86;
-	 *				getMaxRow() == 97;
-	 *				getMinColumn() == 85;
-	 *				getMaxColumn() == 97;
+	 *@ ensures		getMinRow() == ORIGIN;
+	 *				getMaxRow() == ORIGIN;
+	 *				getMinColumn() == ORIGIN;
+	 *				getMaxColumn() == ORIGIN;
 	 *				getStack().size() == 108;
 	 */
 	public Board() {
-		size = DIM;
-		board = new Piece[DIM][DIM];
-		stack = new ArrayList<Piece>();
-		fillStack();
-		minRow = 86;
-		maxRow = 97;
-		minColumn = 85;
-		maxColumn = 97;
-		scores = new int[4];
+		this(true);
 	}
 	
-	// ----- Queries -----
 	/**
-	 * Returns the Board of this Game. 
-	 * @return the Board. 
+	 * Creates a new Board, with or without the pieces in the stack.
+	 * @param withStack true if the stack is filled with the 108 pieces
 	 */
-	/*@ pure */public /*@ non_null */Piece[][] getBoard() {
-		return board;
+	protected Board(boolean withStack) {
+		board = new ChunkedGrid();
+		frontier = new TreeSet<>();
+		dead = new HashSet<>();
+		stack = new ArrayList<Piece>();
+		if (withStack) {
+			fillStack();
+		}
+		minRow = ORIGIN;
+		maxRow = ORIGIN;
+		minColumn = ORIGIN;
+		maxColumn = ORIGIN;
+		scores = new int[4];
+		openFives = new int[Piece.CODES];
+		played = new int[Piece.CODES];
+		dirty = new int[2 * MAX_DIRTY];
+		history = new ArrayList<>();
+		listeners = new CopyOnWriteArrayList<>();
+		pending = new ArrayList<>();
+		publish();
 	}
 	
+	// ----- Queries -----
 	/**
 	 * Returns the Piece in a given cell indicated by row and column. 
 	 * @return piece the Piece in the given cell. 
 	 */
 	/*
-	 *@ requires 	0 <= row && 183 < row;
-	 *				0 <= column && column <= 183;
+	 *@ requires 	isField(row, column);
 	 */
 	/*@ pure */public Piece getCell(/*@ non_null */int row, /*@ non_null */int column) {
-		return board[row][column];
+		return board.get(row, column);
 	}
 	
 	/**
-	 * Returns the size of the edges of a Board. 
-	 * @return the size of a Board.
+	 * Returns the snapshot of the board as it was at the end of the last turn, or as it was
+	 * made if no turn has ended yet. Unlike the board itself, the snapshot may be read by
+	 * any thread while the game goes on.
 	 */
-	/*
-	 *@ ensures 	\result == 183;
+	/*@ pure */public /*@ non_null */BoardSnapshot getSnapshot() {
+		return snapshot;
+	}
+	
+	/**
+	 * Returns the amount of chunks of ChunkedGrid.CHUNK by ChunkedGrid.CHUNK cells
+	 * that hold the pieces of this board.
 	 */
-	/*@ pure */public /*@ non_null */int getSize() {
-		return size;
+	/*@ pure */public int getChunkCount() {
+		return board.getChunkCount();
+	}
+	
+	/**
+	 * Returns the Zobrist hash of the pieces on the board. Boards with the same pieces
+	 * in the same cells have the same hash, however the pieces were placed.
+	 */
+	/*@ pure */public long getHash() {
+		return hash;
 	}
 	
 	/**
@@ -105,14 +175,13 @@ public class Board extends Observable {
 	 * @return true if the cell is empty, false when occupied. 
 	 */
 	/*
-	 *@ requires	0 <= row && 183 < row;
-	 *				0 <= column && column <= 183;
-	 *@ ensures		isEmpty(row, column) ==> board[row][column] == null;
-	 *				!(isEmpty(row, column) ==> board[row][column] != null;
+	 *@ requires	isField(row, column);
+	 *@ ensures		isEmpty(row, column) ==> getCell(row, column) == null;
+	 *				!(isEmpty(row, column) ==> getCell(row, column) != null;
 	 */
 	/*@pure*/public /*@ non_null */boolean isEmpty(/*@ non_null */int row,
 														/*@ non_null */int column) {
-		return board[row][column] == null;
+		return board.get(row, column) == null;
 	}
 	 
 	/**
@@ -120,14 +189,11 @@ public class Board extends Observable {
 	 * @return true if the row and column refer to a valid cell on the board, false otherwise.
 	 */
 	/*
-	 *@ ensures 	0 <= row && row < 183 && 0 <= column && column <= 183
-	 *					==> isField(row, column) == true;
-	 *				row < 0 && 183 < row && column < 0 && 183 < column 
-	 *					==> isField(row, column) == false;
+	 *@ ensures 	\result == (-LIMIT < row && row < LIMIT && -LIMIT < column && column < LIMIT);
 	 */
 	/*@pure*/public /*@ non_null */boolean isField(/*@ non_null */int row,
 														/*@ non_null */int column) {
-		return 0 <= row && row < size && 0 <= column && column < size;
+		return -LIMIT < row && row < LIMIT && -LIMIT < column && column < LIMIT;
 	}
 	
 	/**
@@ -142,37 +208,235 @@ public class Board extends Observable {
 	}
 	
 	/**
-	 * Returns the minimal size of the rows on the Board. 
-	 * @return the minimal row size of the Board. 
+	 * Returns the lowest row in which a piece can be placed: one less than the lowest
+	 * row that holds a piece, or the ORIGIN if the board is empty.
+	 * @return the minimal row of the Board. 
 	 */
 	/*@ pure */public /*@ non_null */int getMinRow() {
+		updateBounds();
 		return minRow;
 	}
 	
 	/**
-	 * Returns the maximum size of the rows on the Board. 
-	 * @return the maximum row size of the Board. 
+	 * Returns the highest row in which a piece can be placed: one more than the highest
+	 * row that holds a piece, or the ORIGIN if the board is empty.
+	 * @return the maximum row of the Board. 
 	 */
 	/*@ pure */public /*@ non_null */int getMaxRow() {
+		updateBounds();
 		return maxRow;
 	}
 	
 	/**
-	 * Returns the minimal size of the columns on the Board. 
-	 * @return the minimal column size of the Board. 
+	 * Returns the lowest column in which a piece can be placed: one less than the lowest
+	 * column that holds a piece, or the ORIGIN if the board is empty.
+	 * @return the minimal column of the Board. 
 	 */
 	/*@ pure */public /*@ non_null */int getMinColumn() {
+		updateBounds();
 		return minColumn;
 	}
 	
 	/**
-	 * Returns the maximum size of the columns on the Board. 
-	 * @return the maximum column size of the Board. 
+	 * Returns the highest column in which a piece can be placed: one more than the highest
+	 * column that holds a piece, or the ORIGIN if the board is empty.
+	 * @return the maximum column of the Board. 
 	 */	
 	/*@ pure */public /*@ non_null */int getMaxColumn() {
+		updateBounds();
 		return maxColumn;
 	}
 	
+	/**
+	 * Returns the empty cells in which the next piece could be placed, row by row from
+	 * the top left: the cells next to a piece that are not dead, or only the ORIGIN as long
+	 * as it is empty. The cells are kept up to date by setPiece, so no part of the board is
+	 * scanned.
+	 * @return a list of {row, column} pairs.
+	 */
+	/*
+	 *@ ensures		isEmpty(ORIGIN, ORIGIN) ==> \result.size() == 1;
+	 *				(\forall int[] cell; \result.contains(cell); isEmpty(cell[0], cell[1]));
+	 */
+	/*@ pure */public /*@ non_null */List<int[]> getCandidates() {
+		List<int[]> result = new ArrayList<>();
+		if (isEmpty(ORIGIN, ORIGIN)) {
+			result.add(new int[] {ORIGIN, ORIGIN});
+		} else {
+			HashSet<Long> blocked = getDead();
+			for (long cell: getFrontier()) {
+				if (!blocked.contains(cell)) {
+					result.add(new int[] {rowOf(cell), columnOf(cell)});
+				}
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the amount of empty cells next to a piece.
+	 */
+	/*@ pure */public int getFrontierSize() {
+		return getFrontier().size();
+	}
+	
+	/**
+	 * Tests if the given cell is dead: it is next to a piece, but no piece can ever be placed
+	 * in it. Either no kind of piece fits both the row and the column through it, or every
+	 * piece of the kinds that fit is already on the board. setPiece notes the cells it
+	 * changes, and the next question only looks again at the cells at the ends of their
+	 * lines; see markDirty for when they are all found again.
+	 * @param row the row of the cell
+	 * @param column the column of the cell
+	 */
+	/*
+	 *@ ensures		\result ==> isEmpty(row, column);
+	 */
+	/*@ pure */public boolean isDead(int row, int column) {
+		return getDead().contains(cellOf(row, column));
+	}
+	
+	/**
+	 * Returns the amount of dead cells.
+	 */
+	/*@ pure */public int getDeadCount() {
+		return getDead().size();
+	}
+	
+	/**
+	 * Tests if the given piece may be placed in the given empty cell: the row and the column
+	 * through the cell must both still be a line of one color or one shape without doubles,
+	 * also where the piece joins two segments. The segments next to the cell are kept with
+	 * their masks by setPiece, so this takes a few bit operations and no walk over the lines.
+	 * @param row the row of the cell
+	 * @param column the column of the cell
+	 * @param piece the piece to place
+	 */
+	/*
+	 *@ requires	isField(row, column) && isEmpty(row, column);
+	 */
+	/*@ pure */public boolean fits(int row, int column, /*@ non_null */Piece piece) {
+		boolean result = true;
+		for (int axis = 0; axis < 2 && result; axis++) {
+			int before = board.getLine(row - AXES[axis][0], column - AXES[axis][1], axis);
+			int after = board.getLine(row + AXES[axis][0], column + AXES[axis][1], axis);
+			int line = join(join(before, lineOf(piece)), after);
+			result = (line & (COLOR_LINE | SHAPE_LINE)) != 0 && lengthOf(line) <= 6;
+		}
+		return result;
+	}
+	
+	/**
+	 * Tests if no piece that is not yet all on the board fits in the given empty cell.
+	 */
+	/*@ pure */private boolean isBlocked(int row, int column) {
+		long open = ~usedUp & kindsFitting(join(board.getLine(row, column - 1, 0),
+						board.getLine(row, column + 1, 0)))
+						& kindsFitting(join(board.getLine(row - 1, column, 1),
+						board.getLine(row + 1, column, 1)));
+		return open == 0;
+	}
+	
+	/**
+	 * Returns the mask of the kinds of piece, as numbered by Piece.getCode(), that can be
+	 * added to the given segment: any kind to no segment, the missing shapes of the color of
+	 * a color line and the missing colors of the shape of a shape line.
+	 */
+	/*@ pure */private static long kindsFitting(int line) {
+		long result = line == 0 ? ALL_KINDS : 0;
+		if (line != 0 && lengthOf(line) < 6) {
+			int colors = line & 0xFF;
+			int shapes = line >>> SHAPES & 0xFF;
+			if ((line & COLOR_LINE) != 0) {
+				int color = Integer.numberOfTrailingZeros(colors);
+				for (int rest = ~shapes & 63; rest != 0; rest &= rest - 1) {
+					result |= 1L << color * 6 + Integer.numberOfTrailingZeros(rest);
+				}
+			}
+			if ((line & SHAPE_LINE) != 0) {
+				int shape = Integer.numberOfTrailingZeros(shapes);
+				for (int rest = ~colors & 63; rest != 0; rest &= rest - 1) {
+					result |= 1L << Integer.numberOfTrailingZeros(rest) * 6 + shape;
+				}
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the amount of lines of five pieces on the board, which a sixth piece would
+	 * make a Qwirkle. Both ends of such a line are empty, although a piece there may still
+	 * not fit in the line across. The lines are counted by setPiece, so this takes no time.
+	 */
+	/*@ pure */public int getOpenFives() {
+		return openFiveCount;
+	}
+	
+	/**
+	 * Returns the amount of lines of five pieces that the given kind of piece would complete.
+	 * @param code the kind, as numbered by Piece.getCode()
+	 */
+	/*
+	 *@ requires	0 <= code && code < Piece.CODES;
+	 */
+	/*@ pure */public int getOpenFives(int code) {
+		return openFives[code];
+	}
+	
+	/**
+	 * Returns the line segment of a single piece.
+	 */
+	/*@ pure */private static int lineOf(Piece piece) {
+		return 1 << piece.getColor().ordinal() | 1 << SHAPES + piece.getShape().ordinal()
+						| 1 << LENGTH | COLOR_LINE | SHAPE_LINE;
+	}
+	
+	/**
+	 * Returns the segment made of two adjacent segments, either of which may be 0 for none.
+	 * It is a color line if it has one color and as many shapes as pieces, so a double
+	 * anywhere in it leaves it without a mode.
+	 */
+	/*@ pure */private static int join(int first, int second) {
+		int colors = (first | second) & 0xFF;
+		int shapes = (first | second) >>> SHAPES & 0xFF;
+		int length = lengthOf(first) + lengthOf(second);
+		int result = colors | shapes << SHAPES | length << LENGTH;
+		if (Integer.bitCount(colors) == 1 && Integer.bitCount(shapes) == length) {
+			result |= COLOR_LINE;
+		}
+		if (Integer.bitCount(shapes) == 1 && Integer.bitCount(colors) == length) {
+			result |= SHAPE_LINE;
+		}
+		return result;
+	}
+	
+	/*@ pure */private static int lengthOf(int line) {
+		return line >>> LENGTH & 0xFF;
+	}
+	
+	/**
+	 * Returns the key of a cell in the frontier. The keys sort the cells row by row.
+	 */
+	/*@ pure */private static long cellOf(int row, int column) {
+		return ((long) row << 32) | ((column ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+	}
+	
+	/*@ pure */private static int rowOf(long cell) {
+		return (int) (cell >> 32);
+	}
+	
+	/*@ pure */private static int columnOf(long cell) {
+		return (int) cell ^ Integer.MIN_VALUE;
+	}
+	
+	/**
+	 * Tests if one of the four cells next to the given cell holds a piece.
+	 */
+	/*@ pure */private boolean hasNeighbour(int row, int column) {
+		return !isEmpty(row - 1, column) || !isEmpty(row + 1, column)
+						|| !isEmpty(row, column - 1) || !isEmpty(row, column + 1);
+	}
+	
 	/**
 	 * Returns the stack. 
 	 * @return the stack.
@@ -184,6 +448,16 @@ public class Board extends Observable {
 		return stack;
 	}
 	
+	/**
+	 * Returns the amount of pieces in the stack.
+	 */
+	/*
+	 *@ ensures 	0 <= \result && \result <= MAX_STACK_SIZE;
+	 */
+	/*@ pure */public int getStackSize() {
+		return stack.size();
+	}
+	
 	/**
 	 * Determines the length of a row given a certain cell.
 	 * @return the length of a row.
@@ -264,7 +538,7 @@ public class Board extends Observable {
 	 *				stack.size() > 0 ==> \result == false;
 	 */
 	/*@ pure */public /*@ non_null */boolean emptyStack() {
-		return stack.size() == 0;
+		return getStackSize() == 0;
 	}
 	
 	
@@ -281,12 +555,13 @@ public class Board extends Observable {
 	 */
 	public void addScore(/*@ non_null */int playerID, /*@ non_null */int score) {
 		this.scores[playerID] += score;
+		record(BoardEvent.scoreChanged(playerID, scores[playerID]));
 	}
 	
 	/**
-	 * Places the given piece in the right cell, and then adjusts values of 
-	 * minRow, maxRow, minColumn and maxColumn so that the relevent parts of 
-	 * the board can be printed by the TUI. 
+	 * Places the given piece in the right cell, or empties it if the piece is null,
+	 * and then updates the line segments through the cell, the frontier of empty
+	 * cells next to a piece, from which the bounds of the board follow, and the dead cells.
 	 * @param row the row in which piece is to be placed.
 	 * @param column the column in which piece is to be placed. 
 	 * @param piece the piece that is to be placed.
@@ -294,35 +569,51 @@ public class Board extends Observable {
 	/*
 	 *@ requires 	isField(row, column);
 	 *@ ensures		getCell(row, column) == piece;
-	 *				row <= minRow && row - 5 > 1 ==> minRow == row - 5;
-	 *				row <= minRow && row -5 <= 1 ==> minRow == 1;
-	 *				row >= maxRox ==> maxRow == row + 5;
-	 *				column <= minColumn && column - 5 > 1 ==> minColumn == column - 5;
-	 *				column <= minColumn && column -5 <= 1 ==> minColumn == 1;
-	 *				column >= maxColumn ==> maxColumn == row + 5;
+	 *				piece != null ==> getMinRow() <= row - 1 && row + 1 <= getMaxRow();
+	 *				piece != null ==> getMinColumn() <= column - 1 && column + 1 <= getMaxColumn();
 	 */
 	public void setPiece(/*@ non_null */int row, /*@ non_null */int column,
 						/*@ non_null */Piece piece) {
-		board[row][column] = piece;
-		if (row <= minRow) {
-			if (row - 5 > 1) {
-				minRow = row - 5;
-			} else {
-				minRow = 1;
+		Piece old = board.get(row, column);
+		if (old != null) {
+			hash ^= Zobrist.key(row, column, old);
+		}
+		board.set(row, column, piece);
+		if (piece != null) {
+			hash ^= Zobrist.key(row, column, piece);
+		}
+		if (old != null) {
+			splitLines(row, column);
+		}
+		if (piece != null) {
+			joinLines(row, column, piece);
+		}
+		if (old == null && piece != null) {
+			pieceCount++;
+			addToFrontier(row, column);
+		} else if (old != null && piece == null) {
+			pieceCount--;
+			removeFromFrontier(row, column);
+		}
+		boolean exhausted = false;
+		if (old != null) {
+			played[old.getCode()]--;
+			if (played[old.getCode()] == COPIES - 1) {
+				usedUp &= ~(1L << old.getCode());
+				exhausted = true;
 			}
-		} else if (row >= maxRow) {
-			maxRow = row + 5;
 		}
-		if (column <= minColumn) {
-			if (column - 5 > 1) {
-				minColumn = column - 5;
-			} else {
-				minColumn = 1;
+		if (piece != null) {
+			played[piece.getCode()]++;
+			if (played[piece.getCode()] == COPIES) {
+				usedUp |= 1L << piece.getCode();
+				exhausted = true;
 			}
-		} else if (column >= maxColumn) {
-			maxColumn = column + 5;
 		}
-		setChanged();
+		if (old != piece) {
+			markDirty(row, column, exhausted || old != null && piece != null);
+		}
+		record(BoardEvent.tilePlaced(row, column, piece));
 	}
 	
 	/**
@@ -338,38 +629,306 @@ public class Board extends Observable {
 	}
 	
 	/**
-	 * Empties the whole board.
+	 * Empties the whole board, sets the scores back to 0, forgets the moves that could be
+	 * taken back and publishes a snapshot of the empty board. The stack is kept.
 	 */
 	/*
-	 *@ ensures		(\forall int i, j; 0 <= i, 0 <= j, i <= j, 0 j <= 183;
-	 *					getCell(i, j) == null);
+	 *@ ensures		(\forall int i, j; isField(i, j); getCell(i, j) == null);
+	 *				getUndoDepth() == 0;
 	 */
 	public void reset() {
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				board[i][j] = null;
+		board.clear();
+		frontier = new TreeSet<>();
+		dead = new HashSet<>();
+		dirtyCount = 0;
+		pieceCount = 0;
+		Arrays.fill(played, 0);
+		usedUp = 0;
+		Arrays.fill(openFives, 0);
+		openFiveCount = 0;
+		boundsChanged = true;
+		hash = 0;
+		Arrays.fill(scores, 0);
+		history.clear();
+		pending.clear();
+		publish();
+	}
+	
+	/**
+	 * Joins the given piece with the segments before and after it on both axes, and
+	 * stores the joined segment in each of its pieces.
+	 */
+	private void joinLines(int row, int column, Piece piece) {
+		for (int axis = 0; axis < 2; axis++) {
+			int rowStep = AXES[axis][0];
+			int columnStep = AXES[axis][1];
+			int before = board.getLine(row - rowStep, column - columnStep, axis);
+			int after = board.getLine(row + rowStep, column + columnStep, axis);
+			int line = join(join(before, lineOf(piece)), after);
+			countFive(before, -1);
+			countFive(after, -1);
+			countFive(line, 1);
+			int back = lengthOf(before);
+			writeLine(row - back * rowStep, column - back * columnStep, rowStep, columnStep,
+							axis, line);
+		}
+	}
+	
+	/**
+	 * Splits the segments through the emptied cell on both axes into the part before and
+	 * the part after it, which are counted again from their pieces.
+	 */
+	private void splitLines(int row, int column) {
+		for (int axis = 0; axis < 2; axis++) {
+			countFive(board.getLine(row, column, axis), -1);
+			board.setLine(row, column, axis, 0);
+			for (int sign = -1; sign <= 1; sign += 2) {
+				int rowStep = sign * AXES[axis][0];
+				int columnStep = sign * AXES[axis][1];
+				int line = 0;
+				Piece next = board.get(row + rowStep, column + columnStep);
+				while (next != null) {
+					line = join(line, lineOf(next));
+					int step = lengthOf(line) + 1;
+					next = board.get(row + step * rowStep, column + step * columnStep);
+				}
+				writeLine(row + rowStep, column + columnStep, rowStep, columnStep, axis, line);
+				countFive(line, 1);
 			}
 		}
 	}
 	
+	/**
+	 * Counts a valid segment of five pieces that appears, or uncounts one that disappears,
+	 * under the one kind of piece that would complete it.
+	 */
+	private void countFive(int line, int amount) {
+		if (lengthOf(line) == 5 && (line & (COLOR_LINE | SHAPE_LINE)) != 0) {
+			boolean colorLine = (line & COLOR_LINE) != 0;
+			int colors = line & 0xFF;
+			int shapes = line >>> SHAPES & 0xFF;
+			int color = Integer.numberOfTrailingZeros(colorLine ? colors : ~colors & 63);
+			int shape = Integer.numberOfTrailingZeros(colorLine ? ~shapes & 63 : shapes);
+			openFives[color * 6 + shape] += amount;
+			openFiveCount += amount;
+		}
+	}
+	
+	/**
+	 * Stores the given segment in its pieces, starting at the given cell.
+	 */
+	private void writeLine(int row, int column, int rowStep, int columnStep, int axis,
+					int line) {
+		for (int i = 0; i < lengthOf(line); i++) {
+			board.setLine(row + i * rowStep, column + i * columnStep, axis, line);
+		}
+	}
+	
+	/**
+	 * Updates the frontier after a piece has been placed in an empty cell. The bounds
+	 * only grow, to one cell past the new piece.
+	 */
+	private void addToFrontier(int row, int column) {
+		if (frontier != null) {
+			frontier.remove(cellOf(row, column));
+			for (int[] direction: NEIGHBOURS) {
+				if (isEmpty(row + direction[0], column + direction[1])) {
+					frontier.add(cellOf(row + direction[0], column + direction[1]));
+				}
+			}
+		}
+		if (!boundsChanged && pieceCount == 1) {
+			minRow = row - 1;
+			maxRow = row + 1;
+			minColumn = column - 1;
+			maxColumn = column + 1;
+		} else if (!boundsChanged) {
+			minRow = Math.min(minRow, row - 1);
+			maxRow = Math.max(maxRow, row + 1);
+			minColumn = Math.min(minColumn, column - 1);
+			maxColumn = Math.max(maxColumn, column + 1);
+		}
+	}
+	
+	/**
+	 * Updates the frontier after a piece has been removed. The bounds may shrink, so
+	 * they are computed again from the frontier when they are asked for.
+	 */
+	private void removeFromFrontier(int row, int column) {
+		if (frontier != null) {
+			for (int[] direction: NEIGHBOURS) {
+				int r = row + direction[0];
+				int c = column + direction[1];
+				if (isEmpty(r, c) && !hasNeighbour(r, c)) {
+					frontier.remove(cellOf(r, c));
+				}
+			}
+			if (hasNeighbour(row, column)) {
+				frontier.add(cellOf(row, column));
+			}
+		}
+		boundsChanged = true;
+	}
+	
+	/**
+	 * Notes that the given cell has changed, so the cells around it are looked at again
+	 * when the dead cells are next asked for. After more changes than MAX_DIRTY, as in a
+	 * search on a copy, or after a change that can affect every cell of the frontier, the
+	 * dead cells are dropped instead, to be found again from the whole frontier when they
+	 * are asked for.
+	 * @param global true if a kind has just run out or come back, or a piece has replaced
+	 * 			another
+	 */
+	private void markDirty(int row, int column, boolean global) {
+		if (dead != null && (global || dirtyCount == MAX_DIRTY)) {
+			dead = null;
+			dirtyCount = 0;
+		} else if (dead != null) {
+			dirty[2 * dirtyCount] = row;
+			dirty[2 * dirtyCount + 1] = column;
+			dirtyCount++;
+		}
+	}
+	
+	/**
+	 * Looks again at the cells whose lines have changed by setting the given cell: the cell
+	 * itself and the first empty cell in each direction from it.
+	 */
+	private void refreshDead(int row, int column) {
+		checkDead(cellOf(row, column));
+		for (int[] direction: NEIGHBOURS) {
+			int r = row + direction[0];
+			int c = column + direction[1];
+			while (!isEmpty(r, c)) {
+				r += direction[0];
+				c += direction[1];
+			}
+			checkDead(cellOf(r, c));
+		}
+	}
+	
+	/**
+	 * Adds the given cell to the dead cells if it is in the frontier and blocked, and
+	 * removes it otherwise.
+	 */
+	private void checkDead(long cell) {
+		if (frontier.contains(cell) && isBlocked(rowOf(cell), columnOf(cell))) {
+			dead.add(cell);
+		} else {
+			dead.remove(cell);
+		}
+	}
+	
+	/**
+	 * Returns the dead cells, first looking again around the cells that have changed, or
+	 * finding them in the whole frontier if they have been dropped or this board is a copy
+	 * that has not needed them yet.
+	 */
+	private HashSet<Long> getDead() {
+		for (int i = 0; i < dirtyCount; i++) {
+			refreshDead(dirty[2 * i], dirty[2 * i + 1]);
+		}
+		dirtyCount = 0;
+		if (dead == null) {
+			HashSet<Long> result = new HashSet<>();
+			for (long cell: getFrontier()) {
+				if (isBlocked(rowOf(cell), columnOf(cell))) {
+					result.add(cell);
+				}
+			}
+			dead = result;
+		}
+		return dead;
+	}
+	
+	/**
+	 * Returns the frontier, first building it from the pieces on the board if this board
+	 * is a copy that has not needed it yet.
+	 */
+	private TreeSet<Long> getFrontier() {
+		if (frontier == null) {
+			TreeSet<Long> result = new TreeSet<>();
+			board.forEach((row, column, piece) -> {
+				for (int[] direction: NEIGHBOURS) {
+					if (isEmpty(row + direction[0], column + direction[1])) {
+						result.add(cellOf(row + direction[0], column + direction[1]));
+					}
+				}
+			});
+			frontier = result;
+		}
+		return frontier;
+	}
+	
+	/**
+	 * Computes the bounds from the frontier if a piece has been removed since they
+	 * were last computed.
+	 */
+	private void updateBounds() {
+		if (boundsChanged) {
+			TreeSet<Long> cells = getFrontier();
+			if (cells.isEmpty()) {
+				minRow = ORIGIN;
+				maxRow = ORIGIN;
+				minColumn = ORIGIN;
+				maxColumn = ORIGIN;
+			} else {
+				minRow = rowOf(cells.first());
+				maxRow = rowOf(cells.last());
+				minColumn = Integer.MAX_VALUE;
+				maxColumn = Integer.MIN_VALUE;
+				for (long cell: cells) {
+					minColumn = Math.min(minColumn, columnOf(cell));
+					maxColumn = Math.max(maxColumn, columnOf(cell));
+				}
+			}
+			boundsChanged = false;
+		}
+	}
+	
 	/**
 	 * Creates a new Board that exactly copies the occupation of this Board.
+	 * The chunks of the board are copied as a whole, together with the bounds and the hash.
+	 * The frontier and the dead cells are only found again when the copy needs them, so
+	 * copies that are only used to check a move do not pay for them. The copy has the
+	 * snapshot of this board. The stack, the scores, the moves that can be taken back and
+	 * the listeners are not copied: the copy starts with an empty stack, scores of 0,
+	 * nothing to undo and no listeners.
 	 * @return a Board.
 	 */
 	/*
-	 *@ ensures 	(\forall int i, j; 0 <= i, 0 <= j, i <= j, 0 j <= 183;
-	 *					\result.getCell(i, j) == board.getCell(i, j));
+	 *@ ensures 	(\forall int i, j; isField(i, j);
+	 *					\result.getCell(i, j) == getCell(i, j));
 	 */
 	public /*@ non_null */Board deepCopy() {
-		Board result = new Board();
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				result.setPiece(i, j, this.getCell(i, j));
-			}
-		}
+		Board result = new Board(false);
+		copyInto(result);
 		return result;
 	}
 	
+	/**
+	 * Copies the occupation of this board into a new, empty board, as described at deepCopy.
+	 * Subclasses use it to copy the grid as a whole before they copy their own state.
+	 * @param result the board that becomes the copy
+	 */
+	protected void copyInto(/*@ non_null */Board result) {
+		result.board = board.copy();
+		result.frontier = null;
+		result.dead = null;
+		result.pieceCount = pieceCount;
+		result.played = played.clone();
+		result.usedUp = usedUp;
+		result.openFives = openFives.clone();
+		result.openFiveCount = openFiveCount;
+		result.boundsChanged = boundsChanged;
+		result.hash = hash;
+		result.minRow = minRow;
+		result.maxRow = maxRow;
+		result.minColumn = minColumn;
+		result.maxColumn = maxColumn;
+		result.snapshot = snapshot;
+	}
+	
 	/**
 	 * Fills the stack with the pieces needed for the game and shuffles it.
 	 */
@@ -390,7 +949,8 @@ public class Board extends Observable {
 	}
 	
 	/**
-	 * Draws one piece from the stack.
+	 * Draws one piece from the stack. The stack is shuffled, so the piece is taken from
+	 * the end, which does not move the other pieces.
 	 * @return the piece drawn
 	 */
 	/*
@@ -398,139 +958,231 @@ public class Board extends Observable {
 	 *@ ensures		stack.size() == \old(stack.size()) - 1;
 	 */
 	public Piece draw() {
-		return stack.remove(0);
+		Piece result = stack.remove(stack.size() - 1);
+		record(BoardEvent.stackChanged(stack.size()));
+		return result;
+	}
+	
+	/**
+	 * Puts a drawn piece back at the end of the stack, where draw took it from.
+	 * @param piece the piece
+	 */
+	/*
+	 *@ ensures		stack.size() == \old(stack.size()) + 1;
+	 */
+	protected void undraw(Piece piece) {
+		stack.add(piece);
+		record(BoardEvent.stackChanged(stack.size()));
 	}
 	
 	/**
-	 * Places the pieces received from a player in a trade back in the stack and shuffles the stack.
+	 * Places the pieces received from a player in a trade back in the stack, each at a
+	 * random place, so the stack stays shuffled.
 	 * @param pieces the pieces received from a player.
 	 */
 	/*
 	 *@ ensures		stack.size() == \old(stack.size()) + pieces.length;
 	 */
 	public void tradeReturn(/*@ non_null */Piece[] pieces) {
+		insert(pieces);
+	}
+	
+	/**
+	 * Adds each piece at the end of the stack and swaps it with a random piece.
+	 * @param pieces the pieces
+	 * @return the places the pieces were swapped with, to take them out again
+	 */
+	protected int[] insert(Piece[] pieces) {
+		int[] result = new int[pieces.length];
 		for (int i = 0; i < pieces.length; i++) {
 			stack.add(pieces[i]);
+			result[i] = ThreadLocalRandom.current().nextInt(stack.size());
+			Collections.swap(stack, result[i], stack.size() - 1);
 		}
-		Collections.shuffle(stack);
+		record(BoardEvent.stackChanged(stack.size()));
+		return result;
 	}
 	
 	/**
-	 * Determines the score of a given array of Moves. 
-	 * @param moves the moves to be made. 
-	 * @return the score of the given moves. 
-	 */
-	/*@
-	 	requires 	moves.length >= 0;
-	 	ensures		0 < \result;
-	*/
-	public /* @non_null */int getScore(/* @non_null */ Move[] moves) {
-		Place[] places = Arrays.copyOf(moves, moves.length, Place[].class);
-		int result = 0;
-		
-		// Determining the score when only one Place is made. 
-		if (places.length == 1) {
-			result = getScoreOnePlace(places);
-			
-		// Determining the score when multiple Places have been made. 
-		} else {
-			
-			// Determining the score if the Places create a row. 
-			if (places[0].getRow() == places[1].getRow()) {
-				result = getScoreRowWise(places);
-				
-			// Determining the score if the Places create a column. 
-			} else if (places[0].getColumn() == places[1].getColumn()) {
-				result = getScoreColumnWise(places);
-			}
+	 * Takes the pieces added by insert out of the stack again, which leaves the stack
+	 * in the order it had before.
+	 * @param swaps the result of insert
+	 */
+	protected void remove(int[] swaps) {
+		for (int i = swaps.length - 1; i >= 0; i--) {
+			Collections.swap(stack, swaps[i], stack.size() - 1);
+			stack.remove(stack.size() - 1);
 		}
-		return result;
+		record(BoardEvent.stackChanged(stack.size()));
 	}
 	
 	/**
-	 * Determines the score of a place with only one Piece.
-	 * @param places the Place that is being made. 
-	 * @return the score of the given place. 
+	 * Makes a whole move for a player as one unit: a place puts all its pieces on the
+	 * board, adds its score and draws new pieces while the stack has them; a trade draws
+	 * new pieces and puts the traded ones in the stack. What has changed is remembered,
+	 * so the move can be taken back with undo, without copying the board.
+	 * Taking the pieces from the hand and handing it the drawn ones is left to the caller.
+	 * @param moves a valid move, of only places or only trades
+	 * @param playerID the player that makes the move
+	 * @return the pieces drawn from the stack
 	 */
 	/*
-	 *@ requires	places.length == 1;
-	 *@ ensures		0 < \result;
+	 *@ requires	moves.length > 0 && moves[0].getPiece() != null;
+	 *@ ensures		getUndoDepth() == \old(getUndoDepth()) + 1;
+	 *				moves[0] instanceof Place ==> getScore(playerID)
+	 *					== \old(getScore(playerID)) + getScore(moves);
 	 */
-	public /*@ non_null */int getScoreOnePlace(Place[] places) {
-		int result = 0;
-		int row = getRowLength(places[0].getRow(), places[0].getColumn());
-		int column = getColumnLength(places[0].getRow(), places[0].getColumn());
-		if (row > 1) {
-			result += row;
-			if (row == 6) {
-				result += row;
+	public /*@ non_null */Piece[] apply(/*@ non_null */Move[] moves, int playerID) {
+		return apply(moves, playerID, moves[0] instanceof Place ? getScore(moves) : 0);
+	}
+	
+	/**
+	 * Makes a whole move, like apply, of which the score is already known from
+	 * validateAndScore, so the lines are not walked again.
+	 * @param moves a valid move, of only places or only trades
+	 * @param playerID the player that makes the move
+	 * @param score the score of the move
+	 * @return the pieces drawn from the stack
+	 */
+	public /*@ non_null */Piece[] apply(/*@ non_null */Move[] moves, int playerID, int score) {
+		Undo undo = new Undo(moves, playerID);
+		if (moves[0] instanceof Place) {
+			for (Move move: moves) {
+				Place place = (Place) move;
+				setPiece(place.getRow(), place.getColumn(), place.getPiece());
 			}
-		}
-		if (column > 1) {
-			result += column;
-			if (column == 6) {
-				result += column;
+			undo.score = score;
+			addScore(playerID, undo.score);
+			undo.drawn = new Piece[Math.min(moves.length, getStackSize())];
+			for (int i = 0; i < undo.drawn.length; i++) {
+				undo.drawn[i] = draw();
 			}
+		} else {
+			Piece[] traded = new Piece[moves.length];
+			undo.drawn = new Piece[moves.length];
+			for (int i = 0; i < moves.length; i++) {
+				traded[i] = moves[i].getPiece();
+				undo.drawn[i] = draw();
+			}
+			undo.swaps = insert(traded);
 		}
-		if (column == 1 && row == 1) {
-			result = 1;
-		}
-		return result;
+		history.add(undo);
+		return undo.drawn;
 	}
 	
 	/**
-	 * Calculates the score knowing the places are placed on the same Row.
-	 * @param places the places for which the score is calculated.
-	 * @return the score.
+	 * Takes back the last move made with apply: the pieces, the score and the stack are
+	 * as they were before it.
+	 * @return the move that was taken back
 	 */
 	/*
-	 *@ requires	1 < place.length && place.length < 7;
-	 *@ ensures		0 <= \result;
+	 *@ requires	getUndoDepth() > 0;
+	 *@ ensures		getUndoDepth() == \old(getUndoDepth()) - 1;
 	 */
-	public /*@ non_null */int getScoreRowWise(/*@ non_null */Place[] places) {
-		int result = 0;
-		result = getRowLength(places[0].getRow(), places[0].getColumn());
-		if (result == 6) {
-			result += result;
+	public /*@ non_null */Move[] undo() {
+		Undo undo = history.remove(history.size() - 1);
+		if (undo.swaps != null) {
+			remove(undo.swaps);
 		}
-		for (int i = 0; i < places.length; i++) {
-			int column =  getColumnLength(places[i].getRow(), places[i].getColumn());
-			if (column > 1) {
-				result = result + column;
-			}
-			if (column == 6) {
-				result += column;
+		for (int i = undo.drawn.length - 1; i >= 0; i--) {
+			undraw(undo.drawn[i]);
+		}
+		if (undo.swaps == null) {
+			scores[undo.playerID] -= undo.score;
+			record(BoardEvent.scoreChanged(undo.playerID, scores[undo.playerID]));
+			for (int i = undo.moves.length - 1; i >= 0; i--) {
+				Place place = (Place) undo.moves[i];
+				setPiece(place.getRow(), place.getColumn(), null);
 			}
 		}
-		return result;
+		return undo.moves;
 	}
 	
 	/**
-	 * Calculates the score knowing the places are placed in the same Column.
-	 * @param places the places for which the score is calculated
-	 * @return the score
+	 * Returns the amount of moves that can be taken back with undo.
+	 */
+	/*@ pure */public int getUndoDepth() {
+		return history.size();
+	}
+	
+	/**
+	 * Adds a listener that receives the changes of this board at the end of every turn.
+	 * @param listener the listener to add
+	 */
+	public void addListener(/*@ non_null */BoardListener listener) {
+		listeners.add(listener);
+	}
+	
+	/**
+	 * Removes a listener from this board.
+	 * @param listener the listener to remove
+	 */
+	public void removeListener(/*@ non_null */BoardListener listener) {
+		listeners.remove(listener);
+	}
+	
+	/**
+	 * Ends the current turn: publishes a new snapshot and hands all changes since the
+	 * previous turn, followed by a TURN_ENDED event, to the listeners in one batch.
 	 */
 	/*
-	 *@ requires	1 < place.length && place.length < 7;
-	 *@ ensures		0 <= \result;
+	 *@ ensures		pending.size() == 0;
+	 *				getSnapshot().getVersion() > \old(getSnapshot().getVersion());
+	 */
+	public void endTurn() {
+		publish();
+		if (!listeners.isEmpty()) {
+			pending.add(BoardEvent.turnEnded(lastMadeMove));
+			List<BoardEvent> batch = Collections.unmodifiableList(new ArrayList<>(pending));
+			pending.clear();
+			for (BoardListener listener: listeners) {
+				listener.boardChanged(this, batch);
+			}
+		}
+	}
+	
+	/**
+	 * Publishes a snapshot of the board as it is now, with a higher version than the last.
+	 * The grid is shared with the snapshot, so the chunks are only copied when they are
+	 * changed again. Subclasses that set up more of the board after the constructor of
+	 * Board publish again once they are done.
+	 */
+	protected void publish() {
+		BoardSnapshot last = snapshot;
+		snapshot = new BoardSnapshot(last == null ? 0 : last.getVersion() + 1, board.share(),
+						scores.clone(), pieceCount, getStackSize(), hash, lastMadeMove,
+						getMinRow(), getMaxRow(), getMinColumn(), getMaxColumn());
+	}
+	
+	/**
+	 * Keeps an event for the batch of the current turn. Boards without listeners,
+	 * like the copies used to validate moves, keep nothing.
 	 */
-	public /* @non_null*/ int getScoreColumnWise(/*@ non_null */Place[] places) {
-		int result = 0;
-		result = getColumnLength(places[0].getRow(), places[0].getColumn());
-		if (result == 6) {
-			result += result;
+	protected void record(BoardEvent event) {
+		if (!listeners.isEmpty()) {
+			pending.add(event);
 		}
-		for (int i = 0; i < places.length; i++) {
-			int row = getRowLength(places[i].getRow(), places[i].getColumn());
-			if (row > 1) {
-				result = result + row; 
-			}
-			if (row == 6) {
-				result += row;
-			}
+	}
+	
+	/**
+	 * Determines the score of a given array of Moves. The pieces may already be on the
+	 * board or not; the lines through them are walked once either way.
+	 * @param moves the moves to be made. 
+	 * @return the score of the given moves, or 0 if they do not form one line. 
+	 */
+	/*@
+	 	requires 	moves.length >= 0;
+	 	ensures		0 < \result;
+	*/
+	public /* @non_null */int getScore(/* @non_null */ Move[] moves) {
+		Place[] places = Arrays.copyOf(moves, moves.length, Place[].class);
+		int result = 0;
+		try {
+			result = scoreLines(places, false);
+		} catch (InvalidMoveException e) {
+			// Only thrown when the lines are checked.
 		}
 		return result;
-		
 	}
 	
 	/**
@@ -548,53 +1200,168 @@ public class Board extends Observable {
 	 */
 	public /* @non_null*/boolean validMove(/* @non_null*/Move[] moves, /* @non_null*/Player player)
 			throws InvalidMoveException {
-		boolean result = true;
+		validateAndScore(moves, player);
+		return true;
+	}
+	
+	/**
+	 * Tests if a given array of Moves is valid, like validMove, and returns the score of a
+	 * place at the same time. The board is not changed: every line that the places touch is
+	 * walked once, with the places filled in, and both checked and counted on the way.
+	 * @param moves the Moves that the given Player wants to make. 
+	 * @param player the Player that wants to make the given Moves. 
+	 * @return the score of a place, or 0 for a trade.
+	 * @throws InvalidMoveException if the Moves are not valid
+	 */
+	/*
+	 *@ ensures		moves[0] instanceof Place ==> \result == getScore(moves);
+	 *				moves[0] instanceof Trade ==> \result == 0;
+	 */
+	/*@ pure */public int validateAndScore(/*@ non_null */Move[] moves,
+					/*@ non_null */Player player) throws InvalidMoveException {
+		int result = 0;
 		if (moves.length == 0) {
 			throw new InvalidMoveException("No moves given");
-		} else {
-			if (moves[0] instanceof Place) {
-				Place[] places = Arrays.copyOf(moves, moves.length, Place[].class);				
-				// Start with tests.
-				allPlaceMoves(moves);
-				cellsAreValid(places);
-				cellsAreAvailable(places);
-				isConnected(places);
-				
-				// Create a deep copy of the board and place Pieces on it. 
-				Board deepCopyBoard = this.deepCopy();
-				for (Place place: places) {
-					deepCopyBoard.setPiece(place.getRow(), place.getColumn(), place.getPiece());
+		} else if (moves[0] instanceof Place) {
+			Place[] places = Arrays.copyOf(moves, moves.length, Place[].class);
+			allPlaceMoves(moves);
+			cellsAreValid(places);
+			cellsAreAvailable(places);
+			cellsAreAlive(places);
+			isConnected(places);
+			result = scoreLines(places, true);
+			playerHasPiece(moves, player);
+		} else if (moves[0] instanceof Trade
+						&& !(moves.length == 1 && moves[0].getPiece() == null)) {
+			allTradeMoves(moves);
+			playerHasPiece(moves, player);
+		}
+		return result;
+	}
+	
+	/**
+	 * Tests if the given places form one uninterrupted row or column, and if every line
+	 * through them is of one color or one shape without doubles. The pieces may already
+	 * be on the board or not.
+	 * @param places the places
+	 * @return the score of the places
+	 * @throws InvalidMoveException if the places or one of their lines are not valid
+	 */
+	/*@ pure */public int checkLines(/*@ non_null */Place[] places) throws InvalidMoveException {
+		return scoreLines(places, true);
+	}
+	
+	/**
+	 * Walks the line of the places and the crossing line through every place, and adds
+	 * up their points. A line of one piece scores nothing, a line of 6 scores double, and
+	 * a single piece without neighbours scores 1.
+	 * @param places the places, on the board or not
+	 * @param check true to check that the places are one uninterrupted line and that every
+	 *        line is of one color or one shape without doubles
+	 * @throws InvalidMoveException if check is true and a line is not valid
+	 */
+	/*@ pure */private int scoreLines(Place[] places, boolean check)
+					throws InvalidMoveException {
+		int result = 0;
+		boolean row = isRow(places);
+		if (row || isColumn(places)) {
+			int rowStep = row ? 0 : 1;
+			int columnStep = row ? 1 : 0;
+			int[] span = new int[2];
+			result = points(walkLine(places, places[0].getRow(), places[0].getColumn(), rowStep,
+							columnStep, check, span));
+			for (int i = 0; i < places.length; i++) {
+				int position = row ? places[i].getColumn() : places[i].getRow();
+				if (check && (position < span[0] || span[1] < position)) {
+					throw new InvalidMoveException("You are trying to place two seperate "
+									+ (row ? "rows" : "columns") + " on the board.");
 				}
-				
-				boolean isRow;
-				boolean isColumn;
-				
-				// Continue the tests.
-				isRow = deepCopyBoard.isRow(places);
-				isColumn = deepCopyBoard.isColumn(places);
-				
-				if (isRow) {
-					deepCopyBoard.isUninterruptedRow(places);
-					deepCopyBoard.pieceIsConnectedRowAndUnique(places);
-					deepCopyBoard.piecesFitInColumns(places);
-				} else if (isColumn) {
-					deepCopyBoard.isUninterruptedColumn(places);
-					deepCopyBoard.pieceIsConnectedColumnAndUnique(places);
-					deepCopyBoard.piecesFitInRows(places);
-				} else {
-					throw new InvalidMoveException("You are trying to place pieces " +
-												"in multiple rows and columns.");
+				for (int j = 0; j < i && check; j++) {
+					if (places[j].getRow() == places[i].getRow()
+									&& places[j].getColumn() == places[i].getColumn()) {
+						throw new InvalidMoveException("You are trying to place two tiles"
+										+ " in the same cell.");
+					}
 				}
-				playerHasPiece(moves, player);
+				result += points(walkLine(places, places[i].getRow(), places[i].getColumn(),
+								columnStep, rowStep, check, null));
 			}
-			
-			if (moves[0] instanceof Trade) {
-				if (moves.length == 1 && moves[0].getPiece() == null) {
-					result = true;
-				} else {
-					allTradeMoves(moves);
-					playerHasPiece(moves, player);
-				}
+			if (result == 0) {
+				result = 1;
+			}
+		} else if (check) {
+			throw new InvalidMoveException("You are trying to place pieces " +
+							"in multiple rows and columns.");
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the points of a line of the given length.
+	 */
+	/*@ pure */private static int points(int length) {
+		int result = 0;
+		if (length > 1) {
+			result = length;
+		}
+		if (length == 6) {
+			result += length;
+		}
+		return result;
+	}
+	
+	/**
+	 * Walks the line through the given cell in both directions, over the pieces on the
+	 * board and the places, and returns its length. The colors and shapes are collected as
+	 * bits, so the line is checked without a list of its pieces.
+	 * @param span if not null, receives the first and last position of the line
+	 * @throws InvalidMoveException if check is true and the line is not valid
+	 */
+	/*@ pure */private int walkLine(Place[] places, int row, int column, int rowStep,
+					int columnStep, boolean check, int[] span) throws InvalidMoveException {
+		int result = 0;
+		int colors = 0;
+		int shapes = 0;
+		int back = 0;
+		Piece piece = pieceAt(places, row, column);
+		while (piece != null) {
+			colors |= 1 << piece.getColor().ordinal();
+			shapes |= 1 << piece.getShape().ordinal();
+			result++;
+			back--;
+			piece = pieceAt(places, row + back * rowStep, column + back * columnStep);
+		}
+		int ahead = 1;
+		piece = pieceAt(places, row + rowStep, column + columnStep);
+		while (piece != null) {
+			colors |= 1 << piece.getColor().ordinal();
+			shapes |= 1 << piece.getShape().ordinal();
+			result++;
+			ahead++;
+			piece = pieceAt(places, row + ahead * rowStep, column + ahead * columnStep);
+		}
+		if (check && result > 1
+						&& !(Integer.bitCount(colors) == 1 && Integer.bitCount(shapes) == result)
+						&& !(Integer.bitCount(shapes) == 1 && Integer.bitCount(colors) == result)) {
+			throw new InvalidMoveException(pieceAt(places, row, column).toString()
+							+ ", does not fit in the row.");
+		}
+		if (span != null) {
+			int position = rowStep == 0 ? column : row;
+			span[0] = position + back + 1;
+			span[1] = position + ahead - 1;
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the piece in the given cell as it would be after the places are made.
+	 */
+	/*@ pure */private Piece pieceAt(Place[] places, int row, int column) {
+		Piece result = board.get(row, column);
+		for (int i = 0; i < places.length && result == null; i++) {
+			if (places[i].getRow() == row && places[i].getColumn() == column) {
+				result = places[i].getPiece();
 			}
 		}
 		return result;
@@ -651,6 +1418,23 @@ public class Board extends Observable {
 		}
 	}
 	
+	/**
+	 * Tests that none of the cells that the Player wants to Place Pieces in is dead. Only
+	 * a board that keeps its dead cells checks them, so checking a move on a copy never
+	 * makes it look for them; scoreLines rejects a move into such a dead cell anyway.
+	 * @param places the places that the Player wants to make.
+	 * @throws InvalidMoveException 
+	 */
+	/*@ pure */public void cellsAreAlive(/*@ non_null */Place[] places)
+				throws InvalidMoveException {
+		for (Place place: places) {
+			if (dead != null && getDead().contains(cellOf(place.getRow(), place.getColumn()))) {
+				throw new InvalidMoveException("You are trying to place a tile"
+						+ " in a cell where no tile can ever fit.");
+			}
+		}
+	}
+	
 	/**
 	 * Tests if a Place places a tile in a cell inside the Board.
 	 * @param moves the moves that the Player wants to make.
@@ -692,310 +1476,6 @@ public class Board extends Observable {
 		return isColumn;
 	}
 	
-	/**
-	 * Tests if the Places are in 1 straight line (row) and if there are no gaps. 
-	 * @param moves the Places to be placed on Board b. 
-	 * @param b the Board on which the Places are put. 
-	 * @return true when the Places create 1 straight line without gaps, false when otherwise. 
-	 * @throws InvalidMoveException
-	 */
-	/*@ pure */public void isUninterruptedRow(/* @non_null */Place[] places) 
-			throws InvalidMoveException {	
-		if (places.length != 1) {
-			int minColumnPlace = places[0].getColumn();
-			int maxColumnPlace = minColumnPlace;
-			for (int i = 1; i < places.length; i++) {
-				if (places[0].getRow() != places[i].getRow()) {
-					throw new InvalidMoveException("You are trying to place tiles"
-							+ " on seperate rows.");
-				}
-				if (places[i].getColumn() < minColumnPlace) {
-					minColumnPlace = places[i].getColumn();
-				} else if (places[i].getColumn() > maxColumnPlace) {
-					maxColumnPlace = places[i].getColumn();
-				}
-			}
-			
-			for (int i = minColumnPlace; i <= maxColumnPlace; i++) {
-				if (isEmpty(places[0].getRow(), i)) {
-					throw new InvalidMoveException("You are trying to place two seperate rows"
-							+ " on the board.");
-				}
-			}
-		}
-	}
-	
-	/**
-	 * Tests if the Places are in 1 straight line (column) and if there are no gaps. 
-	 * @param moves the Places to be placed on Board b. 
-	 * @param b the Board on which the Places are put. 
-	 * @return true when the Places create 1 straight line without gaps, false when otherwise. 
-	 */
-	/*@ pure */public void isUninterruptedColumn(/* @NunNull */Place[] places)
-			throws InvalidMoveException {
-		if (places.length != 1) {
-			int minRowPlace = places[0].getRow();
-			int maxRowPlace = minRowPlace;
-			for (int i = 1; i < places.length; i++) {
-				if (places[0].getColumn() != places[i].getColumn()) {
-					throw new InvalidMoveException("You are trying to place tiles"
-							+ " on seperate columns.");
-				}
-				if (places[i].getRow() < minRowPlace) {
-					minRowPlace = places[i].getRow();
-				} else if (places[i].getRow() > maxRowPlace) {
-					maxRowPlace = places[i].getRow();
-				}	
-			}	
-			for (int i = minRowPlace; i <= maxRowPlace; i++) {
-				if (isEmpty(i, places[0].getColumn())) {
-					throw new InvalidMoveException("You are trying to place two seperate columns"
-							+ " on the board.");
-				}
-			}
-		}
-	}
-	
-	
-	/**
-	 * Tests if the row is has a fixed color or shape. 
-	 * @param piece the Piece that is placed on the board. 
-	 * @param wholeRow a set with all the Pieces that are in the row in which the Piece belongs. 
-	 * @throws InvalidMoveException
-	 */
-	/*@ pure */public void isUniqueColorOrShape(/*@ non_null */Piece piece,
-					/*@ non_null */ArrayList<Piece> wholeRow) throws InvalidMoveException {
-		boolean fixedColor = true;
-		boolean fixedShape = true;
-		for (int i = 0; i < wholeRow.size(); i++) {
-			fixedColor = fixedColor && wholeRow.get(i).getColor() == piece.getColor();
-		}
-		for (int i = 0; i < wholeRow.size(); i++) {
-			fixedShape = fixedShape && wholeRow.get(i).getShape() == piece.getShape();
-		}
-		if (!(fixedColor || fixedShape)) {
-			throw new InvalidMoveException(piece.toString()
-					+ ", does not fit in the row.");
-		} else if (fixedColor) {
-			hasUniqueShape(piece, wholeRow);
-		} else if (fixedShape) {
-			hasUniqueColor(piece, wholeRow);
-		}
-	}
-	
-	/**
-	 * Checks if a Piece added to a set of Places has a unique color. 
-	 */
-	/*@ pure */public void hasUniqueColor(/*@ non_null */Piece piece,
-						/*@ non_null */ArrayList<Piece> wholeRow)
-			throws InvalidMoveException {
-		for (Piece wholeRowPiece: wholeRow) {
-			if (wholeRowPiece.getColor() == piece.getColor()) {
-				throw new InvalidMoveException(piece.toString() + " does not have a unique color"
-						+ " in the row that you try to add to.");
-			}
-		}
-	}
-	
-	/**
-	 * Checks if a Piece added to a set of Places has a unique shape. 
-	 */
-	/*@ pure */public void hasUniqueShape(/*@ non_null */Piece piece,
-						/* @non_null */ArrayList<Piece> wholeRow)
-			throws InvalidMoveException {
-		for (Piece wholeRowPiece: wholeRow) {
-			if (wholeRowPiece.getShape() == piece.getShape()) {
-				throw new InvalidMoveException(piece.toString() + " does not have a unique shape"
-						+ " in the row that you try to add to.");
-			}
-		}
-	}	
-	
-	/**
-	 * Creates an ArrayList of Pieces that are in the row that player wants to add to. 
-	 * It then tests if the Piece the Player wants to add to this row is unique in it. 
-	 * @param moves the array of Places that are to be made. 
-	 * @param b the board on which the Places are made. 
-	 * @return true is the Places are valid, false when not. 
-	 */
-	/*@ pure */public void pieceIsConnectedRowAndUnique(/*@ non_null */Place[] places)
-			throws InvalidMoveException {
-		
-		// Create an ArrayList<Piece> of Pieces that are in the row
-		// that is added to, but not in the Place[].
-		ArrayList<Piece> wholeRow = new ArrayList<>();
-		int row = places[0].getRow();
-		int column = places[0].getColumn();
-		boolean connected = true;
-		for (int i = column - 1; connected; i--) {
-			if (isEmpty(row, i)) {
-				connected = false;
-			} else {
-				boolean found = false;
-				for (Place place: places) {
-					if (place.getColumn() == i) {
-						found = true;
-					}
-				}
-				if (!found) {
-					wholeRow.add(getCell(row, i));
-				}
-			}
-		}
-		connected = true;
-		for (int i = column + 1; connected; i++) {
-			if (isEmpty(row, i)) {
-				connected = false;
-			} else {
-				boolean found = false;
-				for (Place place: places) {
-					if (place.getColumn() == i) {
-						found = true;
-					}
-				}
-				if (!found) {
-					wholeRow.add(getCell(row, i));
-				}
-			}
-		}
-				
-		for (Place place: places) {	
-			Piece piece = place.getPiece();
-			isUniqueColorOrShape(piece, wholeRow);
-			wholeRow.add(piece);
-		} 
-	}
-	
-	/**
-	 * Checks if the given places fit in the columns. It is to be called knowing the places
-	 * are all on the same row so it checks the places individually.
-	 * @param places the places to check
-	 * @throws InvalidMoveException if it finds a piece that does not fit in a column
-	 */
-	/*
-	 * @requires	\forall places p, r; places.contains(p) && places.contains(r)
-	 * 					&& !p.equals(r);  p.getRow() == r.getRow();
-	 */
-	/*@ pure */public void piecesFitInColumns(/*@ non_null */Place[] places)
-					throws InvalidMoveException {
-		for (Place place: places) {
-			ArrayList<Piece> wholeRow = new ArrayList<>();
-			int row = place.getRow();
-			int column = place.getColumn();
-			boolean connected = true;
-			for (int i = row - 1; connected; i--) {
-				if (isEmpty(i, column)) {
-					connected = false;
-				} else {
-					wholeRow.add(getCell(i, column));
-				}
-			}
-			connected = true;
-			for (int i = row + 1; connected; i++) {
-				if (isEmpty(i, column)) {
-					connected = false;
-				} else {
-					wholeRow.add(getCell(i, column));
-				}
-			}
-			Piece piece = place.getPiece();
-			isUniqueColorOrShape(piece, wholeRow);
-		} 
-	}
-	
-	/**
-	 * Creates an ArrayList of Pieces that are in the row that player wants to add to. 
-	 * It then tests if the Piece the Player wants to add to this row is unique in it. 
-	 * @param moves the array of Places that are to be made. 
-	 * @param b the board on which the Places are made. 
-	 * @return true is the Places are valid, false when not. 
-	 */
-	/*
-	 * @requires	moves.length < 7;
-	 */
-	/*@ pure */public void pieceIsConnectedColumnAndUnique(/*@ non_null */Place[] places)
-			throws InvalidMoveException {
-		// Create an ArrayList<Piece> of Pieces that are in the row that is added to,
-		// but not in the Place[].
-		ArrayList<Piece> wholeRow = new ArrayList<>();
-		int row = places[0].getRow();
-		int column = places[0].getColumn();
-		boolean connected = true;
-		for (int i = row - 1; connected; i--) {
-			if (isEmpty(i, column)) {
-				connected = false;
-			} else {
-				boolean found = false;
-				for (Place place: places) {
-					if (place.getRow() == i) {
-						found = true;
-					}
-				}
-				if (!found) {
-					wholeRow.add(getCell(i, column));
-				}
-			}
-		}
-		connected = true;
-		for (int i = row + 1; connected; i++) {
-			if (isEmpty(i, column)) {
-				connected = false;
-			} else {
-				boolean found = false;
-				for (Place place: places) {
-					if (place.getRow() == i) {
-						found = true;
-					}
-				}
-				if (!found) {
-					wholeRow.add(getCell(i, column));
-				}
-			}
-		}		
-		for (Place place: places) {	
-			Piece piece = place.getPiece();
-			isUniqueColorOrShape(piece, wholeRow);
-			wholeRow.add(piece);
-		} 
-	}
-	
-	/**
-	 * Checks if the given places fit in the rows. It is to be called knowing all places are
-	 * in the same Column so it checks the places individually.
-	 * @param places the places to check
-	 * @throws InvalidMoveException if it finds a piece that does not fit in a row.
-	 */
-	/*
-	 * @requires	\forall places p, r; places.contains(p) && places.contains(r)
-	 * 					&& !p.equals(r);  p.getColumn() == r.getColumn();
-	 */
-	/*@ pure */public void piecesFitInRows(/*@ non_null*/Place[] places)
-					throws InvalidMoveException {
-		for (Place place: places) {
-			ArrayList<Piece> wholeRow = new ArrayList<>();
-			int row = place.getRow();
-			int column = place.getColumn();
-			boolean connected = true;
-			for (int i = column - 1; connected; i--) {
-				if (isEmpty(row, i)) {
-					connected = false;
-				} else {
-					wholeRow.add(getCell(row, i));
-				}
-			}
-			connected = true;
-			for (int i = column + 1; connected; i++) {
-				if (isEmpty(row, i)) {
-					connected = false;
-				} else {
-					wholeRow.add(getCell(row, i));
-				}
-			}
-			Piece piece = place.getPiece();
-			isUniqueColorOrShape(piece, wholeRow);
-		}
-	}
-	
 	/**
 	 * Tests if the Player has the given Piece in its Hand.
 	 */
@@ -1014,7 +1494,7 @@ public class Board extends Observable {
 	 * @param places the Places to be made. 
 	 */
 	/*@ pure */public void isConnected(/*@ non_null */Place[] places) throws InvalidMoveException {
-		if (!this.isEmpty(91, 91)) {
+		if (!this.isEmpty(ORIGIN, ORIGIN)) {
 			boolean result = false;
 			for (Place p: places) {
 				result = result || ((!this.isEmpty(p.getRow() - 1, p.getColumn())) ||
@@ -1027,7 +1507,20 @@ public class Board extends Observable {
 			}
 		}
 	}
-
-	
 	
+	/**
+	 * What apply has to remember to take a move back.
+	 */
+	private static final class Undo {
+		private final Move[] moves;
+		private final int playerID;
+		private int score;
+		private Piece[] drawn;
+		private int[] swaps;
+		
+		private Undo(Move[] moves, int playerID) {
+			this.moves = moves;
+			this.playerID = playerID;
+		}
+	}
 }
@@ -0,0 +1,125 @@
+package model;
+
+/**
+ * A single change of a Board. Events are collected during a turn and handed
+ * to the BoardListeners in one batch when the turn ends.
+ */
+public class BoardEvent {
+
+	/**
+	 * The kinds of changes of a Board.
+	 */
+	public enum Type { TILE_PLACED, SCORE_CHANGED, STACK_CHANGED, TURN_ENDED };
+
+	// ----- Instance Variables -----
+	private final Type type;
+	private final int row;
+	private final int column;
+	private final Piece piece;
+	private final int playerID;
+	private final int value;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new BoardEvent. Use the static methods to create the events of each type.
+	 */
+	private BoardEvent(Type type, int row, int column, Piece piece, int playerID, int value) {
+		this.type = type;
+		this.row = row;
+		this.column = column;
+		this.piece = piece;
+		this.playerID = playerID;
+		this.value = value;
+	}
+
+	/**
+	 * Returns the event for a piece that was placed in a cell.
+	 * @param row the row of the cell
+	 * @param column the column of the cell
+	 * @param piece the piece, or null if the cell was emptied
+	 */
+	public static BoardEvent tilePlaced(int row, int column, Piece piece) {
+		return new BoardEvent(Type.TILE_PLACED, row, column, piece, -1, 0);
+	}
+
+	/**
+	 * Returns the event for a change of the score of a player.
+	 * @param playerID the player
+	 * @param score the new score of the player
+	 */
+	public static BoardEvent scoreChanged(int playerID, int score) {
+		return new BoardEvent(Type.SCORE_CHANGED, -1, -1, null, playerID, score);
+	}
+
+	/**
+	 * Returns the event for a change of the amount of pieces in the stack.
+	 * @param size the new amount of pieces in the stack
+	 */
+	public static BoardEvent stackChanged(int size) {
+		return new BoardEvent(Type.STACK_CHANGED, -1, -1, null, -1, size);
+	}
+
+	/**
+	 * Returns the event that closes the batch of a turn.
+	 * @param moveCount the last turn in which a place or trade was made
+	 */
+	public static BoardEvent turnEnded(int moveCount) {
+		return new BoardEvent(Type.TURN_ENDED, -1, -1, null, -1, moveCount);
+	}
+
+	// ----- Queries -----
+	/*@ pure */public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the row of a TILE_PLACED event, or -1.
+	 */
+	/*@ pure */public int getRow() {
+		return row;
+	}
+
+	/**
+	 * Returns the column of a TILE_PLACED event, or -1.
+	 */
+	/*@ pure */public int getColumn() {
+		return column;
+	}
+
+	/**
+	 * Returns the piece of a TILE_PLACED event, or null.
+	 */
+	/*@ pure */public Piece getPiece() {
+		return piece;
+	}
+
+	/**
+	 * Returns the player of a SCORE_CHANGED event, or -1.
+	 */
+	/*@ pure */public int getPlayerID() {
+		return playerID;
+	}
+
+	/**
+	 * Returns the new score for SCORE_CHANGED, the new stack size for STACK_CHANGED
+	 * and the move count for TURN_ENDED.
+	 */
+	/*@ pure */public int getValue() {
+		return value;
+	}
+
+	/**
+	 * Gives a textual representation of this BoardEvent.
+	 */
+	public String toString() {
+		String result = type.toString();
+		if (type == Type.TILE_PLACED) {
+			result += " " + piece + " " + row + " " + column;
+		} else if (type == Type.SCORE_CHANGED) {
+			result += " " + playerID + " " + value;
+		} else {
+			result += " " + value;
+		}
+		return result;
+	}
+}
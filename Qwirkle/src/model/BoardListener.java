@@ -0,0 +1,18 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Listens to the changes of a Board. The listener receives all events of a turn
+ * in one batch, on the thread that ends the turn.
+ */
+public interface BoardListener {
+
+	/**
+	 * Called when a turn on the board has ended.
+	 * @param board the board that has changed
+	 * @param events the changes in the order they were made, ending with TURN_ENDED
+	 */
+	public void boardChanged(Board board, List<BoardEvent> events);
+
+}
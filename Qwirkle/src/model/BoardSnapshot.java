@@ -0,0 +1,118 @@
+package model;
+
+/**
+ * An immutable view of a Board as it was at the end of a turn. The Board publishes a new
+ * snapshot after every turn, and any thread can read it without locking and without ever
+ * seeing half a move. The pieces are kept in a ChunkedGrid that is shared with the board,
+ * so a snapshot costs a copy of the chunks that the turn changed, not of the whole board.
+ * Of two snapshots of the same board, the one with the higher version is the newer.
+ */
+public final class BoardSnapshot implements ReadableBoard {
+
+	// ----- Instance Variables -----
+	private final long version;
+	private final ChunkedGrid grid;
+	private final int[] scores;
+	private final int pieceCount;
+	private final int stackSize;
+	private final long hash;
+	private final int lastMadeMove;
+	private final int minRow;
+	private final int maxRow;
+	private final int minColumn;
+	private final int maxColumn;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new BoardSnapshot. Only the Board creates snapshots, on the thread that
+	 * changes it.
+	 */
+	BoardSnapshot(long version, ChunkedGrid grid, int[] scores, int pieceCount, int stackSize,
+					long hash, int lastMadeMove, int minRow, int maxRow, int minColumn,
+					int maxColumn) {
+		this.version = version;
+		this.grid = grid;
+		this.scores = scores;
+		this.pieceCount = pieceCount;
+		this.stackSize = stackSize;
+		this.hash = hash;
+		this.lastMadeMove = lastMadeMove;
+		this.minRow = minRow;
+		this.maxRow = maxRow;
+		this.minColumn = minColumn;
+		this.maxColumn = maxColumn;
+	}
+
+	// ----- Queries -----
+	/**
+	 * Returns the version of this snapshot. The first snapshot of a board has version 0,
+	 * and every snapshot published after it has a higher version.
+	 */
+	/*@ pure */public long getVersion() {
+		return version;
+	}
+
+	/*@ pure */public Piece getCell(int row, int column) {
+		return grid.get(row, column);
+	}
+
+	/*@ pure */public boolean isEmpty(int row, int column) {
+		return grid.get(row, column) == null;
+	}
+
+	/*@ pure */public int getMinRow() {
+		return minRow;
+	}
+
+	/*@ pure */public int getMaxRow() {
+		return maxRow;
+	}
+
+	/*@ pure */public int getMinColumn() {
+		return minColumn;
+	}
+
+	/*@ pure */public int getMaxColumn() {
+		return maxColumn;
+	}
+
+	/*@ pure */public int getScore(int playerID) {
+		return scores[playerID];
+	}
+
+	/**
+	 * Returns the amount of pieces on the board.
+	 */
+	/*@ pure */public int getPieceCount() {
+		return pieceCount;
+	}
+
+	/**
+	 * Returns the amount of pieces in the stack.
+	 */
+	/*@ pure */public int getStackSize() {
+		return stackSize;
+	}
+
+	/**
+	 * Returns the Zobrist hash of the pieces on the board.
+	 */
+	/*@ pure */public long getHash() {
+		return hash;
+	}
+
+	/**
+	 * Returns the number of the turn in which the last move was made.
+	 */
+	/*@ pure */public int getLastMadeMove() {
+		return lastMadeMove;
+	}
+
+	/**
+	 * Passes every piece on the board to the visitor.
+	 * @param visitor the visitor
+	 */
+	/*@ pure */public void forEach(/*@ non_null */ChunkedGrid.CellVisitor visitor) {
+		grid.forEach(visitor);
+	}
+}
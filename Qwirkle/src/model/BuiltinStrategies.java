@@ -0,0 +1,138 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import model.StrategyProvider.Capability;
+
+/**
+ * The providers of the strategies that come with the game, in the order of the menus.
+ */
+public class BuiltinStrategies {
+
+	/**
+	 * Returns a provider of every built-in strategy.
+	 */
+	/*@ pure */public static /*@ non_null */List<StrategyProvider> all() {
+		return Arrays.asList(new Random(), new RandomWithScore(), new Endgame(), new Search(),
+						new Learned());
+	}
+
+	/**
+	 * Places a random piece that fits.
+	 */
+	public static class Random implements StrategyProvider {
+
+		public String getName() {
+			return "Random";
+		}
+
+		public String getDescription() {
+			return "Computer player";
+		}
+
+		public Set<Capability> getCapabilities() {
+			return Collections.unmodifiableSet(EnumSet.of(Capability.TIME_BUDGET));
+		}
+
+		public Strategy create(LocalPlayer player, StrategyConfig config) {
+			return new RandomStrategy(player, config.getTimeToThink());
+		}
+	}
+
+	/**
+	 * Places the single piece with the highest score.
+	 */
+	public static class RandomWithScore implements StrategyProvider {
+
+		public String getName() {
+			return "RandomWithScore";
+		}
+
+		public String getDescription() {
+			return "Smarter Computer player";
+		}
+
+		public Set<Capability> getCapabilities() {
+			return Collections.unmodifiableSet(EnumSet.of(Capability.TIME_BUDGET));
+		}
+
+		public Strategy create(LocalPlayer player, StrategyConfig config) {
+			return new RandomWithScoreStrategy(player, config.getTimeToThink());
+		}
+	}
+
+	/**
+	 * Searches with look ahead, and solves the end of the game once the stack is empty.
+	 */
+	public static class Endgame implements StrategyProvider {
+
+		public String getName() {
+			return "Endgame";
+		}
+
+		public String getDescription() {
+			return "Searching Computer player";
+		}
+
+		public Set<Capability> getCapabilities() {
+			return Collections.unmodifiableSet(EnumSet.of(Capability.TIME_BUDGET,
+							Capability.SEARCH_DEPTH, Capability.UNSEEN_TILES,
+							Capability.PONDERING));
+		}
+
+		public Strategy create(LocalPlayer player, StrategyConfig config) {
+			return new EndgameStrategy(player, config.getTimeToThink(),
+							new SearchStrategy(config.getTimeToThink(), config.getDepth()));
+		}
+	}
+
+	/**
+	 * Searches all placing moves with look ahead.
+	 */
+	public static class Search implements StrategyProvider {
+
+		public String getName() {
+			return "Search";
+		}
+
+		public String getDescription() {
+			return "Look ahead Computer player";
+		}
+
+		public Set<Capability> getCapabilities() {
+			return Collections.unmodifiableSet(EnumSet.of(Capability.TIME_BUDGET,
+							Capability.SEARCH_DEPTH, Capability.PONDERING));
+		}
+
+		public Strategy create(LocalPlayer player, StrategyConfig config) {
+			return new SearchStrategy(config.getTimeToThink(), config.getDepth());
+		}
+	}
+
+	/**
+	 * Places the move that the trained Evaluator values highest.
+	 */
+	public static class Learned implements StrategyProvider {
+
+		public String getName() {
+			return "Learned";
+		}
+
+		public String getDescription() {
+			return "Evaluating Computer player";
+		}
+
+		public Set<Capability> getCapabilities() {
+			return Collections.unmodifiableSet(EnumSet.of(Capability.TIME_BUDGET,
+							Capability.UNSEEN_TILES));
+		}
+
+		public Strategy create(LocalPlayer player, StrategyConfig config) {
+			return new LearnedStrategy(player, config.getTimeToThink(), Evaluator.getDefault());
+		}
+	}
+}
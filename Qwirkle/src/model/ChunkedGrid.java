@@ -0,0 +1,268 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * A grid of pieces without edges. The grid is cut in square chunks of CHUNK by CHUNK cells,
+ * which are only allocated once a piece is placed in them, so the memory follows the part
+ * of the grid that is in use. The chunks are kept in an open addressing hash map with the
+ * row and column of the chunk packed in a primitive long as key, so looking up a cell
+ * creates no objects. Every occupied cell also holds an int for each of the two lines
+ * through it, which the owner of the grid may use to keep facts about those lines.
+ * Reading does not change the grid, so like an array it can be read by several threads as
+ * long as none of them writes. A grid can also be shared: the shared grid keeps the chunks
+ * as they are, and this grid copies a chunk the first time it writes to it after sharing,
+ * so sharing after every turn only copies the chunks that the turn changed.
+ */
+public class ChunkedGrid {
+
+	/**
+	 * Receives the occupied cells of a grid.
+	 */
+	public interface CellVisitor {
+		void visit(int row, int column, Piece piece);
+	}
+
+	// ----- Constants -----
+	public static final int CHUNK_BITS = 4;
+	public static final int CHUNK = 1 << CHUNK_BITS;
+	private static final int MASK = CHUNK - 1;
+	private static final long EMPTY = Long.MIN_VALUE;
+	private static final int INITIAL_CAPACITY = 16;
+
+	/*@
+	 	private invariant	keys.length == chunks.length && keys.length == lines.length;
+	 	private invariant	keys.length == shared.length;
+	 	private invariant	2 * count <= keys.length;
+	 */
+	// ----- Instance Variables -----
+	private long[] keys;
+	private Piece[][] chunks;
+	private int[][] lines;
+	private boolean[] shared;
+	private int count;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new, empty grid.
+	 */
+	public ChunkedGrid() {
+		this(INITIAL_CAPACITY);
+	}
+
+	private ChunkedGrid(int capacity) {
+		keys = new long[capacity];
+		Arrays.fill(keys, EMPTY);
+		chunks = new Piece[capacity][];
+		lines = new int[capacity][];
+		shared = new boolean[capacity];
+	}
+
+	// ----- Queries -----
+	/**
+	 * Returns the piece in the given cell, or null if it is empty.
+	 * @param row the row, which may be any int
+	 * @param column the column, which may be any int
+	 */
+	/*@ pure */public Piece get(int row, int column) {
+		Piece[] chunk = find(key(row, column));
+		return chunk == null ? null : chunk[index(row, column)];
+	}
+
+	/**
+	 * Returns the int kept for a line through the given cell, or 0 if the chunk of the
+	 * cell has not been allocated.
+	 * @param row the row, which may be any int
+	 * @param column the column, which may be any int
+	 * @param axis 0 for the row through the cell, 1 for the column
+	 */
+	/*
+	 *@ requires	axis == 0 || axis == 1;
+	 */
+	/*@ pure */public int getLine(int row, int column, int axis) {
+		int slot = slot(key(row, column));
+		return keys[slot] == EMPTY ? 0 : lines[slot][index(row, column) << 1 | axis];
+	}
+
+	/**
+	 * Returns the amount of chunks that have been allocated.
+	 */
+	/*@ pure */public int getChunkCount() {
+		return count;
+	}
+
+	/**
+	 * Returns a copy of this grid, which shares the pieces but not the chunks.
+	 */
+	/*@ pure */public /*@ non_null */ChunkedGrid copy() {
+		ChunkedGrid result = new ChunkedGrid(keys.length);
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != EMPTY) {
+				result.keys[i] = keys[i];
+				result.chunks[i] = chunks[i].clone();
+				result.lines[i] = lines[i].clone();
+			}
+		}
+		result.count = count;
+		return result;
+	}
+
+	/**
+	 * Returns a grid with the same pieces that shares the chunks of this grid. The result
+	 * must not be written to; this grid copies the chunks it changes from now on, so the
+	 * result keeps the pieces of this moment and can be read by other threads.
+	 */
+	public /*@ non_null */ChunkedGrid share() {
+		ChunkedGrid result = new ChunkedGrid(keys.length);
+		System.arraycopy(keys, 0, result.keys, 0, keys.length);
+		System.arraycopy(chunks, 0, result.chunks, 0, keys.length);
+		System.arraycopy(lines, 0, result.lines, 0, keys.length);
+		Arrays.fill(result.shared, true);
+		Arrays.fill(shared, true);
+		result.count = count;
+		return result;
+	}
+
+	/**
+	 * Passes every occupied cell to the visitor, chunk by chunk.
+	 * @param visitor the visitor, which must not change this grid
+	 */
+	/*@ pure */public void forEach(/*@ non_null */CellVisitor visitor) {
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != EMPTY) {
+				int row = (int) (keys[i] >> 32) << CHUNK_BITS;
+				int column = (int) keys[i] << CHUNK_BITS;
+				for (int j = 0; j < CHUNK * CHUNK; j++) {
+					if (chunks[i][j] != null) {
+						visitor.visit(row + (j >> CHUNK_BITS), column + (j & MASK), chunks[i][j]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the key of the chunk that holds the given cell.
+	 */
+	/*@ pure */private static long key(int row, int column) {
+		return ((long) (row >> CHUNK_BITS) << 32) | ((column >> CHUNK_BITS) & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Returns the position of the given cell within its chunk.
+	 */
+	/*@ pure */private static int index(int row, int column) {
+		return (row & MASK) << CHUNK_BITS | (column & MASK);
+	}
+
+	/**
+	 * Returns the slot of the hash map where the given key is or would be.
+	 */
+	/*@ pure */private int slot(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		int result = (int) (h >>> 40) & (keys.length - 1);
+		while (keys[result] != EMPTY && keys[result] != key) {
+			result = (result + 1) & (keys.length - 1);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the chunk with the given key, or null if it has not been allocated.
+	 */
+	/*@ pure */private Piece[] find(long key) {
+		int slot = slot(key);
+		return keys[slot] == EMPTY ? null : chunks[slot];
+	}
+
+	// ----- Commands -----
+	/**
+	 * Puts a piece in the given cell, allocating its chunk if needed.
+	 * Emptying a cell never allocates a chunk.
+	 * @param row the row, which may be any int
+	 * @param column the column, which may be any int
+	 * @param piece the piece, or null to empty the cell
+	 */
+	public void set(int row, int column, Piece piece) {
+		long key = key(row, column);
+		int slot = slot(key);
+		if (keys[slot] == EMPTY && piece != null) {
+			if (2 * (count + 1) > keys.length) {
+				grow();
+				slot = slot(key);
+			}
+			keys[slot] = key;
+			chunks[slot] = new Piece[CHUNK * CHUNK];
+			lines[slot] = new int[2 * CHUNK * CHUNK];
+			count++;
+		}
+		if (keys[slot] != EMPTY) {
+			own(slot);
+			chunks[slot][index(row, column)] = piece;
+		}
+	}
+
+	/**
+	 * Sets the int kept for a line through the given cell. The chunk of the cell must have
+	 * been allocated, which it is once a piece has been put in the cell.
+	 * @param row the row, which may be any int
+	 * @param column the column, which may be any int
+	 * @param axis 0 for the row through the cell, 1 for the column
+	 * @param value the new value
+	 */
+	/*
+	 *@ requires	axis == 0 || axis == 1;
+	 *@ ensures		getLine(row, column, axis) == value;
+	 */
+	public void setLine(int row, int column, int axis, int value) {
+		int slot = slot(key(row, column));
+		own(slot);
+		lines[slot][index(row, column) << 1 | axis] = value;
+	}
+
+	/**
+	 * Copies the chunk in the given slot if it is shared, so it can be written to.
+	 */
+	private void own(int slot) {
+		if (shared[slot]) {
+			chunks[slot] = chunks[slot].clone();
+			lines[slot] = lines[slot].clone();
+			shared[slot] = false;
+		}
+	}
+
+	/**
+	 * Removes all pieces and chunks.
+	 */
+	public void clear() {
+		Arrays.fill(keys, EMPTY);
+		Arrays.fill(chunks, null);
+		Arrays.fill(lines, null);
+		Arrays.fill(shared, false);
+		count = 0;
+	}
+
+	/**
+	 * Doubles the capacity of the hash map.
+	 */
+	private void grow() {
+		long[] oldKeys = keys;
+		Piece[][] oldChunks = chunks;
+		int[][] oldLines = lines;
+		boolean[] oldShared = shared;
+		keys = new long[oldKeys.length * 2];
+		Arrays.fill(keys, EMPTY);
+		chunks = new Piece[keys.length][];
+		lines = new int[keys.length][];
+		shared = new boolean[keys.length];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				int slot = slot(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				chunks[slot] = oldChunks[i];
+				lines[slot] = oldLines[i];
+				shared[slot] = oldShared[i];
+			}
+		}
+	}
+}
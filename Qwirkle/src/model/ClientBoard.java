@@ -0,0 +1,133 @@
+package model;
+
+/**
+ * The Board as known by a Client. A Client never sees the stack, so instead of
+ * 108 pieces it only keeps their amount. Next to that it keeps the UnseenTiles of
+ * the own player, which are seen as soon as they are placed.
+ */
+public class ClientBoard extends Board {
+
+	/*@
+	 	private invariant	0 <= stackSize && stackSize <= MAX_STACK_SIZE;
+	 */
+	// ----- Instance Variables -----
+	private int stackSize;
+	private UnseenTiles unseen;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new, empty ClientBoard with a full stack and all pieces unseen.
+	 */
+	/*
+	 *@ ensures		getStackSize() == MAX_STACK_SIZE;
+	 *				getUnseenTiles().getTotal() == MAX_STACK_SIZE;
+	 */
+	public ClientBoard() {
+		super(false);
+		stackSize = MAX_STACK_SIZE;
+		unseen = new UnseenTiles();
+		publish();
+	}
+
+	// ----- Queries -----
+	/**
+	 * Returns the amount of pieces in the stack.
+	 */
+	/*@ pure */public int getStackSize() {
+		return stackSize;
+	}
+
+	/**
+	 * Returns the pieces that are unseen by the own player.
+	 */
+	/*@ pure */public UnseenTiles getUnseenTiles() {
+		return unseen;
+	}
+
+	// ----- Commands -----
+	/**
+	 * Places the given piece and marks it as seen.
+	 */
+	public void setPiece(int row, int column, Piece piece) {
+		super.setPiece(row, column, piece);
+		if (piece != null) {
+			unseen.see(piece);
+		}
+	}
+
+	/**
+	 * Takes one piece from the stack. As the Client cannot know which piece it is,
+	 * only the amount is decreased.
+	 * @return null
+	 */
+	/*
+	 *@ requires 	getStackSize() > 0;
+	 *@ ensures		getStackSize() == \old(getStackSize()) - 1;
+	 */
+	public Piece draw() {
+		stackSize--;
+		record(BoardEvent.stackChanged(stackSize));
+		return null;
+	}
+
+	/**
+	 * Returns the given amount of pieces to the stack, for example the hand of a kicked player.
+	 * @param amount the amount of pieces
+	 */
+	/*
+	 *@ ensures		getStackSize() == \old(getStackSize()) + amount;
+	 */
+	public void returnToStack(int amount) {
+		stackSize += amount;
+		record(BoardEvent.stackChanged(stackSize));
+	}
+
+	/**
+	 * Puts a drawn piece back in the stack, which only increases the amount.
+	 */
+	protected void undraw(Piece piece) {
+		returnToStack(1);
+	}
+
+	/**
+	 * Returns the pieces of a trade to the stack. Only the amount is kept, so nothing
+	 * is swapped.
+	 */
+	protected int[] insert(Piece[] pieces) {
+		returnToStack(pieces.length);
+		return new int[pieces.length];
+	}
+
+	/**
+	 * Takes the pieces of a trade out of the stack again.
+	 */
+	protected void remove(int[] swaps) {
+		returnToStack(-swaps.length);
+	}
+
+	/**
+	 * Takes back the last move made with apply, and marks the pieces it placed as
+	 * unseen again.
+	 */
+	public Move[] undo() {
+		Move[] result = super.undo();
+		for (Move move: result) {
+			if (move instanceof Place) {
+				unseen.unsee(move.getPiece());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a new Board with the same pieces on it, the same amount of pieces in the
+	 * stack and a copy of the unseen pieces. The grid is copied a chunk at a time.
+	 */
+	public Board deepCopy() {
+		ClientBoard result = new ClientBoard();
+		copyInto(result);
+		result.stackSize = stackSize;
+		result.unseen = new UnseenTiles(unseen);
+		return result;
+	}
+}
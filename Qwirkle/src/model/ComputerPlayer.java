@@ -3,6 +3,8 @@ package model;
 import java.util.ArrayList;
 import java.util.HashSet;
 
+import util.Log;
+
 /**
 * The ComputerPlayer class extends the LocalPlayer class.
 * It is the model of a computer player, a class that calculates moves automatically,
@@ -12,142 +14,167 @@ public class ComputerPlayer extends LocalPlayer {
 
 	public static final int MAX_HAND = 6;
 	
-	private long timeToThink;
+	private StrategyConfig config;
+	private final long maxTime;
 	private Strategy strategy;
+	private String strategyName;
+	private Ponderer ponderer;
+	private TradePlanner planner;
+	private boolean warnUntracked;
 	
 	/**
 	 * Creates a new ComputerPlayer with a random name and an empty hand
 	 * of the maximum size.
 	 * @param name the given name
-	 * @param age the given age
+	 * @param number the ID of the player
+	 * @param strat the strategy, as known by the StrategyRegistry, like "Search:depth=2"
+	 * @param thinkTime the time to think, unless the strategy gives one
 	 */
 	public ComputerPlayer(String name, int number, String strat, long thinkTime) {
+		this(name, number, strat, new StrategyConfig(thinkTime));
+	}
+	
+	/**
+	 * Creates a new ComputerPlayer with an empty hand of the maximum size.
+	 * @param name the given name
+	 * @param number the ID of the player
+	 * @param strat the strategy, as known by the StrategyRegistry, like "Search:depth=2"
+	 * @param defaults the parameters of the strategy that strat does not give
+	 */
+	public ComputerPlayer(String name, int number, String strat,
+					/*@ non_null */StrategyConfig defaults) {
 		this.id = number;
 		this.name = name;
+		config = defaults;
+		maxTime = defaults.getTimeToThink();
+		strategyName = strat;
 		strategy = findStrat(strat);
-		timeToThink = thinkTime;
+		StrategyProvider provider = StrategyRegistry.getDefault().get(strat);
+		warnUntracked = provider != null && provider.getCapabilities()
+						.contains(StrategyProvider.Capability.UNSEEN_TILES);
 		hand = new HashSet<Piece>(MAX_HAND);
+		planner = new TradePlanner();
 	}
 	
 	// ----------- Queries -------------------
 	
 	/**
 	 * Makes a Move[]. Subclasses of ComputerPlayer can have different strategies for 
-	 * determining which Move to make. If the strategy doesn't find a move, the entire hand
-	 * will be traded.
+	 * determining which Move to make. A move that was found while pondering is used if it
+	 * can still be played. The TradePlanner then decides if trading some pieces is better
+	 * than the move, or which pieces to trade if the strategy doesn't find a move.
+	 * If the stack is empty as well, the turn is passed.
 	 */
 	/*
 	 *@ ensure 		(\forall int i = 0; i >= 0 && i < \result.length; \result[i] instanceof Move);
 	 */
 	public/*@ non_null */Move[] determineMove(/*@ non_null */Board board) {
-		Move[] result = null;
-		Place[] place = strategy.findMove(hand, board);
+		if (warnUntracked && unseen == null) {
+			Log.warn(getName(), strategyName + " needs the unseen pieces, but they are not"
+							+ " tracked, so it plays without them.");
+			warnUntracked = false;
+		}
+		Place[] place = null;
+		if (ponderer != null) {
+			place = ponderer.takeAnswer(board, this);
+		}
+		if (place == null) {
+			place = strategy.findMove(hand, board);
+		}
 		if (place[0] == null) {
-			int toTrade = 0;
-			if (board.getStack().size() < 6) {
-				toTrade = board.getStack().size();
-			} else {
-				toTrade = hand.size();
-			}
-			result = new Move[toTrade];
-			int i = 0;
-			for (Piece piece: hand) {
-				if (i < toTrade) {
-					result[i] = new Trade(piece);
-					i++;
-				}
-			}
-		} else {
-			result = place;
+			place = null;
 		}
-		return result;
+		UnseenTiles tracker = unseen != null ? unseen : UnseenTiles.of(board, hand);
+		return planner.decide(new ArrayList<>(hand), place,
+						place == null ? 0 : board.getScore(place), tracker, board.getStackSize());
 	}
 	
 	/**
 	 * Finds the firstMove for a ComputerPlayer.
 	 * This consists of finding the longest line of pieces in the hand
-	 * and placing them on the board.
+	 * and placing them on the board, which is looked up in the OpeningTable.
 	 */
 	public Move[] determineFirstMove(Board board) {
-		Move[] result = null;
-		int max = 0;
-		for (Piece p: hand) {
-			ArrayList<Piece> colorPieces = new ArrayList<>();
-			ArrayList<Piece> shapePieces = new ArrayList<>();
-			colorPieces.add(p);
-			shapePieces.add(p);
-			HashSet<Piece> restHand = new HashSet<>(hand);
-			restHand.remove(p);
-			int color = 1;
-			int shape = 1;
-			for (Piece rp: restHand) {
-				boolean fitsColor = true;
-				for (Piece cp: colorPieces) {
-					if (rp.getColor().equals(cp.getColor())
-									&& !rp.getShape().equals(cp.getShape())) {
-						fitsColor = fitsColor && true;
-					} else {
-						fitsColor = false;
-					}
-				}
-				boolean fitsShape = true;
-				for (Piece sp: shapePieces) {
-					if (!rp.getColor().equals(sp.getColor())
-									&& rp.getShape().equals(sp.getShape())) {
-						fitsShape = fitsShape && true;
-					} else {
-						fitsShape = false;
-					}
-				}
-				if (fitsColor) {
-					color++;
-					colorPieces.add(rp);
-				} else if (fitsShape) {
-					shape++;
-					shapePieces.add(rp);
-				}
-			}
-			if (color > max) {
-				max = color;
-				result = new Move[colorPieces.size()];
-				for (int i = 0; i < colorPieces.size(); i++) {
-					result[i] = new Place(colorPieces.get(i), 91, 91 + i);
-				}
-			}
-			if (shape > max) {
-				max = shape;
-				result = new Move[shapePieces.size()];
-				for (int i = 0; i < shapePieces.size(); i++) {
-					result[i] = new Place(shapePieces.get(i), 91, 91 + i);
-				}
-			}
-			System.out.println("Piece: " + p.toString());
+		Move[] result = OpeningTable.findOpening(hand, Board.ORIGIN, Board.ORIGIN);
+		if (Log.isDebugEnabled()) {
+			String line = "First move:";
 			for (Move m: result) {
-				System.out.println("Move Piece: " + m.getPiece().toString());
+				line += " " + m.getPiece().toString();
 			}
+			Log.debug(getName(), line);
 		}
 		return result;
 	}
 	
 	/**
-	 * Sets the Think time of this ComputerPlayer to the given value.
+	 * Returns the Ponderer of this ComputerPlayer, or null if it does not ponder.
+	 */
+	/*@ pure */public Ponderer getPonderer() {
+		return ponderer;
+	}
+	
+	/**
+	 * Turns pondering on or off. A pondering ComputerPlayer searches its next move
+	 * in the background while the other players are thinking.
+	 * @param pondering true to ponder
+	 */
+	public void setPondering(boolean pondering) {
+		if (pondering && ponderer == null) {
+			ponderer = new Ponderer(this, standIn -> findStrat(strategyName, standIn));
+		} else if (!pondering && ponderer != null) {
+			ponderer.shutDown();
+			ponderer = null;
+		}
+	}
+	
+	/**
+	 * Starts searching the next move on the given board, if this ComputerPlayer ponders.
+	 * Should be called when another player is to move.
+	 * @param board the board
+	 */
+	public void ponder(/*@ non_null */Board board) {
+		if (ponderer != null) {
+			ponderer.ponder(board, this);
+		}
+	}
+	
+	/**
+	 * Sets the Think time of this ComputerPlayer to the given value, like the time a server
+	 * allows, but never above the time this ComputerPlayer was created with. The strategy,
+	 * and that of the Ponderer, are created again with the new time.
 	 * @param thinkTime the time to think
 	 */
 	public void setAITime(int thinkTime) {
-		timeToThink = thinkTime;
+		config = config.withTimeToThink(Math.min(maxTime, thinkTime));
+		strategy = findStrat(strategyName);
+		if (ponderer != null) {
+			ponderer.shutDown();
+			ponderer = new Ponderer(this, standIn -> findStrat(strategyName, standIn));
+		}
 	}
 	
 	/**
-	 * Finds and creates a Strategy corresponding to the given String.
+	 * Finds and creates a Strategy corresponding to the given String in the
+	 * StrategyRegistry. An unknown strategy is replaced by the FALLBACK.
 	 * @param strat the String describing the Strategy
 	 * @return the created Strategy
 	 */
 	public Strategy findStrat(String strat) {
+		return findStrat(strat, this);
+	}
+	
+	/**
+	 * Creates the Strategy described by the given String for the given player, which is
+	 * this ComputerPlayer or the stand-in of its Ponderer.
+	 */
+	private Strategy findStrat(String strat, LocalPlayer player) {
 		Strategy result = null;
-		if (strat.equals("RandomWithScore")) {
-			result = new RandomWithScoreStrategy(this, timeToThink);
-		} else {
-			result = new RandomStrategy(this, timeToThink);
+		try {
+			result = StrategyRegistry.getDefault().create(strat, player, config);
+		} catch (IllegalArgumentException e) {
+			Log.warn(getName(), e.getMessage() + " Using " + StrategyRegistry.FALLBACK + ".");
+			result = StrategyRegistry.getDefault().create(StrategyRegistry.FALLBACK, player,
+							config);
 		}
 		return result;
 	}
@@ -0,0 +1,227 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Solves the end of the game. Once the stack is empty, the pieces that are unseen by the
+ * player are exactly the pieces in the hands of the opponents, so the game has perfect
+ * information. The opponents are then searched as one player holding all unseen pieces,
+ * which is exact with two players and cautious with more. The search is alpha-beta over
+ * the difference in score, with the moves ordered by their score, and it deepens one turn
+ * at a time until the time to think has passed. Emptying a hand ends the game and is worth
+ * the 6 bonus points of the end of the game. Before the stack is empty, or when the unseen
+ * pieces are not tracked, the move is left to the given strategy.
+ */
+public class EndgameStrategy implements Strategy {
+
+	// ----- Constants -----
+	public static final int BONUS = 6;
+	private static final int INFINITY = 1 << 20;
+
+	// ----- Instance Variables -----
+	private long timeToThink;
+	private LocalPlayer player;
+	private Strategy before;
+	private long deadline;
+	private boolean aborted;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new EndgameStrategy.
+	 * @param player the player whose unseen pieces are tracked
+	 * @param thinkTime the time to think in milliseconds
+	 * @param before the strategy to use while the stack is not empty
+	 */
+	public EndgameStrategy(LocalPlayer player, long thinkTime, /*@ non_null */Strategy before) {
+		this.player = player;
+		timeToThink = thinkTime;
+		this.before = before;
+	}
+
+	// ----- Queries -----
+	/**
+	 * Tests if the endgame search is used on the given board.
+	 */
+	/*@ pure */public boolean isEndgame(/*@ non_null */Board board) {
+		return board.emptyStack() && player.getUnseenTiles() != null;
+	}
+
+	// ----- Commands -----
+	/**
+	 * Finds the move with the best final difference in score, or leaves the move to the
+	 * other strategy if it is not the end of the game yet.
+	 */
+	public /*@ non_null */Place[] findMove(/*@ non_null */HashSet<Piece> hand,
+					/*@ non_null */Board board) {
+		Place[] result;
+		if (isEndgame(board)) {
+			result = solve(new ArrayList<>(hand), unseenPieces(), board);
+		} else {
+			result = before.findMove(hand, board);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the unseen pieces, which are the pieces in the hands of the opponents.
+	 */
+	private List<Piece> unseenPieces() {
+		UnseenTiles unseen = player.getUnseenTiles();
+		List<Piece> result = new ArrayList<>();
+		for (int code = 0; code < Piece.CODES; code++) {
+			int count = unseen.getCount(Piece.fromCode(code));
+			for (int i = 0; i < count; i++) {
+				result.add(Piece.fromCode(code));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Searches ever deeper until the time is up or the whole game has been searched,
+	 * and returns the best move of the deepest finished search.
+	 * @param own the pieces of the player
+	 * @param opponents the pieces of the opponents
+	 * @param board the board
+	 */
+	public Place[] solve(List<Piece> own, List<Piece> opponents, Board board) {
+		deadline = System.currentTimeMillis() + timeToThink;
+		aborted = false;
+		Board scratch = board.deepCopy();
+		List<List<Piece>> hands = new ArrayList<>();
+		hands.add(own);
+		hands.add(opponents);
+		Place[] result = new Place[1];
+		int maxDepth = own.size() + opponents.size();
+		for (int depth = 1; depth <= maxDepth && !aborted; depth++) {
+			Place[] best = searchRoot(scratch, hands, depth, result[0] != null ? result : null);
+			if (!aborted || result[0] == null) {
+				result = best;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Searches the moves of the player to the given depth, trying the given move first.
+	 */
+	private Place[] searchRoot(Board scratch, List<List<Piece>> hands, int depth,
+					Place[] first) {
+		List<Place[]> moves = orderedMoves(scratch, hands.get(0), first);
+		Place[] result = new Place[1];
+		int alpha = -INFINITY;
+		for (Place[] move: moves) {
+			int value = tryMove(scratch, hands, 0, move, depth, alpha, INFINITY);
+			if (value > alpha && !aborted) {
+				alpha = value;
+				result = move;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the best difference in score the side to move can reach, counted from now.
+	 * @param side 0 for the player, 1 for the opponents
+	 * @param passed true if the other side has just passed
+	 */
+	private int search(Board scratch, List<List<Piece>> hands, int side, int depth,
+					int alpha, int beta, boolean passed) {
+		int result = 0;
+		if (System.currentTimeMillis() >= deadline) {
+			aborted = true;
+		} else if (depth > 0) {
+			List<Place[]> moves = orderedMoves(scratch, hands.get(side), null);
+			if (moves.isEmpty()) {
+				if (!passed) {
+					result = -search(scratch, hands, 1 - side, depth - 1, -beta, -alpha, true);
+				}
+			} else {
+				result = -INFINITY;
+				for (int i = 0; i < moves.size() && alpha < beta && !aborted; i++) {
+					int value = tryMove(scratch, hands, side, moves.get(i), depth, alpha, beta);
+					result = Math.max(result, value);
+					alpha = Math.max(alpha, value);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Makes the move, searches the answer of the other side and takes the move back.
+	 * @return the difference in score for the side that makes the move
+	 */
+	private int tryMove(Board scratch, List<List<Piece>> hands, int side, Place[] move,
+					int depth, int alpha, int beta) {
+		List<Piece> hand = hands.get(side);
+		for (Place place: move) {
+			hand.remove(place.getPiece());
+		}
+		int before = scratch.getScore(side);
+		scratch.apply(move, side);
+		int result = scratch.getScore(side) - before;
+		if (hand.isEmpty()) {
+			result += BONUS;
+		} else {
+			result -= search(scratch, hands, 1 - side, depth - 1, result - beta, result - alpha,
+							false);
+		}
+		scratch.undo();
+		for (Place place: move) {
+			hand.add(place.getPiece());
+		}
+		return result;
+	}
+
+	/**
+	 * Returns all moves of the hand, the given move first and the others by their score.
+	 */
+	private List<Place[]> orderedMoves(Board scratch, List<Piece> hand, Place[] first) {
+		List<Place[]> moves = new MoveGenerator(scratch).generate(hand, deadline);
+		int[] scores = new int[moves.size()];
+		for (int i = 0; i < moves.size(); i++) {
+			Place[] move = moves.get(i);
+			scores[i] = MoveGenerator.score(scratch, move);
+			if (first != null && isSame(move, first)) {
+				scores[i] = INFINITY;
+			}
+		}
+		List<Place[]> result = new ArrayList<>(moves.size());
+		boolean[] taken = new boolean[moves.size()];
+		for (int n = 0; n < moves.size(); n++) {
+			int best = -1;
+			for (int i = 0; i < moves.size(); i++) {
+				if (!taken[i] && (best < 0 || scores[i] > scores[best])) {
+					best = i;
+				}
+			}
+			taken[best] = true;
+			result.add(moves.get(best));
+		}
+		return result;
+	}
+
+	/**
+	 * Tests if two moves place the same pieces in the same cells.
+	 */
+	private static boolean isSame(Place[] move, Place[] other) {
+		boolean result = move.length == other.length;
+		for (int i = 0; i < move.length && result; i++) {
+			result = move[i].getPiece() == other[i].getPiece()
+							&& move[i].getRow() == other[i].getRow()
+							&& move[i].getColumn() == other[i].getColumn();
+		}
+		return result;
+	}
+
+	/**
+	 * Sets the ai think time to the given value.
+	 * @param aiTime
+	 */
+	public void setAITime(int aiTime) {
+		timeToThink = aiTime;
+	}
+}
@@ -0,0 +1,177 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Values a placing move by more than its score: a weighted sum of features of the position
+ * after the move, seen by the player that made it. The features are
+ * <ul>
+ * <li>SCORE, the score of the move itself;</li>
+ * <li>THREATS, the lines of five on the board, each counted with the chance that an
+ * opponent holds the piece that makes it a Qwirkle;</li>
+ * <li>COMPLETIONS, the lines of five that a piece left in the own hand completes;</li>
+ * <li>LEAVE_LINE, the score of the longest line in the pieces left in the hand;</li>
+ * <li>LEAVE_DOUBLES, the pieces left in the hand that are doubles of another one.</li>
+ * </ul>
+ * The lines of five are counted by the Board itself and the hand is a presence mask, so an
+ * evaluation creates no objects and can be used deep inside a search. The weights are found
+ * by the Trainer from games that the Evaluator plays against itself.
+ */
+public class Evaluator {
+
+	// ----- Constants -----
+	public static final int SCORE = 0;
+	public static final int THREATS = 1;
+	public static final int COMPLETIONS = 2;
+	public static final int LEAVE_LINE = 3;
+	public static final int LEAVE_DOUBLES = 4;
+	public static final int FEATURES = 5;
+	private static final double[] DEFAULT_WEIGHTS = {1.045, -0.472, 0.264, -0.225, -0.598};
+	private static final Evaluator DEFAULT = new Evaluator(DEFAULT_WEIGHTS);
+
+	/*@
+	 	private invariant	weights.length == FEATURES;
+	 */
+	// ----- Instance Variables -----
+	private final double[] weights;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new Evaluator with the given weights, one per feature.
+	 * @param weights the weights
+	 * @throws IllegalArgumentException if there are not FEATURES weights
+	 */
+	public Evaluator(/*@ non_null */double[] weights) {
+		if (weights.length != FEATURES) {
+			throw new IllegalArgumentException("An Evaluator needs " + FEATURES + " weights.");
+		}
+		this.weights = weights.clone();
+	}
+
+	/**
+	 * Reads an Evaluator from a file with the weights separated by white space, as written
+	 * by the Trainer.
+	 * @param file the file
+	 * @throws IOException if the file cannot be read or does not hold FEATURES finite numbers
+	 */
+	public static /*@ non_null */Evaluator load(/*@ non_null */File file) throws IOException {
+		String[] words = new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII)
+						.trim().split("\\s+");
+		double[] result = new double[words.length];
+		try {
+			for (int i = 0; i < words.length; i++) {
+				result[i] = Double.parseDouble(words[i]);
+				if (Double.isNaN(result[i]) || Double.isInfinite(result[i])) {
+					throw new IllegalArgumentException("Not a weight: " + words[i]);
+				}
+			}
+			return new Evaluator(result);
+		} catch (IllegalArgumentException e) {
+			throw new IOException(file + " does not hold the weights of an Evaluator.");
+		}
+	}
+
+	// ----- Queries -----
+	/**
+	 * Returns the Evaluator with the weights of the last training.
+	 */
+	/*@ pure */public static /*@ non_null */Evaluator getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Returns a copy of the weights.
+	 */
+	/*@ pure */public /*@ non_null */double[] getWeights() {
+		return weights.clone();
+	}
+
+	/**
+	 * Returns the presence mask of the pieces of the hand that the move does not place.
+	 * The pieces are compared by identity, so no objects are created.
+	 * @param hand the pieces of the player
+	 * @param move the move, of pieces from the hand
+	 */
+	/*@ pure */public static long leaveOf(/*@ non_null */List<Piece> hand,
+					/*@ non_null */Place[] move) {
+		long result = 0;
+		for (int i = 0; i < hand.size(); i++) {
+			Piece piece = hand.get(i);
+			boolean placed = false;
+			for (int j = 0; j < move.length && !placed; j++) {
+				placed = move[j].getPiece() == piece;
+			}
+			if (!placed) {
+				result |= 1L << piece.getCode();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the value of a move.
+	 * @param board the board after the move
+	 * @param score the score of the move
+	 * @param leave the presence mask of the pieces left in the hand, as made by leaveOf
+	 * @param leaveSize the amount of pieces left in the hand
+	 * @param unseen the pieces unseen by the player, or null if they are not tracked
+	 */
+	/*@ pure */public double evaluate(/*@ non_null */Board board, int score, long leave,
+					int leaveSize, UnseenTiles unseen) {
+		return weights[SCORE] * score + weights[THREATS] * threats(board, unseen)
+						+ weights[COMPLETIONS] * completions(board, leave)
+						+ weights[LEAVE_LINE] * OpeningTable.getScore(leave)
+						+ weights[LEAVE_DOUBLES] * (leaveSize - Long.bitCount(leave));
+	}
+
+	/**
+	 * Puts the features of a move in the given array, in the order of their constants.
+	 * The parameters are those of evaluate.
+	 * @param out the array, of at least FEATURES numbers
+	 */
+	public static void features(/*@ non_null */Board board, int score, long leave,
+					int leaveSize, UnseenTiles unseen, /*@ non_null */double[] out) {
+		out[SCORE] = score;
+		out[THREATS] = threats(board, unseen);
+		out[COMPLETIONS] = completions(board, leave);
+		out[LEAVE_LINE] = OpeningTable.getScore(leave);
+		out[LEAVE_DOUBLES] = leaveSize - Long.bitCount(leave);
+	}
+
+	/**
+	 * Returns the lines of five, each weighed with the chance that an opponent holds the
+	 * piece that completes it: the expected amount of such pieces in a hand of six drawn
+	 * from the unseen pieces, at most one.
+	 */
+	/*@ pure */private static double threats(Board board, UnseenTiles unseen) {
+		double result = 0;
+		if (board.getOpenFives() > 0) {
+			for (int code = 0; code < Piece.CODES; code++) {
+				int lines = board.getOpenFives(code);
+				if (lines > 0) {
+					double held = unseen == null ? (double) ComputerPlayer.MAX_HAND / Piece.CODES
+									: unseen.getTotal() == 0 ? 0
+									: (double) ComputerPlayer.MAX_HAND * unseen.getCount(code)
+													/ unseen.getTotal();
+					result += lines * Math.min(1, held);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the lines of five that a piece of the leave completes.
+	 */
+	/*@ pure */private static int completions(Board board, long leave) {
+		int result = 0;
+		for (long rest = leave; rest != 0 && board.getOpenFives() > 0; rest &= rest - 1) {
+			result += board.getOpenFives(Long.numberOfTrailingZeros(rest));
+		}
+		return result;
+	}
+}
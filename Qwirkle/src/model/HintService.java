@@ -0,0 +1,140 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Computes hints for a human player in the background. When the turn begins, the board and
+ * the hand are copied and all placing moves are generated and scored on a separate thread,
+ * while the player is still reading the board. Asking for a hint then returns the best moves
+ * at once. The hints are kept until the board or the hand changes, which is recognised by
+ * the Zobrist hash of the board and the key of the hand.
+ */
+public class HintService {
+
+	/**
+	 * A move with its score.
+	 */
+	public static class Hint {
+
+		private final Place[] move;
+		private final int score;
+
+		public Hint(Place[] move, int score) {
+			this.move = move;
+			this.score = score;
+		}
+
+		/*@ pure */public Place[] getMove() {
+			return move;
+		}
+
+		/*@ pure */public int getScore() {
+			return score;
+		}
+	}
+
+	// ----- Constants -----
+	public static final int DEFAULT_COUNT = 3;
+	private static final long MAX_WAIT = 2000;
+
+	// ----- Instance Variables -----
+	private final ExecutorService executor;
+	private final int count;
+	private long key;
+	private Future<List<Hint>> hints;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new HintService with its own background thread.
+	 * @param name the name of the player, used for the name of the thread
+	 * @param count the amount of hints to keep
+	 */
+	public HintService(/*@ non_null */String name, int count) {
+		executor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "hints-" + name);
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.count = count;
+	}
+
+	// ----- Commands -----
+	/**
+	 * Starts computing the hints for the given board and hand, unless they are already
+	 * computed or being computed. Copies the board, so it must be called on the thread that
+	 * changes the board.
+	 * @param board the board
+	 * @param hand the pieces of the player
+	 */
+	public synchronized void prepare(/*@ non_null */Board board,
+					/*@ non_null */Collection<Piece> hand) {
+		long newKey = board.getHash() ^ Zobrist.handKey(hand);
+		if (hints == null || newKey != key) {
+			if (hints != null) {
+				hints.cancel(true);
+			}
+			Board snapshot = board.deepCopy();
+			List<Piece> pieces = new ArrayList<>(hand);
+			key = newKey;
+			hints = executor.submit(() -> compute(snapshot, pieces));
+		}
+	}
+
+	/**
+	 * Returns the best moves for the given board and hand, from the highest score down.
+	 * Waits for the background computation if it has not finished yet.
+	 * @param board the board
+	 * @param hand the pieces of the player
+	 * @return at most count hints, or an empty list if no piece can be placed
+	 */
+	public /*@ non_null */List<Hint> getHints(/*@ non_null */Board board,
+					/*@ non_null */Collection<Piece> hand) {
+		Future<List<Hint>> future;
+		synchronized (this) {
+			prepare(board, hand);
+			future = hints;
+		}
+		List<Hint> result = Collections.emptyList();
+		try {
+			result = future.get(MAX_WAIT, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException | TimeoutException e) {
+			result = Collections.emptyList();
+		}
+		return result;
+	}
+
+	/**
+	 * Generates and scores all moves, and keeps the best.
+	 */
+	private List<Hint> compute(Board snapshot, List<Piece> hand) {
+		List<Place[]> moves = new MoveGenerator(snapshot).generate(hand);
+		List<Hint> result = new ArrayList<>();
+		for (Place[] move: moves) {
+			if (Thread.currentThread().isInterrupted()) {
+				break;
+			}
+			result.add(new Hint(move, MoveGenerator.score(snapshot, move)));
+		}
+		result.sort((a, b) -> b.getScore() - a.getScore());
+		return Collections.unmodifiableList(new ArrayList<>(result.subList(0,
+						Math.min(count, result.size()))));
+	}
+
+	/**
+	 * Stops the background thread.
+	 */
+	public void shutDown() {
+		executor.shutdownNow();
+	}
+}
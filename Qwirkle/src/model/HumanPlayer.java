@@ -2,6 +2,7 @@ package model;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Scanner;
 
 @SuppressWarnings("resource")
@@ -13,7 +14,7 @@ public class HumanPlayer extends LocalPlayer {
 	 */
 	public static final int MAX_HAND = 6;
 	
-	private Strategy hints;
+	private HintService hints;
 	
 	
 	/**
@@ -26,7 +27,7 @@ public class HumanPlayer extends LocalPlayer {
 		this.id = number;
 		this.name = name;
 		hand = new HashSet<Piece>(MAX_HAND);
-		hints = new RandomWithScoreStrategy(this, 1000);
+		hints = new HintService(name, HintService.DEFAULT_COUNT);
 	}
 	
 	// ----------- Queries -------------------
@@ -41,6 +42,7 @@ public class HumanPlayer extends LocalPlayer {
 	 *@ ensure 		(\forall int i = 0; i >= 0 && i < \result.length; \result[i] instanceof Move);
 	 */
 	public /*@ non_null */Move[] determineMove(/*@ non_null */Board board) {
+		hints.prepare(board, hand);
 		showHand();
 		ArrayList<Move> moves = new ArrayList<Move>();
 		int type = showOptions(board);
@@ -54,7 +56,7 @@ public class HumanPlayer extends LocalPlayer {
 			}
 		} else if (type == 7) {
 			moves = new ArrayList<Move>();
-			moves.add(new Place(null, 91, 91));
+			moves.add(new Place(null, Board.ORIGIN, Board.ORIGIN));
 		}
 		Move[] result = moves.toArray(new Move[moves.size()]);
 		return result;
@@ -152,9 +154,9 @@ public class HumanPlayer extends LocalPlayer {
 							int row;
 							int column;
 							if (firstPiece) {
-								row = 91;
-								column = 91;
-								moves.add(new Place(p, 91, 91));
+								row = Board.ORIGIN;
+								column = Board.ORIGIN;
+								moves.add(new Place(p, Board.ORIGIN, Board.ORIGIN));
 								firstPiece = false;
 							} else {
 								row = requestRow();
@@ -196,13 +198,13 @@ public class HumanPlayer extends LocalPlayer {
 	public int showOptions(Board board) {
 		System.out.println(this.getName() + ": What would you like to do?");
 		System.out.println("Place tiles ................... 5");
-		if (board.getStack().size() == 0) {
+		if (board.getStackSize() == 0) {
 			System.out.println("Pass ......................... 7");
 		} else {
 			System.out.println("Trade tiles ................... 6");
-			if (board.getStack().size() < 6) {
+			if (board.getStackSize() < 6) {
 				System.out.println("Maximum amount of tradeble pieces: "
-								+ board.getStack().size());
+								+ board.getStackSize());
 			}
 		}
 		System.out.println("Receive a hint ................ 8");
@@ -273,21 +275,33 @@ public class HumanPlayer extends LocalPlayer {
 	}
 	
 	/**
-	 * Prints the hint found by the hint Strategy associated with this class.
+	 * Prints the best moves found by the HintService of this player.
+	 * They are computed in the background from the start of the turn.
 	 * @param board the board for which a hint is found.
 	 */
 	public void printHint(Board board) {
-		Place[] hint = hints.findMove(hand, board);
-		if (hint[0] == null) {
+		List<HintService.Hint> found = hints.getHints(board, hand);
+		if (found.isEmpty()) {
 			System.out.println("No hint possible at this time.");
 		} else {
-			System.out.println("The following hint has been provided: ");
-			for (Place m: hint) {
-				System.out.println(m.getPiece() + " " + m.getRow() + " " + m.getColumn());
+			System.out.println("The following hints have been provided: ");
+			for (HintService.Hint hint: found) {
+				String line = hint.getScore() + " points:";
+				for (Place m: hint.getMove()) {
+					line += " " + m.getPiece() + " " + m.getRow() + " " + m.getColumn() + ";";
+				}
+				System.out.println(line);
 			}
 		}
 		System.out.println("Please make a new choice.");
 	}
 	
+	/**
+	 * Stops the thread that computes the hints of this player.
+	 */
+	public void shutDown() {
+		hints.shutDown();
+	}
+	
 	
 }
@@ -0,0 +1,61 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Places the move that the Evaluator values highest. Every placing move of the hand is
+ * made on a scratch board and taken back after the Evaluator has looked at the position, so
+ * the open lines of five that the move creates or leaves are seen as the opponents would
+ * see them.
+ */
+public class LearnedStrategy implements Strategy {
+
+	// ----- Instance Variables -----
+	private long timeToThink;
+	private final LocalPlayer player;
+	private final Evaluator evaluator;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new LearnedStrategy with the given Evaluator.
+	 * @param player the player that uses the strategy, of which the unseen pieces are used
+	 * @param thinkTime the time to think in milliseconds
+	 * @param evaluator the evaluator
+	 */
+	public LearnedStrategy(/*@ non_null */LocalPlayer player, long thinkTime,
+					/*@ non_null */Evaluator evaluator) {
+		this.player = player;
+		timeToThink = thinkTime;
+		this.evaluator = evaluator;
+	}
+
+	// ----- Commands -----
+	/**
+	 * Finds the move with the highest value among those generated before the time to think
+	 * has passed. Returns an array with null if no piece can be placed.
+	 */
+	public /*@ non_null */Place[] findMove(/*@ non_null */HashSet<Piece> hand,
+					/*@ non_null */Board board) {
+		long deadline = System.currentTimeMillis() + timeToThink;
+		Board scratch = board.deepCopy();
+		List<Piece> pieces = new ArrayList<>(hand);
+		UnseenTiles unseen = player.getUnseenTiles();
+		Place[] result = new Place[1];
+		double best = Double.NEGATIVE_INFINITY;
+		for (Place[] move: new MoveGenerator(scratch).generate(pieces, deadline)) {
+			int score = scratch.getScore(move);
+			// The scores of the scratch board are not used, so any player will do.
+			scratch.apply(move, 0, score);
+			double value = evaluator.evaluate(scratch, score, Evaluator.leaveOf(pieces, move),
+							pieces.size() - move.length, unseen);
+			scratch.undo();
+			if (value > best) {
+				best = value;
+				result = move;
+			}
+		}
+		return result;
+	}
+}
@@ -11,6 +11,7 @@ public abstract class LocalPlayer implements Player {
 	protected HashSet<Piece> hand;
 	protected String name;
 	protected int id;
+	protected UnseenTiles unseen;
 	
 	/**
 	 * @return The IDnumber of this player.
@@ -33,6 +34,27 @@ public abstract class LocalPlayer implements Player {
 		return hand;
 	}
 	
+	/**
+	 * @return The pieces unseen by this player, or null if they are not tracked.
+	 */
+	/*@ pure */ public UnseenTiles getUnseenTiles() {
+		return unseen;
+	}
+	
+	/**
+	 * Sets the tracker of unseen pieces, which is updated when the hand changes.
+	 * The pieces already in the hand are marked as seen.
+	 * @param tracker the tracker, or null to stop tracking
+	 */
+	public void setUnseenTiles(UnseenTiles tracker) {
+		unseen = tracker;
+		if (unseen != null) {
+			for (Piece piece: hand) {
+				unseen.see(piece);
+			}
+		}
+	}
+	
 	public void setID(int number) {
 		id = number;
 	}
@@ -46,10 +68,14 @@ public abstract class LocalPlayer implements Player {
 	}
 	
 	public void receive(Piece piece) {
-		hand.add(piece);
+		if (hand.add(piece) && unseen != null) {
+			unseen.see(piece);
+		}
 	}
 	
 	public void remove(Piece piece) {
-		hand.remove(piece);
+		if (hand.remove(piece) && unseen != null) {
+			unseen.unsee(piece);
+		}
 	}
 }
@@ -0,0 +1,139 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates all valid placing moves of a hand, including those of multiple pieces.
+ * A move is grown from a single piece next to the pieces on the board by adding pieces at
+ * either end of the line it forms. The pieces are placed on a scratch board, so every step
+ * only checks the two lines through the new piece. The same placements reached in another
+ * order are recognised by the Zobrist hash of the scratch board and generated once.
+ */
+public class MoveGenerator {
+
+	private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}};
+
+	// ----- Instance Variables -----
+	private final Board scratch;
+	private final List<Place[]> moves;
+	private final Set<Long> seen;
+	private long deadline;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new MoveGenerator that places pieces on the given board.
+	 * The board is changed while generating, but restored afterwards.
+	 * @param scratch the board, usually a copy of the board of the game
+	 */
+	public MoveGenerator(/*@ non_null */Board scratch) {
+		this.scratch = scratch;
+		moves = new ArrayList<>();
+		seen = new HashSet<>();
+	}
+
+	// ----- Queries -----
+	/**
+	 * Returns the score of the move, which Board.getScore finds without placing it.
+	 * @param b the board, which is left as it was
+	 * @param move a valid move
+	 */
+	public static int score(/*@ non_null */Board b, /*@ non_null */Place[] move) {
+		return b.getScore(move);
+	}
+
+	// ----- Commands -----
+	/**
+	 * Returns all distinct valid moves of the given hand.
+	 * @param hand the pieces that may be placed
+	 */
+	public List<Place[]> generate(/*@ non_null */List<Piece> hand) {
+		return generate(hand, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Returns the distinct valid moves of the given hand that are found before the deadline.
+	 * @param hand the pieces that may be placed
+	 * @param until the deadline, as System.currentTimeMillis()
+	 */
+	public List<Place[]> generate(/*@ non_null */List<Piece> hand, long until) {
+		moves.clear();
+		seen.clear();
+		deadline = until;
+		List<int[]> anchors = scratch.getCandidates();
+		boolean[] used = new boolean[hand.size()];
+		List<Place> placed = new ArrayList<>();
+		for (int[] cell: anchors) {
+			for (int i = 0; i < hand.size() && System.currentTimeMillis() < deadline; i++) {
+				Piece piece = hand.get(i);
+				if (!isDouble(hand, used, i) && scratch.fits(cell[0], cell[1], piece)) {
+					used[i] = true;
+					place(placed, new Place(piece, cell[0], cell[1]));
+					if (seen.add(scratch.getHash())) {
+						moves.add(placed.toArray(new Place[1]));
+						for (int[] direction: DIRECTIONS) {
+							extend(hand, used, placed, direction);
+						}
+					}
+					unplace(placed);
+					used[i] = false;
+				}
+			}
+		}
+		return new ArrayList<>(moves);
+	}
+
+	/**
+	 * Tests if an equal piece earlier in the hand is unused, so trying this one would
+	 * only repeat the moves of that one.
+	 */
+	private boolean isDouble(List<Piece> hand, boolean[] used, int index) {
+		boolean result = used[index];
+		int code = hand.get(index).getCode();
+		for (int i = 0; i < index && !result; i++) {
+			result = !used[i] && hand.get(i).getCode() == code;
+		}
+		return result;
+	}
+
+	/**
+	 * Adds pieces at both ends of the line of the placed pieces in the given direction.
+	 */
+	private void extend(List<Piece> hand, boolean[] used, List<Place> placed, int[] direction) {
+		Place first = placed.get(0);
+		for (int sign = -1; sign <= 1; sign += 2) {
+			int row = first.getRow();
+			int column = first.getColumn();
+			while (!scratch.isEmpty(row, column)) {
+				row += sign * direction[0];
+				column += sign * direction[1];
+			}
+			for (int i = 0; i < hand.size() && System.currentTimeMillis() < deadline; i++) {
+				Piece piece = hand.get(i);
+				if (!isDouble(hand, used, i) && scratch.isField(row, column)
+								&& scratch.fits(row, column, piece)) {
+					used[i] = true;
+					place(placed, new Place(piece, row, column));
+					if (seen.add(scratch.getHash())) {
+						moves.add(placed.toArray(new Place[placed.size()]));
+						extend(hand, used, placed, direction);
+					}
+					unplace(placed);
+					used[i] = false;
+				}
+			}
+		}
+	}
+
+	private void place(List<Place> placed, Place place) {
+		placed.add(place);
+		scratch.setPiece(place.getRow(), place.getColumn(), place.getPiece());
+	}
+
+	private void unplace(List<Place> placed) {
+		Place last = placed.remove(placed.size() - 1);
+		scratch.setPiece(last.getRow(), last.getColumn(), null);
+	}
+}
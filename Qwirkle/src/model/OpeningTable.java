@@ -0,0 +1,134 @@
+package model;
+
+import java.util.Collection;
+
+/**
+ * Finds the best opening move for a hand. A hand is encoded as a 36 bit presence mask,
+ * one bit for every kind of piece, so duplicates in the hand fall away. In this mask every
+ * color is a 6 bit group of shapes; a transposed mask groups the colors per shape.
+ * The length of the line of a group is its bit count, and a precomputed table of all 64
+ * groups gives the pieces in it, so finding the longest line looks at 12 groups, whatever
+ * the hand.
+ */
+public class OpeningTable {
+
+	/**
+	 * The positions of the set bits of every 6 bit group, from low to high.
+	 */
+	private static final int[][] BITS = new int[64][];
+
+	static {
+		for (int group = 0; group < 64; group++) {
+			BITS[group] = new int[Integer.bitCount(group)];
+			int i = 0;
+			for (int bit = 0; bit < 6; bit++) {
+				if ((group & (1 << bit)) != 0) {
+					BITS[group][i] = bit;
+					i++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the presence mask of the given pieces: bit color * 6 + shape is set
+	 * for every kind that is in the hand.
+	 * @param hand the pieces
+	 */
+	/*@ pure */public static long encode(/*@ non_null */Collection<Piece> hand) {
+		long result = 0;
+		for (Piece piece: hand) {
+			result |= 1L << piece.getCode();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the best line of the given mask, packed as an int: the index of the color
+	 * or shape in the lowest bits, 8 if it is a line of one shape and the group in bits 4 to 9.
+	 * Lines of one color win from lines of one shape of the same length.
+	 */
+	/*@ pure */private static int bestLine(long mask) {
+		int result = 0;
+		int max = 0;
+		for (int color = 0; color < 6; color++) {
+			int group = (int) (mask >>> (color * 6)) & 63;
+			int length = Integer.bitCount(group);
+			if (length > max) {
+				max = length;
+				result = group << 4 | color;
+			}
+		}
+		for (int shape = 0; shape < 6; shape++) {
+			int group = 0;
+			for (int color = 0; color < 6; color++) {
+				group |= (int) (mask >>> (color * 6 + shape) & 1) << color;
+			}
+			int length = Integer.bitCount(group);
+			if (length > max) {
+				max = length;
+				result = group << 4 | 8 | shape;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the length of the longest line that can be made with the given hand.
+	 * @param hand the pieces
+	 */
+	/*
+	 *@ ensures 	0 <= \result && \result <= 6 && \result <= hand.size();
+	 */
+	/*@ pure */public static int getLength(/*@ non_null */Collection<Piece> hand) {
+		return Integer.bitCount(bestLine(encode(hand)) >>> 4);
+	}
+
+	/**
+	 * Returns the score of the best opening move of the given hand.
+	 * @param hand the pieces
+	 */
+	/*@ pure */public static int getScore(/*@ non_null */Collection<Piece> hand) {
+		return getScore(encode(hand));
+	}
+
+	/**
+	 * Returns the score of the longest line in the given presence mask, as made by encode.
+	 * @param mask the kinds of pieces in a hand
+	 */
+	/*
+	 *@ ensures 	0 <= \result && \result <= 12;
+	 */
+	/*@ pure */public static int getScore(long mask) {
+		int length = Integer.bitCount(bestLine(mask) >>> 4);
+		return length == 6 ? 12 : length;
+	}
+
+	/**
+	 * Returns the best opening move of the given hand: the longest line, placed
+	 * from the given cell to the right. The pieces of the move are those of the hand.
+	 * @param hand the pieces
+	 * @param row the row of the first piece
+	 * @param column the column of the first piece
+	 */
+	/*
+	 *@ ensures 	\result.length == getLength(hand);
+	 */
+	/*@ pure */public static Place[] findOpening(/*@ non_null */Collection<Piece> hand,
+					int row, int column) {
+		Piece[] byCode = new Piece[Piece.CODES];
+		for (Piece piece: hand) {
+			byCode[piece.getCode()] = piece;
+		}
+		int line = bestLine(encode(hand));
+		int index = line & 7;
+		boolean shapeLine = (line & 8) != 0;
+		int[] bits = BITS[line >>> 4];
+		Place[] result = new Place[bits.length];
+		for (int i = 0; i < bits.length; i++) {
+			int code = shapeLine ? bits[i] * 6 + index : index * 6 + bits[i];
+			result[i] = new Place(byCode[code], row, column + i);
+		}
+		return result;
+	}
+}
@@ -16,6 +16,9 @@ public class Piece {
 	// Circle = o, Diamond = d, Square = s, Clubs = c, Spade = x, Heart = *;
 	public enum Shape { DIAMOND, SQUARE, SPADE, HEART, CLUBS, CIRCLE, BLOCKED };
 	
+	// The amount of different pieces, as numbered by getCode().
+	public static final int CODES = 36;
+	
 	// The color and shape of this piece.
 	private final Color color;
 	private final Shape shape;
@@ -47,6 +50,30 @@ public class Piece {
 		return shape;
 	}
 	
+	/**
+	 * Returns the number of the kind of this piece, from 0 up to CODES,
+	 * so pieces can be counted in an array.
+	 */
+	/*@
+	  requires getColor() != Color.DEFAULT && getShape() != Shape.BLOCKED;
+	  ensures 0 <= \result && \result < CODES;
+	 */
+	/*@ pure */ public int getCode() {
+		return color.ordinal() * 6 + shape.ordinal();
+	}
+	
+	/**
+	 * Creates a piece of the kind with the given number.
+	 * @param code the number of the kind, as returned by getCode()
+	 */
+	/*@
+	  requires 0 <= code && code < CODES;
+	  ensures \result.getCode() == code;
+	 */
+	public static Piece fromCode(int code) {
+		return new Piece(Color.values()[code / 6], Shape.values()[code % 6]);
+	}
+	
 	/**
 	 * Finds the color associated with the given character.
 	 * @param color the char for which a Color needs to be found.
@@ -0,0 +1,176 @@
+package model;
+
+import java.util.HashSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import exceptions.InvalidMoveException;
+
+/**
+ * Thinks about the next move of a ComputerPlayer while the opponents are thinking about
+ * theirs. When another player is to move, the board and the hand are copied and the move is
+ * searched on a separate thread, as if the opponents pass. When it is the turn of the player
+ * again, the answer is used at once if the board and the hand have not changed, which is
+ * recognised by the Zobrist hash of the board and the key of the hand. If an opponent has
+ * placed pieces in the meantime, the answer is still used if it is valid on the new board,
+ * which the board checks without generating any other move. Otherwise the player has to
+ * search the move itself.
+ * The Ponderer has its own Strategy, made for a stand-in of the player. Before every
+ * search the stand-in gets copies of the hand and the unseen pieces, taken on the thread
+ * that calls ponder, so the search never reads the state of the player or its strategy
+ * while that thread changes them.
+ */
+public class Ponderer {
+
+	/**
+	 * The player as seen by the pondering strategy: copies of the hand and the unseen
+	 * pieces, only changed on the pondering thread.
+	 */
+	private static class StandIn extends LocalPlayer {
+
+		private StandIn(String name, int id) {
+			this.name = name;
+			this.id = id;
+			hand = new HashSet<>();
+		}
+
+		private void update(HashSet<Piece> pieces, UnseenTiles tracker) {
+			hand = pieces;
+			unseen = tracker;
+		}
+	}
+
+	// ----- Instance Variables -----
+	private final ExecutorService executor;
+	private final StandIn standIn;
+	private final Strategy strategy;
+	private long key;
+	private Future<Place[]> answer;
+	private int hits;
+	private int misses;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new Ponderer with its own background thread.
+	 * @param player the player, whose name is used for the name of the thread
+	 * @param factory creates the strategy to ponder with for the given stand-in of the player
+	 */
+	public Ponderer(/*@ non_null */LocalPlayer player,
+					/*@ non_null */Function<LocalPlayer, Strategy> factory) {
+		String name = player.getName();
+		executor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "ponder-" + name);
+			thread.setDaemon(true);
+			return thread;
+		});
+		standIn = new StandIn(name, player.getID());
+		strategy = factory.apply(standIn);
+	}
+
+	// ----- Queries -----
+	/**
+	 * Returns the amount of turns in which a pondered move was played.
+	 */
+	/*@ pure */public synchronized int getHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the amount of turns in which the move had to be searched again.
+	 */
+	/*@ pure */public synchronized int getMisses() {
+		return misses;
+	}
+
+	// ----- Commands -----
+	/**
+	 * Starts searching the move for the given board and the hand of the given player, unless
+	 * it is already found or being searched. Copies the board, the hand and the unseen pieces,
+	 * so it must be called on the thread that changes them.
+	 * @param board the board
+	 * @param player the player that ponders
+	 */
+	public synchronized void ponder(/*@ non_null */Board board,
+					/*@ non_null */LocalPlayer player) {
+		long newKey = board.getHash() ^ Zobrist.handKey(player.getHand());
+		if (answer == null || newKey != key) {
+			if (answer != null) {
+				answer.cancel(false);
+			}
+			Board snapshot = board.deepCopy();
+			HashSet<Piece> pieces = new HashSet<>(player.getHand());
+			UnseenTiles unseen = player.getUnseenTiles();
+			UnseenTiles tracker = unseen == null ? null : new UnseenTiles(unseen);
+			key = newKey;
+			answer = executor.submit(() -> {
+				standIn.update(pieces, tracker);
+				return strategy.findMove(pieces, snapshot);
+			});
+		}
+	}
+
+	/**
+	 * Returns the pondered move if it can be played on the given board, and forgets it.
+	 * Waits for the search if it was started for this very board and hand.
+	 * @param board the board
+	 * @param player the player that is to move
+	 * @return the move, or null if the move has to be searched again
+	 */
+	public Place[] takeAnswer(/*@ non_null */Board board, /*@ non_null */LocalPlayer player) {
+		Future<Place[]> future;
+		boolean exact;
+		synchronized (this) {
+			future = answer;
+			exact = (board.getHash() ^ Zobrist.handKey(player.getHand())) == key;
+			answer = null;
+		}
+		Place[] result = null;
+		if (future != null && (exact || future.isDone())) {
+			try {
+				Place[] move = future.get();
+				if (move[0] != null && (exact || stillGood(board, player, move))) {
+					result = move;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException | CancellationException e) {
+				result = null;
+			}
+		} else if (future != null) {
+			future.cancel(false);
+		}
+		synchronized (this) {
+			if (result != null) {
+				hits++;
+			} else {
+				misses++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Tests if a move that was found for an older board is still valid on the new board.
+	 */
+	private static boolean stillGood(Board board, LocalPlayer player, Place[] move) {
+		boolean result;
+		try {
+			board.validateAndScore(move, player);
+			result = true;
+		} catch (InvalidMoveException e) {
+			result = false;
+		}
+		return result;
+	}
+
+	/**
+	 * Stops the background thread.
+	 */
+	public void shutDown() {
+		executor.shutdownNow();
+	}
+}
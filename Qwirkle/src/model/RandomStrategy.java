@@ -30,18 +30,16 @@ public class RandomStrategy implements Strategy {
 		// Try to make a Place.
 		outerloop:
 		for (Piece piece: hand) {
-			for (int row = board.getMinRow(); row < board.getMaxRow(); row++) {
-				for (int column = board.getMinColumn(); column < board.getMaxColumn(); column++) {
-					if ((System.nanoTime() - startTime) < timeToThink) {
-						break outerloop;
-					}
-					result[0] = new Place(piece, row, column);
-					try {
-						if (board.validMove(result, player)) {
-							return result;
-						}
-					} catch (InvalidMoveException e) {
+			for (int[] cell: board.getCandidates()) {
+				if (System.currentTimeMillis() - startTime > timeToThink) {
+					break outerloop;
+				}
+				result[0] = new Place(piece, cell[0], cell[1]);
+				try {
+					if (board.validMove(result, player)) {
+						return result;
 					}
+				} catch (InvalidMoveException e) {
 				}
 			}
 		}
@@ -33,24 +33,19 @@ public class RandomWithScoreStrategy implements Strategy {
 		// Try to make a Place.
 		outerloop:
 		for (Piece piece: hand) {
-			for (int row = board.getMinRow(); row <= board.getMaxRow(); row++) {
-				for (int column = board.getMinColumn(); column <= board.getMaxColumn(); column++) {
-					if ((System.nanoTime() - startTime) < timeToThink) {
-						break outerloop;
-					}
-					Place[] temp = new Place[1];
-					temp[0] = new Place(piece, row, column);
-					try {
-						if (board.validMove(temp, player)) {
-							Board scoreBoard = board.deepCopy();
-							scoreBoard.setPiece(row, column, piece);
-							if (scoreBoard.getScore(temp) > maxScore) {
-								maxScore = board.getScore(temp);
-								result[0] = temp[0];
-							}
-						}
-					} catch (InvalidMoveException e) {
+			for (int[] cell: board.getCandidates()) {
+				if (System.currentTimeMillis() - startTime > timeToThink) {
+					break outerloop;
+				}
+				Place[] temp = new Place[1];
+				temp[0] = new Place(piece, cell[0], cell[1]);
+				try {
+					int score = board.validateAndScore(temp, player);
+					if (score > maxScore) {
+						maxScore = score;
+						result[0] = temp[0];
 					}
+				} catch (InvalidMoveException e) {
 				}
 			}
 		}
@@ -0,0 +1,49 @@
+package model;
+
+/**
+ * The queries that a view needs to show a board: the pieces, the bounds and the scores.
+ * Both the Board itself and its immutable BoardSnapshot can be shown.
+ */
+public interface ReadableBoard {
+
+	/**
+	 * Returns the piece in the given cell, or null if it is empty.
+	 * @param row the row of the cell
+	 * @param column the column of the cell
+	 */
+	/*@ pure */public Piece getCell(int row, int column);
+
+	/**
+	 * Tests if the given cell is empty.
+	 * @param row the row of the cell
+	 * @param column the column of the cell
+	 */
+	/*@ pure */public boolean isEmpty(int row, int column);
+
+	/**
+	 * Returns the first row of the empty cells around the pieces.
+	 */
+	/*@ pure */public int getMinRow();
+
+	/**
+	 * Returns the last row of the empty cells around the pieces.
+	 */
+	/*@ pure */public int getMaxRow();
+
+	/**
+	 * Returns the first column of the empty cells around the pieces.
+	 */
+	/*@ pure */public int getMinColumn();
+
+	/**
+	 * Returns the last column of the empty cells around the pieces.
+	 */
+	/*@ pure */public int getMaxColumn();
+
+	/**
+	 * Returns the score of the player with the given ID.
+	 * @param playerID the ID of the player
+	 */
+	/*@ pure */public int getScore(int playerID);
+
+}
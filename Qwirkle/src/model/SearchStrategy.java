@@ -0,0 +1,144 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Searches all placing moves of the hand, including those of multiple pieces, and looks
+ * ahead at what the rest of the hand can score on the next turn. The search deepens one
+ * level at a time for as long as the AI is allowed to think, and positions that are reached
+ * again, by another order of moves or in a deeper iteration, are taken from a
+ * TranspositionTable instead of being searched again.
+ */
+public class SearchStrategy implements Strategy {
+
+	// ----- Constants -----
+	public static final int MAX_DEPTH = 3;
+	private static final int BRANCHING = 8;
+	private static final int TABLE_SIZE = 1 << 16;
+
+	// ----- Instance Variables -----
+	private long timeToThink;
+	private int maxDepth;
+	private TranspositionTable table;
+	private long deadline;
+
+	// ----- Constructor -----
+	public SearchStrategy(long thinkTime) {
+		this(thinkTime, MAX_DEPTH);
+	}
+
+	/**
+	 * Creates a new SearchStrategy that looks at most the given amount of turns ahead.
+	 * @param thinkTime the time to think in milliseconds
+	 * @param maxDepth the amount of turns, counting the move itself
+	 */
+	public SearchStrategy(long thinkTime, int maxDepth) {
+		timeToThink = thinkTime;
+		this.maxDepth = maxDepth;
+		table = new TranspositionTable(TABLE_SIZE);
+	}
+
+	// ----- Queries -----
+	/**
+	 * Returns the table with the positions evaluated by this strategy.
+	 */
+	/*@ pure */public TranspositionTable getTable() {
+		return table;
+	}
+
+	// ----- Commands -----
+	/**
+	 * Finds the move with the highest score, counting half of the best score that the
+	 * remaining pieces of the hand could make afterwards, for every level of look ahead.
+	 * Returns an array with null if no piece can be placed.
+	 */
+	public /*@ non_null */Place[] findMove(/*@ non_null */HashSet<Piece> hand,
+					/*@ non_null */Board board) {
+		deadline = System.currentTimeMillis() + timeToThink;
+		Board scratch = board.deepCopy();
+		List<Piece> pieces = new ArrayList<>(hand);
+		table.newSearch();
+		Place[] result = new Place[1];
+		for (int depth = 1; depth <= maxDepth && System.currentTimeMillis() < deadline; depth++) {
+			TranspositionTable.Entry entry = search(scratch, pieces, depth);
+			if (entry.getBest() != null && (depth == 1 || System.currentTimeMillis() < deadline)) {
+				result = entry.getBest();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Evaluates the position to the given depth. Only the BRANCHING moves with the
+	 * highest direct score are looked ahead from.
+	 * @param scratch the board, which is restored afterwards
+	 * @param hand the pieces that may be placed
+	 * @param depth the amount of turns to look at
+	 */
+	private TranspositionTable.Entry search(Board scratch, List<Piece> hand, int depth) {
+		long key = scratch.getHash() ^ Zobrist.handKey(hand);
+		TranspositionTable.Entry result = table.get(key, depth);
+		if (result == null) {
+			List<Place[]> moves = new MoveGenerator(scratch).generate(hand, deadline);
+			int[] scores = new int[moves.size()];
+			for (int i = 0; i < moves.size(); i++) {
+				scores[i] = MoveGenerator.score(scratch, moves.get(i));
+			}
+			sortByScore(moves, scores);
+			int bestValue = 0;
+			Place[] best = null;
+			for (int i = 0; i < moves.size(); i++) {
+				Place[] move = moves.get(i);
+				int value = scores[i];
+				if (depth > 1 && i < BRANCHING && move.length < hand.size()
+								&& System.currentTimeMillis() < deadline) {
+					List<Piece> rest = new ArrayList<>(hand);
+					for (Place place: move) {
+						rest.remove(place.getPiece());
+					}
+					// The scores of the scratch board are not used, so any player will do.
+					scratch.apply(move, 0);
+					value += search(scratch, rest, depth - 1).getScore() / 2;
+					scratch.undo();
+				}
+				if (best == null || value > bestValue) {
+					bestValue = value;
+					best = move;
+				}
+			}
+			result = new TranspositionTable.Entry(key, depth, bestValue, best, 0);
+			if (System.currentTimeMillis() < deadline) {
+				table.put(key, depth, bestValue, best);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Sorts the moves from the highest to the lowest score, keeping the scores aligned.
+	 */
+	private static void sortByScore(List<Place[]> moves, int[] scores) {
+		for (int i = 1; i < scores.length; i++) {
+			int score = scores[i];
+			Place[] move = moves.get(i);
+			int j = i - 1;
+			while (j >= 0 && scores[j] < score) {
+				scores[j + 1] = scores[j];
+				moves.set(j + 1, moves.get(j));
+				j--;
+			}
+			scores[j + 1] = score;
+			moves.set(j + 1, move);
+		}
+	}
+
+	/**
+	 * Sets the ai think time to the given value.
+	 * @param aiTime
+	 */
+	public void setAITime(int aiTime) {
+		timeToThink = aiTime;
+	}
+}
@@ -0,0 +1,111 @@
+package model;
+
+/**
+ * The parameters with which a Strategy is created: the time to think and the depth of a
+ * search. A strategy only uses the parameters it declares as capabilities of its
+ * StrategyProvider. A StrategyConfig never changes; the with methods return a changed copy.
+ * The parameters can also be written as text after the name of a strategy, like
+ * "Search:time=500,depth=2", or only a time to think, like "Search:500".
+ */
+public final class StrategyConfig {
+
+	// ----- Constants -----
+	public static final int DEFAULT_DEPTH = SearchStrategy.MAX_DEPTH;
+
+	/*@
+	 	private invariant	timeToThink >= 0 && depth > 0;
+	 */
+	// ----- Instance Variables -----
+	private final long timeToThink;
+	private final int depth;
+
+	// ----- Constructors -----
+	/**
+	 * Creates a new StrategyConfig with the given time to think and the default for the rest.
+	 * @param timeToThink the time to think in milliseconds
+	 */
+	public StrategyConfig(long timeToThink) {
+		this(timeToThink, DEFAULT_DEPTH);
+	}
+
+	/**
+	 * Creates a new StrategyConfig.
+	 * @param timeToThink the time to think in milliseconds
+	 * @param depth the amount of turns that a search looks ahead
+	 * @throws IllegalArgumentException if the time is negative or the depth is not positive
+	 */
+	public StrategyConfig(long timeToThink, int depth) {
+		if (timeToThink < 0 || depth < 1) {
+			throw new IllegalArgumentException("The time must not be negative and the depth"
+							+ " must be positive.");
+		}
+		this.timeToThink = timeToThink;
+		this.depth = depth;
+	}
+
+	// ----- Queries -----
+	/*@ pure */public long getTimeToThink() {
+		return timeToThink;
+	}
+
+	/*@ pure */public int getDepth() {
+		return depth;
+	}
+
+	/*@ pure */public /*@ non_null */StrategyConfig withTimeToThink(long time) {
+		return new StrategyConfig(time, depth);
+	}
+
+	/*@ pure */public /*@ non_null */StrategyConfig withDepth(int turns) {
+		return new StrategyConfig(timeToThink, turns);
+	}
+
+	/**
+	 * Returns the parameter that is set by the given key of the text form.
+	 * @param key time or depth
+	 * @return the capability a strategy needs to use the parameter, or null if there is none
+	 */
+	/*@ pure */public static StrategyProvider.Capability capabilityOf(/*@ non_null */String key) {
+		StrategyProvider.Capability result = null;
+		if (key.equals("time")) {
+			result = StrategyProvider.Capability.TIME_BUDGET;
+		} else if (key.equals("depth")) {
+			result = StrategyProvider.Capability.SEARCH_DEPTH;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns this StrategyConfig with the parameters of the given text changed: either only
+	 * a time to think, or pairs like "time=500,depth=2" separated by commas.
+	 * @param parameters the text
+	 * @throws IllegalArgumentException if the text has an unknown key or a value that is not
+	 * 			a valid number
+	 */
+	/*@ pure */public /*@ non_null */StrategyConfig with(/*@ non_null */String parameters) {
+		StrategyConfig result = this;
+		if (parameters.matches("\\d+")) {
+			result = withTimeToThink(Long.parseLong(parameters));
+		} else if (!parameters.isEmpty()) {
+			for (String pair: parameters.split(",")) {
+				int equals = pair.indexOf('=');
+				String key = equals < 0 ? pair : pair.substring(0, equals).trim();
+				StrategyProvider.Capability capability = capabilityOf(key);
+				if (equals < 0 || capability == null) {
+					throw new IllegalArgumentException("Unknown parameter: " + pair);
+				}
+				int value = Integer.parseInt(pair.substring(equals + 1).trim());
+				if (capability == StrategyProvider.Capability.TIME_BUDGET) {
+					result = result.withTimeToThink(value);
+				} else {
+					result = result.withDepth(value);
+				}
+			}
+		}
+		return result;
+	}
+
+	public String toString() {
+		return "time=" + timeToThink + ",depth=" + depth;
+	}
+}
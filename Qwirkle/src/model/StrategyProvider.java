@@ -0,0 +1,54 @@
+package model;
+
+import java.util.Set;
+
+/**
+ * Creates a Strategy for a ComputerPlayer. Providers are found by the StrategyRegistry, both
+ * the built-in ones and those that a jar on the class path declares in a file
+ * META-INF/services/model.StrategyProvider, so a new bot can be deployed without changing
+ * the menus or the tournament.
+ */
+public interface StrategyProvider {
+
+	/**
+	 * What a strategy uses: the parameters of a StrategyConfig it reads, and what it
+	 * needs of the player or the game.
+	 */
+	public enum Capability {
+		/** Uses the time to think. */
+		TIME_BUDGET,
+		/** Uses the depth of the search. */
+		SEARCH_DEPTH,
+		/**
+		 * Needs the unseen pieces of the player to be tracked. A ComputerPlayer without a
+		 * tracker warns once, and the strategy then plays without them.
+		 */
+		UNSEEN_TILES,
+		/** Is worth searching in the background while the opponents think. */
+		PONDERING
+	};
+
+	/**
+	 * Returns the name with which the strategy is chosen, like "Search".
+	 */
+	/*@ pure */public /*@ non_null */String getName();
+
+	/**
+	 * Returns a short description for the menus, like "Searching Computer player".
+	 */
+	/*@ pure */public /*@ non_null */String getDescription();
+
+	/**
+	 * Returns what the strategy uses.
+	 */
+	/*@ pure */public /*@ non_null */Set<Capability> getCapabilities();
+
+	/**
+	 * Creates a new Strategy for the given player.
+	 * @param player the player that uses the strategy
+	 * @param config the parameters of the strategy
+	 */
+	public /*@ non_null */Strategy create(/*@ non_null */LocalPlayer player,
+					/*@ non_null */StrategyConfig config);
+
+}
@@ -0,0 +1,113 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Knows the strategies a ComputerPlayer can use, by name. The built-in strategies are always
+ * known; more are loaded with a ServiceLoader from the class path, and a loaded provider with
+ * the name of a built-in one replaces it. A strategy is chosen with a text like "Search" or
+ * "Search:time=500,depth=2", where the parameters must be capabilities of the provider.
+ */
+public class StrategyRegistry {
+
+	// ----- Constants -----
+	public static final String FALLBACK = "Random";
+	private static final StrategyRegistry DEFAULT = new StrategyRegistry(
+					ServiceLoader.load(StrategyProvider.class));
+
+	// ----- Instance Variables -----
+	private final Map<String, StrategyProvider> providers;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new StrategyRegistry with the built-in strategies and the given providers.
+	 * @param extra the providers next to the built-in ones
+	 */
+	public StrategyRegistry(/*@ non_null */Iterable<StrategyProvider> extra) {
+		providers = new LinkedHashMap<>();
+		for (StrategyProvider provider: BuiltinStrategies.all()) {
+			providers.put(provider.getName().toLowerCase(), provider);
+		}
+		for (StrategyProvider provider: extra) {
+			providers.put(provider.getName().toLowerCase(), provider);
+		}
+	}
+
+	// ----- Queries -----
+	/**
+	 * Returns the registry with the strategies on the class path.
+	 */
+	/*@ pure */public static /*@ non_null */StrategyRegistry getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Returns all providers, the built-in ones first.
+	 */
+	/*@ pure */public /*@ non_null */List<StrategyProvider> getProviders() {
+		return new ArrayList<>(providers.values());
+	}
+
+	/**
+	 * Returns the provider of the strategy in the given text, ignoring case and parameters.
+	 * @param spec a name, optionally followed by a colon and parameters
+	 * @return the provider, or null if there is no strategy with the name
+	 */
+	/*@ pure */public StrategyProvider get(/*@ non_null */String spec) {
+		return providers.get(nameOf(spec).toLowerCase());
+	}
+
+	/**
+	 * Returns the configuration in the given text, starting from the given one.
+	 * @param spec a name, optionally followed by a colon and parameters
+	 * @param defaults the parameters that the text does not change
+	 * @throws IllegalArgumentException if there is no strategy with the name, the parameters
+	 * 			cannot be read or the strategy does not use one of them
+	 */
+	/*@ pure */public /*@ non_null */StrategyConfig parse(/*@ non_null */String spec,
+					/*@ non_null */StrategyConfig defaults) {
+		StrategyProvider provider = get(spec);
+		if (provider == null) {
+			throw new IllegalArgumentException("Unknown strategy: " + nameOf(spec));
+		}
+		int colon = spec.indexOf(':');
+		String parameters = colon < 0 ? "" : spec.substring(colon + 1);
+		if (!parameters.matches("\\d*")) {
+			for (String pair: parameters.split(",")) {
+				StrategyProvider.Capability capability = StrategyConfig.capabilityOf(
+								pair.substring(0, Math.max(0, pair.indexOf('='))).trim());
+				if (capability != null && !provider.getCapabilities().contains(capability)) {
+					throw new IllegalArgumentException(provider.getName() + " does not use "
+									+ pair + ".");
+				}
+			}
+		}
+		return defaults.with(parameters);
+	}
+
+	/**
+	 * Returns the name in a text like "Search:500".
+	 */
+	/*@ pure */public static /*@ non_null */String nameOf(/*@ non_null */String spec) {
+		int colon = spec.indexOf(':');
+		return colon < 0 ? spec : spec.substring(0, colon);
+	}
+
+	// ----- Commands -----
+	/**
+	 * Creates the strategy in the given text for the given player.
+	 * @param spec a name, optionally followed by a colon and parameters
+	 * @param player the player that uses the strategy
+	 * @param defaults the parameters that the text does not change
+	 * @throws IllegalArgumentException if the text does not describe a known strategy
+	 */
+	public /*@ non_null */Strategy create(/*@ non_null */String spec,
+					/*@ non_null */LocalPlayer player, /*@ non_null */StrategyConfig defaults) {
+		StrategyConfig config = parse(spec, defaults);
+		return get(spec).create(player, config);
+	}
+}
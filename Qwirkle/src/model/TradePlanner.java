@@ -0,0 +1,220 @@
+package model;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Decides which pieces to trade, and whether trading is better than placing at all.
+ * Every one of the at most 63 non-empty subsets of the hand is a possible trade. For each,
+ * the pieces that are drawn in return are sampled from the unseen pieces, and the hand that
+ * results is valued with the OpeningTable: the score of its longest line when it extends
+ * one piece on the board, which is about what it can score on the next turn. So a line of
+ * five in the hand counts as the Qwirkle it can make. All subsets are valued against the
+ * same samples, so their differences do not depend on luck. A placement is valued the same
+ * way, by its score plus the value of the hand it leaves after drawing; as in the
+ * SearchStrategy, the next turn counts for half.
+ */
+public class TradePlanner {
+
+	// ----- Constants -----
+	public static final int SAMPLES = 64;
+	private static final int MAX_HAND = 6;
+	private static final double NEXT_TURN = 0.5;
+
+	// ----- Instance Variables -----
+	private final Random random;
+	private int[] pool;
+	private int[][] draws;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new TradePlanner that samples with the given source of randomness.
+	 * @param random the source of randomness
+	 */
+	public TradePlanner(/*@ non_null */Random random) {
+		this.random = random;
+		draws = new int[SAMPLES][MAX_HAND];
+	}
+
+	/**
+	 * Creates a new TradePlanner.
+	 */
+	public TradePlanner() {
+		this(new Random());
+	}
+
+	// ----- Commands -----
+	/**
+	 * Returns the best trade of the given hand, or an empty array if the stack is empty.
+	 * No more pieces are traded than the stack holds.
+	 * @param hand the pieces of the player
+	 * @param unseen the pieces unseen by the player, from which the stack is drawn
+	 * @param stackSize the amount of pieces in the stack
+	 */
+	/*
+	 *@ requires	hand.size() <= 6;
+	 *@ ensures		\result.length <= stackSize;
+	 */
+	public /*@ non_null */Trade[] planTrade(/*@ non_null */List<Piece> hand,
+					/*@ non_null */UnseenTiles unseen, int stackSize) {
+		sample(unseen);
+		return toTrades(hand, bestTrade(hand, stackSize));
+	}
+
+	/**
+	 * Returns the given placement, or a trade if that is expected to score more over this
+	 * turn and the next. Without a placement, the best trade is returned, or a pass if the
+	 * stack is empty.
+	 * @param hand the pieces of the player
+	 * @param placement the best placement that was found, or null if there is none
+	 * @param score the score of the placement
+	 * @param unseen the pieces unseen by the player, from which the stack is drawn
+	 * @param stackSize the amount of pieces in the stack
+	 */
+	/*
+	 *@ requires	hand.size() <= 6;
+	 *@ ensures		\result.length > 0;
+	 */
+	public /*@ non_null */Move[] decide(/*@ non_null */List<Piece> hand, Place[] placement,
+					int score, /*@ non_null */UnseenTiles unseen, int stackSize) {
+		Move[] result = placement;
+		if (stackSize > 0) {
+			sample(unseen);
+			int trade = bestTrade(hand, stackSize);
+			boolean better = placement == null;
+			if (!better) {
+				long rest = OpeningTable.encode(hand);
+				for (Place place: placement) {
+					rest = without(hand, place.getPiece(), rest);
+				}
+				double placing = score + NEXT_TURN
+								* expectedValue(rest, Math.min(placement.length, stackSize));
+				better = NEXT_TURN * expectedValue(keptMask(hand, trade),
+								Integer.bitCount(trade)) > placing;
+			}
+			if (better) {
+				result = toTrades(hand, trade);
+			}
+		} else if (placement == null) {
+			result = new Move[] {new Place(null, Board.ORIGIN, Board.ORIGIN)};
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the subset of the hand, as a mask of indices, with the highest expected value
+	 * after trading it. Of two equal subsets the first is kept.
+	 */
+	private int bestTrade(List<Piece> hand, int stackSize) {
+		int result = 0;
+		double best = -1;
+		for (int subset = 1; subset < 1 << hand.size(); subset++) {
+			int size = Integer.bitCount(subset);
+			if (size <= stackSize) {
+				double value = expectedValue(keptMask(hand, subset), size);
+				if (value > best) {
+					best = value;
+					result = subset;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the mean value over all samples of the kept pieces with the given amount of
+	 * pieces drawn.
+	 * @param kept the presence mask of the kept pieces
+	 * @param amount the amount of pieces drawn
+	 */
+	/*@ pure */private double expectedValue(long kept, int amount) {
+		int n = Math.min(amount, pool.length);
+		int total = 0;
+		for (int[] sample: draws) {
+			long mask = kept;
+			for (int i = 0; i < n; i++) {
+				mask |= 1L << sample[i];
+			}
+			total += valueOf(mask);
+		}
+		return (double) total / SAMPLES;
+	}
+
+	/**
+	 * Returns the score of the longest line in the given presence mask when it is placed
+	 * next to one piece on the board that fits it; a line of five then makes a Qwirkle.
+	 */
+	/*
+	 *@ ensures 	0 <= \result && \result <= 12;
+	 */
+	/*@ pure */private static int valueOf(long mask) {
+		int score = OpeningTable.getScore(mask);
+		return score == 0 ? 0 : score >= 5 ? 12 : score + 1;
+	}
+
+	/**
+	 * Returns the presence mask of the pieces of the hand outside the given subset.
+	 */
+	/*@ pure */private static long keptMask(List<Piece> hand, int subset) {
+		long result = 0;
+		for (int i = 0; i < hand.size(); i++) {
+			if ((subset & 1 << i) == 0) {
+				result |= 1L << hand.get(i).getCode();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Removes the kind of the given piece from the mask, unless the hand holds it twice.
+	 */
+	/*@ pure */private static long without(List<Piece> hand, Piece piece, long mask) {
+		int copies = 0;
+		for (Piece other: hand) {
+			if (other.getCode() == piece.getCode()) {
+				copies++;
+			}
+		}
+		return copies > 1 ? mask : mask & ~(1L << piece.getCode());
+	}
+
+	/**
+	 * Returns the trades of the pieces in the given subset of the hand.
+	 */
+	/*@ pure */private static Trade[] toTrades(List<Piece> hand, int subset) {
+		Trade[] result = new Trade[Integer.bitCount(subset)];
+		int j = 0;
+		for (int i = 0; i < hand.size(); i++) {
+			if ((subset & 1 << i) != 0) {
+				result[j] = new Trade(hand.get(i));
+				j++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Collects the unseen pieces and draws SAMPLES times up to six of them, without
+	 * putting back, by the first steps of a Fisher-Yates shuffle.
+	 */
+	private void sample(UnseenTiles unseen) {
+		pool = new int[unseen.getTotal()];
+		int size = 0;
+		for (int code = 0; code < Piece.CODES; code++) {
+			for (int i = unseen.getCount(code); i > 0; i--) {
+				pool[size] = code;
+				size++;
+			}
+		}
+		int[] shuffled = pool.clone();
+		for (int[] sample: draws) {
+			for (int i = 0; i < MAX_HAND && i < shuffled.length; i++) {
+				int j = i + random.nextInt(shuffled.length - i);
+				int code = shuffled[j];
+				shuffled[j] = shuffled[i];
+				shuffled[i] = code;
+				sample[i] = code;
+			}
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of evaluated search positions, keyed by the Zobrist hash of the board
+ * combined with the key of the hand. Every key maps to a single slot, which holds an
+ * immutable Entry, so it can be shared by searching threads without locks. A slot is
+ * replaced when it holds the same position, an entry of an older search, or an entry that
+ * was searched less deep; otherwise the new entry is dropped, so deep results survive.
+ */
+public class TranspositionTable {
+
+	/**
+	 * An evaluated position: its score when searched to the given depth, and the best move.
+	 */
+	public static class Entry {
+
+		private final long key;
+		private final int depth;
+		private final int score;
+		private final Place[] best;
+		private final int age;
+
+		public Entry(long key, int depth, int score, Place[] best, int age) {
+			this.key = key;
+			this.depth = depth;
+			this.score = score;
+			this.best = best;
+			this.age = age;
+		}
+
+		/*@ pure */public long getKey() {
+			return key;
+		}
+
+		/*@ pure */public int getDepth() {
+			return depth;
+		}
+
+		/*@ pure */public int getScore() {
+			return score;
+		}
+
+		/**
+		 * Returns the best move, or null if the position has no move.
+		 */
+		/*@ pure */public Place[] getBest() {
+			return best;
+		}
+	}
+
+	/*@
+	 	private invariant	slots.length() == mask + 1;
+	 */
+	// ----- Instance Variables -----
+	private final AtomicReferenceArray<Entry> slots;
+	private final int mask;
+	private volatile int age;
+	private final LongAdder hits;
+	private final LongAdder misses;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new, empty TranspositionTable.
+	 * @param capacity the amount of entries it holds, rounded up to a power of two
+	 */
+	public TranspositionTable(int capacity) {
+		int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+		slots = new AtomicReferenceArray<>(size);
+		mask = size - 1;
+		hits = new LongAdder();
+		misses = new LongAdder();
+	}
+
+	// ----- Queries -----
+	/**
+	 * Returns the entry for the given key if it was searched at least to the given depth,
+	 * or null.
+	 * @param key the key of the position
+	 * @param depth the depth that is needed
+	 */
+	public Entry get(long key, int depth) {
+		Entry result = slots.get(index(key));
+		if (result == null || result.key != key || result.depth < depth) {
+			result = null;
+			misses.increment();
+		} else {
+			hits.increment();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the amount of lookups that found an entry.
+	 */
+	/*@ pure */public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Returns the amount of lookups that found nothing.
+	 */
+	/*@ pure */public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Returns the amount of slots.
+	 */
+	/*@ pure */public int getCapacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * Spreads the key over the slots. The low bits of a Zobrist hash are already random.
+	 */
+	/*@ pure */private int index(long key) {
+		return (int) (key ^ (key >>> 32)) & mask;
+	}
+
+	// ----- Commands -----
+	/**
+	 * Stores an evaluated position, unless its slot holds a deeper entry of the current search.
+	 * @param key the key of the position
+	 * @param depth the depth it was searched to
+	 * @param score the score
+	 * @param best the best move, or null
+	 */
+	public void put(long key, int depth, int score, Place[] best) {
+		int slot = index(key);
+		int current = age;
+		Entry old = slots.get(slot);
+		if (old == null || old.key == key || old.age != current || old.depth <= depth) {
+			slots.compareAndSet(slot, old, new Entry(key, depth, score, best, current));
+		}
+	}
+
+	/**
+	 * Starts a new search: entries of earlier searches may now be replaced by any new entry.
+	 * Call this when the board has changed, as most old positions cannot be reached anymore.
+	 */
+	public void newSearch() {
+		age++;
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void clear() {
+		for (int i = 0; i <= mask; i++) {
+			slots.set(i, null);
+		}
+	}
+}
@@ -0,0 +1,230 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Counts the pieces that are unseen from the perspective of one player: all 108 pieces,
+ * minus those on the board, minus those in the own hand. The unseen pieces are those in
+ * the stack and in the hands of the opponents, which is what the player can draw from.
+ * The counts per kind, per color and per shape are kept up to date on every change,
+ * so all queries take constant time.
+ * It is fed by the placed tiles of the Board, either as a BoardListener or directly
+ * by a ClientBoard, and by the hand of a LocalPlayer.
+ */
+public class UnseenTiles implements BoardListener {
+
+	/*@
+	 	private invariant	0 <= total && total <= Board.MAX_STACK_SIZE;
+	 	private invariant	(\forall int i; 0 <= i && i < Piece.CODES; 0 <= counts[i]);
+	 */
+	// ----- Constants -----
+	public static final int PER_KIND = Board.MAX_STACK_SIZE / Piece.CODES;
+
+	// ----- Instance Variables -----
+	private final int[] counts;
+	private final int[] colorCounts;
+	private final int[] shapeCounts;
+	private int total;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new UnseenTiles in which all 108 pieces are unseen.
+	 */
+	/*
+	 *@ ensures		getTotal() == Board.MAX_STACK_SIZE;
+	 */
+	public UnseenTiles() {
+		counts = new int[Piece.CODES];
+		colorCounts = new int[6];
+		shapeCounts = new int[6];
+		Arrays.fill(counts, PER_KIND);
+		Arrays.fill(colorCounts, PER_KIND * 6);
+		Arrays.fill(shapeCounts, PER_KIND * 6);
+		total = Board.MAX_STACK_SIZE;
+	}
+
+	/**
+	 * Creates a new UnseenTiles with the same unseen pieces as the given one.
+	 * @param other the UnseenTiles to copy
+	 */
+	/*
+	 *@ ensures		getTotal() == other.getTotal();
+	 */
+	public UnseenTiles(/*@ non_null */UnseenTiles other) {
+		counts = other.counts.clone();
+		colorCounts = other.colorCounts.clone();
+		shapeCounts = other.shapeCounts.clone();
+		total = other.total;
+	}
+
+	/**
+	 * Creates a new UnseenTiles for a player that did not keep track: all pieces minus those
+	 * on the given board and those in the given hand.
+	 * @param board the board
+	 * @param hand the pieces of the player
+	 */
+	public static /*@ non_null */UnseenTiles of(/*@ non_null */Board board,
+					/*@ non_null */Collection<Piece> hand) {
+		UnseenTiles result = new UnseenTiles();
+		for (int i = board.getMinRow(); i <= board.getMaxRow(); i++) {
+			for (int j = board.getMinColumn(); j <= board.getMaxColumn(); j++) {
+				Piece piece = board.getCell(i, j);
+				if (piece != null) {
+					result.see(piece);
+				}
+			}
+		}
+		for (Piece piece: hand) {
+			result.see(piece);
+		}
+		return result;
+	}
+
+	// ----- Queries -----
+	/**
+	 * Returns the amount of unseen pieces.
+	 */
+	/*@ pure */public int getTotal() {
+		return total;
+	}
+
+	/**
+	 * Returns how many pieces of the same kind as the given piece are unseen.
+	 * @param piece the kind of piece
+	 */
+	/*
+	 *@ ensures 	0 <= \result && \result <= PER_KIND;
+	 */
+	/*@ pure */public int getCount(/*@ non_null */Piece piece) {
+		return counts[piece.getCode()];
+	}
+
+	/**
+	 * Returns how many pieces of the kind with the given number are unseen.
+	 * @param code the kind, as numbered by Piece.getCode()
+	 */
+	/*
+	 *@ requires	0 <= code && code < Piece.CODES;
+	 */
+	/*@ pure */public int getCount(int code) {
+		return counts[code];
+	}
+
+	/**
+	 * Returns how many pieces of the given color are unseen.
+	 */
+	/*@ pure */public int getCount(/*@ non_null */Piece.Color color) {
+		return colorCounts[color.ordinal()];
+	}
+
+	/**
+	 * Returns how many pieces of the given shape are unseen.
+	 */
+	/*@ pure */public int getCount(/*@ non_null */Piece.Shape shape) {
+		return shapeCounts[shape.ordinal()];
+	}
+
+	/**
+	 * Returns the chance that a single piece drawn from the unseen pieces
+	 * is of the same kind as the given piece.
+	 * @param piece the kind of piece
+	 */
+	/*
+	 *@ ensures 	0 <= \result && \result <= 1;
+	 */
+	/*@ pure */public double probability(/*@ non_null */Piece piece) {
+		return total == 0 ? 0 : (double) getCount(piece) / total;
+	}
+
+	/**
+	 * Returns the chance that at least one of the given amount of drawn pieces
+	 * is of the same kind as the given piece. This is the chance that a piece needed to
+	 * complete a line can still be drawn in the coming draws.
+	 * @param piece the kind of piece
+	 * @param draws the amount of pieces that are drawn, at most 6
+	 */
+	/*
+	 *@ ensures 	0 <= \result && \result <= 1;
+	 */
+	/*@ pure */public double chanceToDraw(/*@ non_null */Piece piece, int draws) {
+		return chanceOfAny(getCount(piece), draws);
+	}
+
+	/**
+	 * Returns the chance that at least one of the given amount of drawn pieces has the color.
+	 * @param color the color
+	 * @param draws the amount of pieces that are drawn, at most 6
+	 */
+	/*@ pure */public double chanceToDraw(/*@ non_null */Piece.Color color, int draws) {
+		return chanceOfAny(getCount(color), draws);
+	}
+
+	/**
+	 * Returns the chance that at least one of the given amount of drawn pieces has the shape.
+	 * @param shape the shape
+	 * @param draws the amount of pieces that are drawn, at most 6
+	 */
+	/*@ pure */public double chanceToDraw(/*@ non_null */Piece.Shape shape, int draws) {
+		return chanceOfAny(getCount(shape), draws);
+	}
+
+	/**
+	 * Returns the chance that at least one of the draws is one of the matching pieces,
+	 * drawing without putting back.
+	 * @param matching the amount of unseen pieces that match
+	 * @param draws the amount of pieces that are drawn
+	 */
+	/*@ pure */private double chanceOfAny(int matching, int draws) {
+		double none = 1;
+		int n = Math.min(draws, total);
+		for (int i = 0; i < n && none > 0; i++) {
+			none *= (double) (total - matching - i) / (total - i);
+		}
+		return matching == 0 ? 0 : 1 - Math.max(0, none);
+	}
+
+	// ----- Commands -----
+	/**
+	 * Marks a piece as seen, because it was placed or has entered the own hand.
+	 * @param piece the piece
+	 */
+	/*
+	 *@ requires	getCount(piece) > 0;
+	 *@ ensures		getCount(piece) == \old(getCount(piece)) - 1;
+	 */
+	public void see(/*@ non_null */Piece piece) {
+		add(piece, -1);
+	}
+
+	/**
+	 * Marks a piece as unseen, because it has left the own hand.
+	 * A piece that is placed is seen again when it is placed on the board.
+	 * @param piece the piece
+	 */
+	/*
+	 *@ ensures		getCount(piece) == \old(getCount(piece)) + 1;
+	 */
+	public void unsee(/*@ non_null */Piece piece) {
+		add(piece, 1);
+	}
+
+	/**
+	 * Marks all pieces that were placed during a turn as seen.
+	 */
+	public void boardChanged(Board board, List<BoardEvent> events) {
+		for (BoardEvent event: events) {
+			if (event.getType() == BoardEvent.Type.TILE_PLACED && event.getPiece() != null) {
+				see(event.getPiece());
+			}
+		}
+	}
+
+	private void add(Piece piece, int amount) {
+		counts[piece.getCode()] += amount;
+		colorCounts[piece.getColor().ordinal()] += amount;
+		shapeCounts[piece.getShape().ordinal()] += amount;
+		total += amount;
+	}
+}
@@ -0,0 +1,52 @@
+package model;
+
+import java.util.Collection;
+
+/**
+ * Zobrist keys for positions of the game. Every combination of a cell and a kind of piece
+ * has its own pseudo random 64 bit key, and the hash of a board is the exclusive or of the
+ * keys of its occupied cells. Placing or removing a piece therefore updates the hash with
+ * a single exclusive or, and positions reached by placing the same pieces in a different
+ * order get the same hash. The keys are computed with the SplitMix64 mixer instead of
+ * being stored, as the board has no edges and a table of keys could not cover it.
+ */
+public class Zobrist {
+
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+	private static final long HAND_SEED = 0x5DEECE66DL;
+
+	/**
+	 * Returns the key of the given piece in the given cell.
+	 * @param row the row of the cell
+	 * @param column the column of the cell
+	 * @param piece the piece
+	 */
+	/*@ pure */public static long key(int row, int column, /*@ non_null */Piece piece) {
+		int code = piece.getColor().ordinal() * 7 + piece.getShape().ordinal();
+		return mix(mix(((long) row << 32) | (column & 0xFFFFFFFFL)) + code);
+	}
+
+	/**
+	 * Returns the key of the given hand. Unlike the board, a hand can hold two pieces of
+	 * the same kind, so the keys of the pieces are added instead of combined with an
+	 * exclusive or, which would let the two cancel out.
+	 * @param hand the pieces in the hand
+	 */
+	/*@ pure */public static long handKey(/*@ non_null */Collection<Piece> hand) {
+		long result = 0;
+		for (Piece piece: hand) {
+			result += mix(HAND_SEED + piece.getCode());
+		}
+		return result;
+	}
+
+	/**
+	 * The SplitMix64 finalizer: turns a counter into a well distributed 64 bit value.
+	 */
+	/*@ pure */private static long mix(long value) {
+		long z = (value + 1) * GOLDEN_GAMMA;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
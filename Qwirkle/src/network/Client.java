@@ -11,6 +11,7 @@ import java.net.SocketException;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.InputMismatchException;
+import java.util.List;
 import java.util.Scanner;
 
 import exceptions.InvalidMoveException;
@@ -42,15 +43,18 @@ public class Client extends Thread {
 	private Boolean firstTurn;
 	private Socket sock;
 	private Player player;
-	private Board board;
+	private ClientBoard board;
 	private TUI view;
 	private ArrayList<String> players;
-	private int tilesInStack;
 	private BufferedReader in;
 	private BufferedWriter out;
 	private BufferedReader playerInput;
 	private InetAddress host;
 	private int port;
+	private boolean headless;
+	private String botStrategy;
+	private int botTime;
+	private boolean pondering;
 	
 	// ----- Constructor -----
 	/**
@@ -63,21 +67,71 @@ public class Client extends Thread {
 		firstTurn = true;
 	}
 	
+	/**
+	 * Creates a new headless Client that plays as a ComputerPlayer without any console I/O.
+	 * The name, strategy and think time are given instead of requested from the user.
+	 * @param host the adress of the server
+	 * @param port the port of the server
+	 * @param name the name to register with
+	 * @param strategy the name of the Strategy the ComputerPlayer uses
+	 * @param aiTime the time in milliseconds the ComputerPlayer may think
+	 */
+	public Client(InetAddress host, int port, String name, String strategy, int aiTime) {
+		this.host = host;
+		this.port = port;
+		clientName = name;
+		botStrategy = strategy;
+		botTime = aiTime;
+		headless = true;
+		firstTurn = true;
+	}
+	
+	// ----- Queries -----
+	/**
+	 * Returns the Player associated with this Client.
+	 * @return the Player, or null if the name has not been confirmed yet.
+	 */
+	/*@ pure */public Player getPlayer() {
+		return player;
+	}
+	
+	/**
+	 * Sets if a headless Client lets its ComputerPlayer ponder: search its next move
+	 * while the other players are thinking. Must be called before the Client is started.
+	 * @param pondering true to ponder
+	 */
+	public void setPondering(boolean pondering) {
+		this.pondering = pondering;
+	}
+	
 	/**
 	 * Finds the name, port number and IP address and reads commands from the socket.
 	 */
 	public void run() {
-		host = requestIP();
-		port = requestPort();
+		if (!headless) {
+			host = requestIP();
+			port = requestPort();
+		}
 		try { 
 			sock = new Socket(host, port);
 			in = new BufferedReader(new InputStreamReader(sock.getInputStream()));
 			out = new BufferedWriter(new OutputStreamWriter(sock.getOutputStream()));
 		} catch (IOException e) { 
 			System.out.println(e.getMessage()); 
+			return;
 		} 
 		
-		findName();
+		if (headless) {
+			sendCommand("HELLO " + clientName);
+			try {
+				waitForConfirmation();
+			} catch (IOException e) {
+				System.err.println(e.getMessage());
+				return;
+			}
+		} else {
+			findName();
+		}
 		readCommands();
 	}
 	
@@ -134,15 +188,18 @@ public class Client extends Thread {
 	 */
 	public void readCommands() {
 		boolean playing = true;
-		print("Waiting for game to start.");
+		show("Waiting for game to start.");
 		while (playing) {
 			String line;
 			try {
 				line = in.readLine();
-				Scanner lineScan = new Scanner(line);
 				if (line == null) {
 					shutDown();
-				} else if (line.startsWith("NAMES")) {
+					playing = false;
+					break;
+				}
+				Scanner lineScan = new Scanner(line);
+				if (line.startsWith("NAMES")) {
 					startGame(line);
 				} else if (line.startsWith("NEXT")) {
 					lineScan.next();
@@ -153,6 +210,8 @@ public class Client extends Thread {
 						} else {
 							findMove();
 						}
+					} else if (!firstTurn && player instanceof ComputerPlayer) {
+						((ComputerPlayer) player).ponder(board);
 					}
 				} else if (line.startsWith("NEW")) {
 					receiveTiles(line);
@@ -164,10 +223,12 @@ public class Client extends Thread {
 					handleKick(line);
 				} else if (line.startsWith("WINNER")) {
 					handleEndGame(line);
-					view.printScore(board);
+					if (view != null) {
+						view.printScore(board);
+					}
 					playing = false;
 				} else {
-					print(line);
+					show(line);
 				}
 				lineScan.close();
 			} catch (SocketException e) {
@@ -178,6 +239,9 @@ public class Client extends Thread {
 				System.err.println(e.getMessage());
 			}
 		}
+		if (headless) {
+			shutDown();
+		}
 	}
 	
 	/**
@@ -268,13 +332,21 @@ public class Client extends Thread {
 		String line;
 		while (waiting) {
 			line = in.readLine();
-			print(line);
+			if (line == null) {
+				throw new IOException("Connection closed before the name was confirmed.");
+			}
+			show(line);
 			if (line.startsWith("WELCOME")) {
 				Scanner scanner = new Scanner(line);
 				scanner.next();
 				clientName = scanner.next();
 				int playerNumber = scanner.nextInt();
-				displayPlayerMenu(clientName, playerNumber);
+				if (headless) {
+					player = new ComputerPlayer(clientName, playerNumber, botStrategy, botTime);
+					((ComputerPlayer) player).setPondering(pondering);
+				} else {
+					displayPlayerMenu(clientName, playerNumber);
+				}
 				waiting = false;
 				scanner.close();
 			}
@@ -290,9 +362,11 @@ public class Client extends Thread {
 	public void displayPlayerMenu(/*@ non_null */String nameOfClient,
 				/*@ non_null */ int playerNumber) {
 		System.out.println("What kind of player would you like to register?");
-		System.out.println("Human player ...... ............. 1");
-		System.out.println("Computer player ................. 2");
-		System.out.println("Smarter Computer player ......... 3");
+		System.out.println(TUI.menuLine("Human player", 1));
+		List<StrategyProvider> providers = StrategyRegistry.getDefault().getProviders();
+		for (int i = 0; i < providers.size(); i++) {
+			System.out.println(TUI.menuLine(providers.get(i).getDescription(), i + 2));
+		}
 		Boolean running = true;
 		Scanner line = new Scanner(System.in);
 		while (running) {
@@ -302,18 +376,17 @@ public class Client extends Thread {
 				running = false;
 				System.out.println(nameOfClient + " was added to the game.");
 			}
-			if (kindOfPlayer.equals("2")) {
-				int aiTimeToThink = requestAITimeToThink();
-				player = new  ComputerPlayer(nameOfClient, playerNumber, "Random", aiTimeToThink);
-				running = false;
-				System.out.println("'" + nameOfClient + "' was added to the game.");
-			}
-			if (kindOfPlayer.equals("3")) {
-				int aiTimeToThink = requestAITimeToThink();
-				player = new ComputerPlayer(nameOfClient, playerNumber,
-													"RandomWithScore", aiTimeToThink);
-				running = false;
-				System.out.println("'" + nameOfClient + "' was added to the game.");
+			for (int i = 0; i < providers.size(); i++) {
+				if (kindOfPlayer.equals(String.valueOf(i + 2))) {
+					StrategyProvider provider = providers.get(i);
+					int aiTimeToThink = requestAITimeToThink();
+					player = new ComputerPlayer(nameOfClient, playerNumber, provider.getName(),
+									aiTimeToThink);
+					((ComputerPlayer) player).setPondering(provider.getCapabilities()
+									.contains(StrategyProvider.Capability.PONDERING));
+					running = false;
+					System.out.println("'" + nameOfClient + "' was added to the game.");
+				}
 			}
 		}	
 	}
@@ -345,10 +418,12 @@ public class Client extends Thread {
 	 * Prints the given name and starts the local board and view.
 	 */
 	public void startGame(String line) {
-		System.out.println(line);
-		board = new Board();
+		show(line);
+		board = new ClientBoard();
+		if (player instanceof LocalPlayer) {
+			((LocalPlayer) player).setUnseenTiles(board.getUnseenTiles());
+		}
 		players = new ArrayList<>();
-		tilesInStack = 108;
 		Scanner scanLine = new Scanner(line);
 		scanLine.next();
 		boolean notAI = true;
@@ -364,8 +439,10 @@ public class Client extends Thread {
 				}
 			}	
 		}
-		view = new TUI(board, players.size());
-		view.printBoard(board);
+		if (!headless) {
+			view = new TUI(board, players.size());
+			view.printBoard(board);
+		}
 		scanLine.close();
 	}
 	
@@ -382,14 +459,18 @@ public class Client extends Thread {
 				if (move[0].getPiece() == null) {
 					valid = true;
 				} else {
-					valid = board.validMove(move, player);
+					int score = board.validateAndScore(move, player);
+					valid = true;
 					for (int i = 0; i < move.length; i++) {
 						player.remove(move[i].getPiece());
-						print(i + " " + move[i].getPiece().toString());
+						show(i + " " + move[i].getPiece().toString());
+					}
+					if (score > 0) {
+						show("This move scores " + score + " points.");
 					}
 				}
 			} catch (InvalidMoveException e) {
-				print(e.getInfo());
+				show(e.getInfo());
 				move = player.determineMove(board);
 			}
 		}
@@ -405,13 +486,15 @@ public class Client extends Thread {
 		boolean valid = false;
 		while (!valid) {
 			try {
-				valid = board.validMove(move, player);
+				int score = board.validateAndScore(move, player);
+				valid = true;
 				for (int i = 0; i < move.length; i++) {
 					player.remove(move[i].getPiece());
-					print(i + " " + move[i].getPiece().toString());
+					show(i + " " + move[i].getPiece().toString());
 				}
+				show("This move scores " + score + " points.");
 			} catch (InvalidMoveException e) {
-				print(e.getInfo());
+				show(e.getInfo());
 				move = player.determineFirstMove(board);
 			}
 		}
@@ -447,7 +530,7 @@ public class Client extends Thread {
 	 * @param line
 	 */
 	public void receiveTiles(String line) {
-		print(line);
+		show(line);
 		Scanner scanLine = new Scanner(line);
 		scanLine.next();
 		while (scanLine.hasNext()) {
@@ -455,8 +538,8 @@ public class Client extends Thread {
 			if (!chars.equals("empty")) {
 				char color = chars.charAt(0);
 				char shape = chars.charAt(1);
-				player.receive(new Piece(Piece.charToColor(color),
-								Piece.charToShape(shape)));
+				Piece piece = new Piece(Piece.charToColor(color), Piece.charToShape(shape));
+				player.receive(piece);
 			}
 		}
 		scanLine.close();
@@ -468,7 +551,7 @@ public class Client extends Thread {
 	 */
 	public void makeMove(String line) {
 		boolean moveMade = false;
-		print(line);
+		show(line);
 		Scanner scanLine = new Scanner(line);
 		scanLine.next();
 		String firstElement = scanLine.next();
@@ -481,7 +564,7 @@ public class Client extends Thread {
 				int column = scanLine.nextInt();
 				Piece piece = new Piece(Piece.charToColor(pieceString.charAt(0)),
 								Piece.charToShape(pieceString.charAt(1)));
-				if (tilesInStack != 0) {
+				if (!board.emptyStack()) {
 					removeFromStack(1);
 				}
 				board.setPiece(row, column, piece);
@@ -491,11 +574,11 @@ public class Client extends Thread {
 		}
 		scanLine.close();
 		if (moveMade) {
-			board.notifyObservers();
 			int score = board.getScore(places.toArray(new Move[places.size()]));
 			board.addScore(playerID, score);
+			board.endTurn();
 		}
-		print(tilesInStack + " " + board.getStack().size());
+		show("Pieces in stack: " + board.getStackSize());
 	}
 	
 	/**
@@ -508,7 +591,7 @@ public class Client extends Thread {
 		int tiles = scanLine.nextInt();
 		addToStack(tiles);
 		String reason = scanLine.nextLine();
-		print(players.get(playerID) + " was kicked." + reason);
+		show(players.get(playerID) + " was kicked." + reason);
 		scanLine.close();
 	}
 	
@@ -518,20 +601,29 @@ public class Client extends Thread {
 	public void handleEndGame(String line) {
 		Scanner scanLine = new Scanner(line);
 		scanLine.next();
-		print(players.get(scanLine.nextInt()) + " heeft gewonnen.");
-		print("Scores:");
+		show(players.get(scanLine.nextInt()) + " heeft gewonnen.");
+		show("Scores:");
 		for (int i = 0; i < players.size(); i++) {
-			print(players.get(i) + ": " + board.getScore(i));
+			show(players.get(i) + ": " + board.getScore(i));
 		}
 		scanLine.close();
 	}
 	
+	/**
+	 * Prints the given message, unless this Client runs headless.
+	 * @param msg the message to print
+	 */
+	private void show(String msg) {
+		if (!headless) {
+			print(msg);
+		}
+	}
+	
 	/**
 	 * Decreases the count of the pieces in the stack by the given amount.
 	 * @param toRemove the amount of pieces to remove
 	 */
 	private void removeFromStack(int toRemove) {
-		tilesInStack = tilesInStack - toRemove;
 		for (int i = 0; i < toRemove; i++) {
 			board.draw();
 		}
@@ -542,16 +634,18 @@ public class Client extends Thread {
 	 * Increases the count of the pieces in the stack by the given amount.
 	 */
 	private void addToStack(int toAdd) {
-		tilesInStack += toAdd;
-		for (int i = 0; i < toAdd; i++) {
-			board.getStack().add(new Piece(Piece.Color.DEFAULT, Piece.Shape.BLOCKED));
-		}
+		board.returnToStack(toAdd);
 	}
 	
 	/**
 	 * ShutsDown the Client.
 	 */
 	public void shutDown() {
+		if (player instanceof ComputerPlayer) {
+			((ComputerPlayer) player).setPondering(false);
+		} else if (player instanceof HumanPlayer) {
+			((HumanPlayer) player).shutDown();
+		}
 		try {
 			in.close();
 			out.close();
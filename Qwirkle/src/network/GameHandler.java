@@ -1,6 +1,11 @@
 package network;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import util.Metrics;
 
 /**
  * This Class handles a game for the server and knows which players are participating.
@@ -9,9 +14,20 @@ import java.util.List;
  */
 public class GameHandler extends Thread {
 	
+	private static final AtomicInteger GAME_IDS = new AtomicInteger();
+	
 	private List<NetworkPlayer> players;
 	private int aiTime;
 	private NetworkGame game;
+	private int gameID;
+	private String tag;
+	private LongAdder bytesIn;
+	private LongAdder bytesOut;
+	private RatingStore ratings;
+	private String names;
+	private List<Spectator> joining;
+	private volatile SpectatorFeed feed;
+	private volatile boolean finished;
 	
 	// ---- Constructor: ----
 	/**
@@ -19,8 +35,77 @@ public class GameHandler extends Thread {
 	 * @param newPlayers the players participating
 	 */
 	public GameHandler(List<NetworkPlayer> newPlayers) {
+		this(newPlayers, null);
+	}
+	
+	/**
+	 * Creates a new GameHandler with the given players, whose ratings are updated
+	 * in the given store once the game has ended.
+	 * @param newPlayers the players participating
+	 * @param store the store with the ratings, or null to not rate the game
+	 */
+	public GameHandler(List<NetworkPlayer> newPlayers, RatingStore store) {
 		players = newPlayers;
+		ratings = store;
 		aiTime = 10000;
+		gameID = GAME_IDS.incrementAndGet();
+		tag = "game-" + gameID;
+		bytesIn = Metrics.getDefault().counter(getMetricsPrefix() + "bytes.in");
+		bytesOut = Metrics.getDefault().counter(getMetricsPrefix() + "bytes.out");
+		for (NetworkPlayer p: players) {
+			p.setGameHandler(this);
+		}
+	}
+	
+	// ---- Queries: -----
+	
+	/**
+	 * Returns the number of this game, unique within the server.
+	 */
+	/*@ pure */public int getGameID() {
+		return gameID;
+	}
+	
+	/**
+	 * Returns the tag used when logging about this game.
+	 */
+	/*@ pure */public String getTag() {
+		return tag;
+	}
+	
+	/**
+	 * Returns the prefix of the names of the metrics that belong to this game.
+	 */
+	/*@ pure */public String getMetricsPrefix() {
+		return "game." + gameID + ".";
+	}
+	
+	/**
+	 * Returns the counter of the bytes received from the players of this game.
+	 */
+	/*@ pure */public LongAdder getBytesIn() {
+		return bytesIn;
+	}
+	
+	/**
+	 * Returns the counter of the bytes sent to the players of this game.
+	 */
+	/*@ pure */public LongAdder getBytesOut() {
+		return bytesOut;
+	}
+	
+	/**
+	 * Tests if this game has ended.
+	 */
+	/*@ pure */public boolean isFinished() {
+		return finished;
+	}
+	
+	/**
+	 * Returns the store in which this game is rated, or null if it is not rated.
+	 */
+	/*@ pure */public RatingStore getRatingStore() {
+		return ratings;
 	}
 
 	
@@ -43,13 +128,64 @@ public class GameHandler extends Thread {
 	}
 	
 	/**
-	 * Sends the given message to all the players in the list of participating players.
+	 * Sends the given message to all the players in the list of participating players,
+	 * and hands it to the spectators. Spectators that are waiting to join are admitted at the
+	 * start of a turn or at the end of the game, when the board matches the messages sent.
 	 * @param message the message to send
 	 */
 	public void broadcast(String message) {
 		for (NetworkPlayer p: players) {
 			p.sendCommand(message);
 		}
+		if (message.startsWith("NAMES")) {
+			names = message;
+		}
+		SpectatorFeed current = feed;
+		if (current != null) {
+			if (message.startsWith("NEXT") || message.startsWith("WINNER")) {
+				admitSpectators(current);
+			}
+			current.publish(message);
+		}
+	}
+	
+	/**
+	 * Adds a spectator to this game. It receives a snapshot of the game at the start of
+	 * the next turn, and all public messages from then on.
+	 * @param spectator the spectator
+	 * @return false if the game has already ended
+	 */
+	public synchronized boolean addSpectator(/*@ non_null */Spectator spectator) {
+		if (!finished) {
+			if (feed == null) {
+				feed = new SpectatorFeed(tag);
+				joining = new ArrayList<>();
+			}
+			joining.add(spectator);
+		}
+		return !finished;
+	}
+	
+	/**
+	 * Hands the spectators that are waiting to join to the feed, with a snapshot of the game.
+	 * Called on the thread of the game.
+	 */
+	private void admitSpectators(SpectatorFeed current) {
+		List<Spectator> admitted = null;
+		synchronized (this) {
+			if (!joining.isEmpty()) {
+				admitted = joining;
+				joining = new ArrayList<>();
+			}
+		}
+		if (admitted != null) {
+			List<String> snapshot = new ArrayList<>();
+			if (names != null) {
+				snapshot.add(names);
+			}
+			snapshot.add(game.getSnapshot());
+			current.admit(admitted, snapshot);
+		}
 	}
 	
 	/**
@@ -57,6 +193,34 @@ public class GameHandler extends Thread {
 	 * @param playerID the ID for the player to kick
 	 */
 	public void kick(int playerID) {
+		for (NetworkPlayer p: players) {
+			if (p.getID() == playerID) {
+				p.shutDown();
+			}
+		}
 		players.removeIf(p -> p.getID() == playerID);
 	}
+	
+	/**
+	 * Closes the connections of all the players still in the game
+	 * and drops the metrics of this game; its bytes are already in the
+	 * totals of the server. The spectators are closed
+	 * once they have received the last message.
+	 * Called once the winner has been broadcast.
+	 */
+	public void shutDown() {
+		synchronized (this) {
+			finished = true;
+			if (feed != null) {
+				feed.shutDown();
+				for (Spectator spectator: joining) {
+					spectator.close();
+				}
+			}
+		}
+		for (NetworkPlayer p: players) {
+			p.shutDown();
+		}
+		Metrics.getDefault().remove(getMetricsPrefix());
+	}
 }
@@ -0,0 +1,318 @@
+package network;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.Move;
+import util.Metrics;
+
+/**
+ * Load generator for the Server. It starts a number of headless bot Clients that connect
+ * over the loopback interface and play full games against each other. While running it
+ * prints the progress, and when all bots are done it reports the connections, the games
+ * per second, the turn latency percentiles and the thread and heap usage.
+ * By default the Server is started in this JVM, so its threads and heap can be measured.
+ */
+public class LoadTest {
+
+	private static final String USAGE = "When starting the LoadTest '"
+					+ LoadTest.class.getName() + "', please declare the <port> and the amount"
+					+ " of <clients>, optionally followed by the [aiTime] and 'external' if the"
+					+ " Server is already running.";
+	private static final int SAMPLE_INTERVAL = 1000;
+
+	/**
+	 * Runs the load test with the arguments given on startup.
+	 * @param args the port, the amount of clients, the think time and 'external'
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.out.println(USAGE);
+			System.exit(0);
+		}
+		try {
+			int port = Integer.parseInt(args[0]);
+			int clients = Integer.parseInt(args[1]);
+			int aiTime = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+			boolean external = args.length > 3 && args[3].equals("external");
+			new LoadTest(port, clients, aiTime, !external).run();
+		} catch (NumberFormatException e) {
+			System.out.println(USAGE);
+		}
+	}
+
+	// ----- Instance Variables -----
+	private int port;
+	private int clientCount;
+	private int aiTime;
+	private boolean startServer;
+
+	private List<Bot> bots;
+	private AtomicInteger connected;
+	private AtomicInteger failed;
+	private Set<String> finishedGames;
+	private List<long[]> latencies;
+
+	private int peakThreads;
+	private long peakHeap;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new LoadTest.
+	 * @param port the port of the Server
+	 * @param clientCount the amount of bot Clients to start
+	 * @param aiTime the time in milliseconds the bots may think
+	 * @param startServer true if the Server should be started in this JVM
+	 */
+	public LoadTest(int port, int clientCount, int aiTime, boolean startServer) {
+		this.port = port;
+		this.clientCount = clientCount;
+		this.aiTime = aiTime;
+		this.startServer = startServer;
+		bots = new ArrayList<>();
+		connected = new AtomicInteger();
+		failed = new AtomicInteger();
+		finishedGames = ConcurrentHashMap.newKeySet();
+		latencies = new ArrayList<>();
+	}
+
+	// ----- Commands -----
+	/**
+	 * Starts the Server if needed, then starts all the bots and waits for them to finish.
+	 * Prints the progress every second and a report at the end.
+	 */
+	public void run() {
+		InetAddress host = InetAddress.getLoopbackAddress();
+		if (startServer) {
+			Thread server = new Thread(() -> new Server(port).run(), "Server");
+			server.setDaemon(true);
+			server.start();
+			waitForServer(host);
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < clientCount; i++) {
+			Bot bot = new Bot(this, host, port, "bot" + toLetters(i), aiTime);
+			bots.add(bot);
+			bot.start();
+		}
+		long lastPrint = 0;
+		while (aliveBots() > 0) {
+			sample();
+			long now = System.nanoTime();
+			if (now - lastPrint > SAMPLE_INTERVAL * 1000000L) {
+				System.out.println(progress(now - start));
+				lastPrint = now;
+			}
+			try {
+				Thread.sleep(SAMPLE_INTERVAL / 10);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		System.out.println(report(System.nanoTime() - start));
+	}
+
+	/**
+	 * Waits until the Server accepts connections.
+	 * @param host the address of the Server
+	 */
+	private void waitForServer(InetAddress host) {
+		for (int i = 0; i < 50; i++) {
+			try {
+				new Socket(host, port).close();
+				return;
+			} catch (IOException e) {
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Records the peak thread count and heap usage.
+	 * The bot threads themselves are not counted.
+	 */
+	private void sample() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		int serverThreads = threads.getThreadCount() - aliveBots();
+		long heap = memory.getHeapMemoryUsage().getUsed();
+		peakThreads = Math.max(peakThreads, serverThreads);
+		peakHeap = Math.max(peakHeap, heap);
+	}
+
+	/**
+	 * Called by a bot when a game has ended.
+	 * @param names the NAMES line of the game, which identifies it
+	 */
+	public void gameFinished(String names) {
+		finishedGames.add(names);
+	}
+
+	/**
+	 * Called by a bot when it stops, with the turn latencies it measured.
+	 * @param measured the latencies in nanoseconds
+	 */
+	public synchronized void addLatencies(long[] measured) {
+		latencies.add(measured);
+	}
+
+	// ----- Queries -----
+	/**
+	 * Returns the amount of bots that are still running.
+	 */
+	/*@ pure */public int aliveBots() {
+		int result = 0;
+		for (Bot bot: bots) {
+			if (bot.isAlive()) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a one line summary of the progress so far.
+	 * @param elapsed the time since the start in nanoseconds
+	 */
+	/*@ pure */public String progress(long elapsed) {
+		double seconds = elapsed / 1e9;
+		return String.format("[%6.1fs] connected: %d, failed: %d, games finished: %d"
+						+ " (%.2f games/s), running bots: %d", seconds, connected.get(),
+						failed.get(), finishedGames.size(), finishedGames.size() / seconds,
+						aliveBots());
+	}
+
+	/**
+	 * Returns the final report.
+	 * @param elapsed the duration of the test in nanoseconds
+	 */
+	public synchronized String report(long elapsed) {
+		int total = 0;
+		for (long[] measured: latencies) {
+			total += measured.length;
+		}
+		long[] all = new long[total];
+		int i = 0;
+		for (long[] measured: latencies) {
+			System.arraycopy(measured, 0, all, i, measured.length);
+			i += measured.length;
+		}
+		Arrays.sort(all);
+		String result = "Load test finished. " + progress(elapsed);
+		result += String.format("%nTurn latency over %d turns (ms): p50 %.2f, p90 %.2f,"
+						+ " p99 %.2f, max %.2f", all.length, percentile(all, 50),
+						percentile(all, 90), percentile(all, 99), percentile(all, 100));
+		if (startServer) {
+			result += String.format("%nServer peak threads: %d, peak heap: %d MB%n",
+							peakThreads, peakHeap / (1024 * 1024));
+			result += Metrics.getDefault().dump();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the given percentile of a sorted array of nanoseconds, in milliseconds.
+	 */
+	/*@ pure */public static double percentile(long[] sorted, int percentile) {
+		double result = 0;
+		if (sorted.length > 0) {
+			int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+			result = sorted[Math.max(0, index)] / 1e6;
+		}
+		return result;
+	}
+
+	/**
+	 * Turns a number into letters, as the Server only accepts names with letters.
+	 */
+	/*@ pure */public static String toLetters(int number) {
+		String result = "";
+		int rest = number;
+		do {
+			result = (char) ('a' + rest % 26) + result;
+			rest = rest / 26;
+		} while (rest > 0);
+		return result;
+	}
+
+	/**
+	 * A headless Client that reports to the LoadTest. The turn latency is the time
+	 * between sending a move and receiving the TURN message for it.
+	 */
+	static class Bot extends Client {
+
+		private LoadTest test;
+		private boolean welcomed;
+		private String names;
+		private long sentAt;
+		private long[] measured;
+		private int count;
+
+		public Bot(LoadTest test, InetAddress host, int port, String name, int aiTime) {
+			super(host, port, name, "Random", aiTime);
+			this.test = test;
+			measured = new long[64];
+		}
+
+		/**
+		 * Runs the Client and hands the measurements to the LoadTest when it stops.
+		 */
+		public void run() {
+			super.run();
+			if (!welcomed) {
+				test.failed.incrementAndGet();
+			}
+			test.addLatencies(Arrays.copyOf(measured, count));
+		}
+
+		public boolean waitForConfirmation() throws IOException {
+			boolean result = super.waitForConfirmation();
+			welcomed = true;
+			test.connected.incrementAndGet();
+			return result;
+		}
+
+		public void startGame(String line) {
+			names = line;
+			super.startGame(line);
+		}
+
+		public void translateMove(Move[] move) {
+			sentAt = System.nanoTime();
+			super.translateMove(move);
+		}
+
+		public void makeMove(String line) {
+			if (sentAt != 0 && line.startsWith("TURN " + getPlayer().getID() + " ")) {
+				if (count == measured.length) {
+					measured = Arrays.copyOf(measured, count * 2);
+				}
+				measured[count] = System.nanoTime() - sentAt;
+				count++;
+				sentAt = 0;
+			}
+			super.makeMove(line);
+		}
+
+		public void handleEndGame(String line) {
+			test.gameFinished(names);
+			super.handleEndGame(line);
+		}
+	}
+}
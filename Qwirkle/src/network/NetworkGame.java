@@ -1,11 +1,19 @@
 package network;
 
-import java.util.Arrays;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import exceptions.InvalidMoveException;
 import model.*;
+import util.Histogram;
+import util.Log;
+import util.Metrics;
 
 /**
  * Class for controlling a game ones it has started. It keeps the scores and 
@@ -19,6 +27,32 @@ import model.*;
 
 public class NetworkGame implements Runnable {
 
+	private static final Histogram TURN_DURATION = Metrics.getDefault().histogram("turn.duration");
+	private static final Histogram VALIDATION = Metrics.getDefault().histogram("turn.validation");
+	private static final AtomicLong ACTIVE_GAMES = Metrics.getDefault().gauge("games.active");
+	private static final LongAdder FINISHED_GAMES = Metrics.getDefault().counter("games.finished");
+
+	/**
+	 * Why a player is kicked, each with its own counter named like "kicks.invalid_move".
+	 */
+	public enum KickReason {
+		/** The connection was closed or lost while the player was to move. */
+		DISCONNECT,
+		/** The player sent no move that could be read. */
+		NO_MOVE,
+		/** The player sent a move that is not valid on the board. */
+		INVALID_MOVE
+	}
+
+	private static final EnumMap<KickReason, LongAdder> KICKS = new EnumMap<>(KickReason.class);
+
+	static {
+		for (KickReason kind: KickReason.values()) {
+			KICKS.put(kind, Metrics.getDefault().counter(
+							"kicks." + kind.name().toLowerCase(Locale.ROOT)));
+		}
+	}
+
 	/*
 	 *@ invariant	2 <= playerCount && playerCount <= 4;
 	 *@ invariant	0 <= moveCounter;
@@ -37,11 +71,12 @@ public class NetworkGame implements Runnable {
 	private int moveCounter;
 	
 	private boolean kickOccured;
+	private List<String> kicked;
 	
 	// ----- Constructor -----
 	
 	/**
-	 * Creates a new Game object with a board of a default size (183 x 183).
+	 * Creates a new Game object with an empty board.
 	 * @param playerCount	the amount of players participating in this Game. 
 	 * @param players 		the array with all players participating in this Game.
 	 * @param thinkTime 	the time in milliseconds that a computer player can take
@@ -69,6 +104,7 @@ public class NetworkGame implements Runnable {
 		aiTime = thinkTime;
 		moveCounter = 0;
 		kickOccured = false;
+		kicked = new ArrayList<>();
 	}
 	
 	
@@ -82,6 +118,30 @@ public class NetworkGame implements Runnable {
 	}
 	
 	
+	/**
+	 * Returns a compact description of the game for a spectator that joins it:
+	 * SNAPSHOT, the size of the stack, the amount of players, the ID and score of every
+	 * player and every piece on the board, in the same form as in a TURN message.
+	 * Must be called on the thread of the game.
+	 */
+	/*@ pure */public String getSnapshot() {
+		StringBuilder result = new StringBuilder("SNAPSHOT ");
+		result.append(board.getStackSize()).append(' ').append(playerCount);
+		for (int i = 0; i < playerCount; i++) {
+			int playerID = players[i].getID();
+			result.append(' ').append(playerID).append(' ').append(board.getScore(playerID));
+		}
+		for (int i = board.getMinRow(); i <= board.getMaxRow(); i++) {
+			for (int j = board.getMinColumn(); j <= board.getMaxColumn(); j++) {
+				Piece piece = board.getCell(i, j);
+				if (piece != null) {
+					result.append(new Place(piece, i, j));
+				}
+			}
+		}
+		return result.toString();
+	}
+	
 	/**
 	 * Returns the amount of players that participate in this Game. 
 	 * @return the amount of players in the game. 
@@ -94,6 +154,7 @@ public class NetworkGame implements Runnable {
 	 * Returns the maximum amount of points of a given hand. 
 	 * This method is called for each Player at the beginning of this Game to 
 	 * determine which player is allowed to start the game. 
+	 * The longest line is looked up in the OpeningTable.
 	 * @param hand the hand a player holds. 
 	 * @return the maximum amount of points one can get with the given hand. 
 	 */
@@ -101,31 +162,7 @@ public class NetworkGame implements Runnable {
 	 * @ensures		\result <= 0 && \result <= hand.size();
 	 */
 	/*@ pure */public /*@ non_null*/ int findMaxScore(HashSet<Piece> hand) {
-		int max = 0;
-		for (Piece p : hand) {
-			Set<Piece> restHand = new HashSet<>(hand);
-			restHand.remove(p);
-			int color = 1;
-			int shape = 1;
-			
-			// Check if either the color or the shape of each rp matches that of p.
-			// If so, add to color or shape. 
-			for (Piece rp : restHand) {
-				if (rp.getColor().equals(p.getColor()) && !rp.getShape().equals(p.getShape())) {
-					color++;
-				} else if (!rp.getColor().equals(p.getColor()) 
-								&& rp.getShape().equals(p.getShape())) {
-					shape++;
-				}
-			}
-			if (color > max) {
-				max = color;
-			}
-			if (shape > max) {
-				max = shape;
-			}
-		}
-		return max;
+		return OpeningTable.getLength(hand);
 	}
 	
 	
@@ -161,29 +198,35 @@ public class NetworkGame implements Runnable {
 		
 		// During the Game.
 		while (!endGame()) {
+			long turnStart = System.nanoTime();
 			handler.broadcast("NEXT " + currentPlayerID);
 			Move[] moves = players[currentPlayerID].determineMove(board);
-			if (board.emptyStack() && moves[0].getPiece() == null) {
-				handler.broadcast("Turn " + currentPlayerID + " empty");
-			} else if (moves == null || moves.length == 0) {
-				kick(currentPlayerID, "No move given");
+			if (moves == null || moves.length == 0) {
+				kick(currentPlayerID, moves == null ? KickReason.DISCONNECT : KickReason.NO_MOVE,
+								"No move given");
+			} else if (board.emptyStack() && moves[0].getPiece() == null) {
+				// A pass counts as a turn, so the game ends once nobody can place anymore.
+				moveCounter++;
+				handler.broadcast("TURN " + currentPlayerID + " empty");
 			} else {
 				boolean valid = false;
+				int score = 0;
+				long validationStart = System.nanoTime();
 				try {
-					valid = board.validMove(moves, players[currentPlayerID]);
+					score = board.validateAndScore(moves, players[currentPlayerID]);
+					valid = true;
 				} catch (InvalidMoveException e) {
-					kick(currentPlayerID, e.getInfo());
+					kick(currentPlayerID, KickReason.INVALID_MOVE, e.getInfo());
 				}
+				VALIDATION.record(System.nanoTime() - validationStart);
 				if (valid) {
 					moveCounter++;
 					String newPieces = "NEW";
 					String move = "TURN " + currentPlayerID;
 					if (moves[0] instanceof Place) {
-						String[] result = place(moves, players[currentPlayerID]);
+						String[] result = place(moves, players[currentPlayerID], score);
 						newPieces += result[0];
 						move += result[1];
-						int score = board.getScore(moves);
-						board.addScore(currentPlayerID, score);
 					} else if (moves[0] instanceof Trade) {
 						newPieces += tradePieces(moves, players[currentPlayerID]);
 						move += " empty";
@@ -192,8 +235,9 @@ public class NetworkGame implements Runnable {
 					handler.broadcast(move);
 				}
 			}
-			board.notifyObservers();
+			board.endTurn();
 			currentPlayerID = nextPlayer();
+			TURN_DURATION.record(System.nanoTime() - turnStart);
 		}
 		// Finishing the Game off. 
 		ending();
@@ -217,12 +261,43 @@ public class NetworkGame implements Runnable {
 	}
 	
 	/**
-	 * Broadcasts the Winner of the game. 
+	 * Broadcasts the Winner of the game and updates the ratings of the players. 
 	 */
-	/*@ pure */public void ending() {
+	public void ending() {
 		handler.broadcast("WINNER " + isWinner());
+		rate();
+		handler.shutDown();
+		ACTIVE_GAMES.decrementAndGet();
+		FINISHED_GAMES.increment();
 	}
 
+	/**
+	 * Updates the ratings of the players, if the game is rated. The kicked players are
+	 * rated as well, below every player that finished the game and the first one kicked
+	 * last, so leaving a game that is lost does not save the rating.
+	 */
+	private void rate() {
+		RatingStore ratings = handler.getRatingStore();
+		int total = playerCount + kicked.size();
+		if (ratings != null && total > 1) {
+			String[] names = new String[total];
+			int[] scores = new int[total];
+			for (int i = 0; i < playerCount; i++) {
+				names[i] = players[i].getName();
+				scores[i] = board.getScore(players[i].getID());
+			}
+			for (int i = 0; i < kicked.size(); i++) {
+				names[playerCount + i] = kicked.get(i);
+				scores[playerCount + i] = i - kicked.size();
+			}
+			try {
+				ratings.recordGame(names, scores);
+			} catch (IOException e) {
+				Log.warn(handler.getTag(), "Could not store ratings: " + e.getMessage());
+			}
+		}
+	}
+	
 	/**
 	 * Notifies all players of the names and IDs of the participating Players.
 	 * Then starts the game. 
@@ -233,16 +308,18 @@ public class NetworkGame implements Runnable {
 			welcome += " " + players[i].getName() + " " + players[i].getID();
 		}
 		welcome += " " + aiTime;
+		ACTIVE_GAMES.incrementAndGet();
 		handler.broadcast(welcome);
 		playGame();
 	}
 	
 	/**
-	 * Places the Piece from a Player on the Board in the indicated cell.
-	 * After placing a Piece, it is removed from the Players hand and the Player 
-	 * gets a new Piece (if the Stack is not empty). 
+	 * Places the Pieces from a Player on the Board in the indicated cells and adds the score
+	 * of the move, as one unit with Board.apply. The Pieces are removed from the Players hand
+	 * and the Player gets a new Piece for each of them (if the Stack is not empty). 
 	 * @param moves the Moves that a Player wants to make.
 	 * @param player the Player who wants to make the Moves.
+	 * @param score the score of the Moves, found while validating them.
 	 */
 	/*
 	 *@ requires	(\forall int i = 0; 0 <= i && i < moves.length;
@@ -251,24 +328,19 @@ public class NetworkGame implements Runnable {
 	 *@ ensures		moves.length <= board.getStack().size() ==> 
 	 *					\old(player.getHand().size()) == player.getHand().size();
 	 */
-	public /*@ non_null */String[] place(/*@ non_null */Move[] moves, /*@ non_null*/Player player) {
-		Place[] places = Arrays.copyOf(moves, moves.length, Place[].class);
+	public /*@ non_null */String[] place(/*@ non_null */Move[] moves, /*@ non_null*/Player player,
+					int score) {
 		String[] result = new String[2];
 		String newPieces = "";
 		String moveString = "";
-		for (Place m: places) {
-			Piece piece = m.getPiece();
-			player.remove(piece);
-			int row = m.getRow();
-			int column = m.getColumn();
-			board.setPiece(row, column, piece);
-			if (!board.emptyStack()) {
-				Piece newPiece = board.draw();
-				player.receive(newPiece);
-				newPieces += " " + newPiece.toString(); 
-			}
+		for (Move m: moves) {
+			player.remove(m.getPiece());
 			moveString += m.toString();
 		}
+		for (Piece newPiece: board.apply(moves, player.getID(), score)) {
+			player.receive(newPiece);
+			newPieces += " " + newPiece.toString();
+		}
 		if (newPieces.equals("")) {
 			newPieces = " empty";
 		}
@@ -292,19 +364,17 @@ public class NetworkGame implements Runnable {
 	 *				board.getStack().size() == \old(board.getStack().size());
 	 */
 	public /*@ non_null */String tradePieces(/* @NonNul*/Move[] moves, /* @NonNul*/Player player) {
-		Piece[] pieces = new Piece[moves.length];
 		String result = "";
-		for (int i = 0; i < moves.length; i++) {
-			pieces[i] = moves[i].getPiece();
-			player.remove(pieces[i]);
-			Piece newPiece = board.draw();
+		for (Move m: moves) {
+			player.remove(m.getPiece());
+		}
+		for (Piece newPiece: board.apply(moves, player.getID())) {
 			player.receive(newPiece);
 			result += " " + newPiece.toString();
 		}
 		if (result.equals("")) {
 			result = " empty";
 		}
-		board.tradeReturn(pieces);
 		return result;
 	}
 	
@@ -376,8 +446,18 @@ public class NetworkGame implements Runnable {
 	/**
 	 * Kicks a player when he send an invalid command or move.
 	 * Notifies all other players of the Kick.
+	 * @param playerID the player to kick
+	 * @param kind why the player is kicked, which is counted
+	 * @param reason the explanation sent to the players
 	 */
-	public void kick(int playerID, String reason) {
+	public void kick(int playerID, KickReason kind, String reason) {
+		KICKS.get(kind).increment();
+		Log.info(handler.getTag(), "Kicked player " + playerID + ": " + reason);
+		for (NetworkPlayer player: players) {
+			if (player.getID() == playerID) {
+				kicked.add(player.getName());
+			}
+		}
 		int tiles = returnPieces(playerID);
 		playerCount--;
 		setPlayers(playerID);
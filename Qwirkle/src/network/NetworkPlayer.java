@@ -9,14 +9,22 @@ import java.net.Socket;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import exceptions.InvalidMoveException;
 import exceptions.InvalidNameException;
 import model.*;
+import util.Log;
+import util.Metrics;
 
 @SuppressWarnings("resource")
 public class NetworkPlayer implements Player, Runnable {
 	public static final int MAX_HAND = 6;
+	private static final LongAdder BYTES_IN = Metrics.getDefault().counter("bytes.in");
+	private static final LongAdder BYTES_OUT = Metrics.getDefault().counter("bytes.out");
+	private static final AtomicLong CONNECTIONS =
+					Metrics.getDefault().gauge("connections.active");
 	/**
 	 * The NetworkPlayer class implements the Player interface.
 	 * It stores the local data needed for a player connected to the server
@@ -31,6 +39,8 @@ public class NetworkPlayer implements Player, Runnable {
 	private Socket sock;
 	private String name;
 	private int id;
+	private GameHandler handler;
+	private boolean closed;
 	private /*@ spec_public */ BufferedReader in;
 	private /*@ spec_public */ BufferedWriter out;
 	
@@ -55,6 +65,7 @@ public class NetworkPlayer implements Player, Runnable {
 		in = new BufferedReader(new InputStreamReader(sock.getInputStream()));
 		out = new BufferedWriter(new OutputStreamWriter(sock.getOutputStream()));
 		hand = new HashSet<>(MAX_HAND);
+		CONNECTIONS.incrementAndGet();
 	}
 	
 	// ---- Queries: ----
@@ -79,6 +90,14 @@ public class NetworkPlayer implements Player, Runnable {
 		return hand;
 	}	
 	
+	/**
+	 * Returns the tag used when logging about this NetworkPlayer:
+	 * the tag of its game, or "server" while it is not in a game yet.
+	 */
+	/*@ pure */ public String getTag() {
+		return handler == null ? "server" : handler.getTag();
+	}
+	
 	// ---- Commands: ----
 	/**
 	 * Starts the setName command to find the name the player will use.
@@ -90,47 +109,98 @@ public class NetworkPlayer implements Player, Runnable {
 		try {
 			setName();
 		} catch (IOException e) {
-			System.err.println(e.getMessage());
+			Log.warn(getTag(), e.getMessage());
 		}
 	}
 	
 	/**
 	 * Reads a name from the socket and sets it if valid.
 	 * Sends an acknowledgement to the socket. 
+	 * If the connection asks to SPECTATE a game instead, optionally followed by the number
+	 * of the game, it is handed over to that game as a Spectator.
 	 * @throws IOException
 	 */
 	/*@
 	 	ensures		getName() != null;
 	 */
 	public void setName() throws IOException {
-		String line = in.readLine();
-		System.out.println(line);
-		if (line != null && line.startsWith("HELLO ")) {
+		String line = readLine();
+		Log.debug(getTag(), line);
+		if (line == null) {
+			shutDown();
+		} else if (line.startsWith("HELLO ")) {
 			Scanner scanLine = new Scanner(line);
 			scanLine.next();
 			name = scanLine.next();
 			try {
-				id = server.validName(name);
-				System.out.println("WELCOME " + name + " " + id);
-				sendCommand("WELCOME " + name + " " + id);
-				server.setReady(this);
+				// The ID depends on the waiting list, so validating and joining it is one step.
+				synchronized (server) {
+					id = server.validName(name);
+					Log.info(getTag(), "WELCOME " + name + " " + id);
+					sendCommand("WELCOME " + name + " " + id);
+					server.setReady(this);
+				}
 			} catch (InvalidNameException e) {
 				sendCommand("INVALID");
 				this.shutDown();
 			}
+		} else if (line.startsWith("SPECTATE")) {
+			Scanner scanLine = new Scanner(line);
+			scanLine.next();
+			int gameID = scanLine.hasNextInt() ? scanLine.nextInt() : 0;
+			GameHandler game = server.findGame(gameID);
+			if (game == null) {
+				sendCommand("INVALID");
+				this.shutDown();
+			} else {
+				Spectator spectator = new Spectator(this, sock);
+				if (!game.addSpectator(spectator)) {
+					sendCommand("INVALID");
+					spectator.close();
+				}
+			}
 		}
 	}
 	
+	/**
+	 * Sets the GameHandler of the game this player takes part in,
+	 * so the traffic of this player is counted for that game.
+	 * @param gameHandler the GameHandler
+	 */
+	public void setGameHandler(GameHandler gameHandler) {
+		handler = gameHandler;
+	}
+	
 	/**
 	 * Closes the socket.
 	 */
-	public void shutDown() {
-		try {
-			sock.close();
-		} catch (IOException e) {
-			e.printStackTrace();
+	public synchronized void shutDown() {
+		if (!closed) {
+			closed = true;
+			CONNECTIONS.decrementAndGet();
+			try {
+				sock.close();
+			} catch (IOException e) {
+				Log.error(getTag(), "Could not close the connection: " + e.getMessage());
+			}
 		}
 	}
+	
+	/**
+	 * Reads a line from the socket and counts its bytes.
+	 * @return the line, or null if the connection has been closed
+	 * @throws IOException
+	 */
+	private String readLine() throws IOException {
+		String line = in.readLine();
+		if (line != null) {
+			BYTES_IN.add(line.length() + 1);
+			if (handler != null) {
+				handler.getBytesIn().add(line.length() + 1);
+			}
+		}
+		return line;
+	}
 
 	/**
 	 * Sends a given String to the output of the socket.
@@ -141,8 +211,12 @@ public class NetworkPlayer implements Player, Runnable {
 			out.write(msg);
 			out.newLine();
 			out.flush();
+			BYTES_OUT.add(msg.length() + 1);
+			if (handler != null) {
+				handler.getBytesOut().add(msg.length() + 1);
+			}
 		} catch (IOException e) {
-			System.err.println(e.getMessage());
+			Log.warn(getTag(), e.getMessage());
 		}
 	}
 
@@ -172,8 +246,11 @@ public class NetworkPlayer implements Player, Runnable {
 		String line;
 		Move[] move = null;
 		try {
-			line = in.readLine();
-			System.out.println(line);
+			line = readLine();
+			Log.debug(getTag(), line);
+			if (line == null) {
+				return null;
+			}
 			Scanner scanLine = new Scanner(line);
 			if (line.startsWith("MOVE")) {
 				scanLine.next();
@@ -181,7 +258,7 @@ public class NetworkPlayer implements Player, Runnable {
 				while (scanLine.hasNext()) {
 					String pieceName = scanLine.next();
 					if (pieceName.equals("empty")) {
-						places.add(new Place(null, 91, 91));
+						places.add(new Place(null, Board.ORIGIN, Board.ORIGIN));
 					} else {
 						int row = scanLine.nextInt();
 						int column = scanLine.nextInt();
@@ -189,14 +266,14 @@ public class NetworkPlayer implements Player, Runnable {
 						try {
 							piece = findPiece(pieceName);
 						} catch (InvalidMoveException e) {
-							System.out.println(e.getInfo());
+							Log.info(getTag(), name + ": " + e.getInfo());
 						}
 						if (piece != null) {
 							places.add(new Place(piece, row, column));
 						}
-						move = places.toArray(new Move[places.size()]);
 					}
 				}
+				move = places.toArray(new Move[places.size()]);
 			} else if (line.startsWith("SWAP")) {
 				scanLine.next();
 				ArrayList<Trade> trades = new ArrayList<>();
@@ -207,13 +284,13 @@ public class NetworkPlayer implements Player, Runnable {
 						piece = findPiece(pieceName);
 						trades.add(new Trade(piece));
 					} catch (InvalidMoveException e) {
-						System.out.println(e.getInfo());
+						Log.info(getTag(), name + ": " + e.getInfo());
 					}
 				}
 				move = trades.toArray(new Move[trades.size()]);
 			}
 		} catch (IOException e) {
-			System.err.println(e.getMessage());
+			Log.warn(getTag(), e.getMessage());
 		}
 		return move;
 		
@@ -0,0 +1,278 @@
+package network;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import util.Elo;
+
+/**
+ * Keeps the Elo ratings of the players of the Server across games and restarts.
+ * The ratings are stored in a file of fixed size records that is mapped into memory, so
+ * updating a player writes only its own record and no database is needed. A record holds
+ * the name, the rating, the amount of games and the amount of wins of a player. When the
+ * store is opened, an index from the names to their records is built, so a rating is found
+ * in constant time. The ratings are also counted in a Fenwick tree with one bucket per
+ * rating point, so the rank of a player takes a fixed amount of steps, however many
+ * players there are.
+ */
+public class RatingStore implements Closeable {
+
+	// ----- Constants -----
+	public static final int NAME_LENGTH = 16;
+	public static final int RECORD_SIZE = 32;
+	private static final int HEADER_SIZE = 16;
+	private static final int MAGIC = 0x51524154;
+	private static final int INITIAL_CAPACITY = 1024;
+	private static final int BUCKETS = 4096;
+
+	/*@
+	 	private invariant	0 <= count && count <= capacity;
+	 	private invariant	index.size() == count;
+	 */
+	// ----- Instance Variables -----
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private MappedByteBuffer buffer;
+	private int capacity;
+	private int count;
+	private final Map<String, Integer> index;
+	private final int[] tree;
+
+	// ----- Constructor -----
+	/**
+	 * Opens the store in the given file, creating it if it does not exist.
+	 * @param path the file of the store
+	 * @throws IOException if the file cannot be opened or is not a rating store
+	 */
+	public RatingStore(/*@ non_null */File path) throws IOException {
+		file = new RandomAccessFile(path, "rw");
+		channel = file.getChannel();
+		index = new HashMap<>();
+		tree = new int[BUCKETS + 1];
+		if (channel.size() == 0) {
+			map(INITIAL_CAPACITY);
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(4, 0);
+		} else {
+			map((int) ((channel.size() - HEADER_SIZE) / RECORD_SIZE));
+			if (buffer.getInt(0) != MAGIC) {
+				close();
+				throw new IOException(path + " is not a rating store.");
+			}
+			count = buffer.getInt(4);
+			for (int i = 0; i < count; i++) {
+				index.put(readName(i), i);
+				addToTree(bucket(buffer.getDouble(offset(i) + NAME_LENGTH)), 1);
+			}
+		}
+	}
+
+	// ----- Queries -----
+	/**
+	 * Returns the amount of players in the store.
+	 */
+	/*@ pure */public synchronized int size() {
+		return count;
+	}
+
+	/**
+	 * Tests if the store has a record for the given name.
+	 * @param name the name of the player
+	 */
+	/*@ pure */public synchronized boolean contains(/*@ non_null */String name) {
+		return index.containsKey(name);
+	}
+
+	/**
+	 * Returns the rating of the given player, or the initial rating if it has no record.
+	 * @param name the name of the player
+	 */
+	/*@ pure */public synchronized double getRating(/*@ non_null */String name) {
+		Integer record = index.get(name);
+		return record == null ? Elo.INITIAL : buffer.getDouble(offset(record) + NAME_LENGTH);
+	}
+
+	/**
+	 * Returns the amount of rated games of the given player.
+	 * @param name the name of the player
+	 */
+	/*@ pure */public synchronized int getGames(/*@ non_null */String name) {
+		Integer record = index.get(name);
+		return record == null ? 0 : buffer.getInt(offset(record) + NAME_LENGTH + 8);
+	}
+
+	/**
+	 * Returns the amount of games the given player has won.
+	 * @param name the name of the player
+	 */
+	/*@ pure */public synchronized int getWins(/*@ non_null */String name) {
+		Integer record = index.get(name);
+		return record == null ? 0 : buffer.getInt(offset(record) + NAME_LENGTH + 12);
+	}
+
+	/**
+	 * Returns the rank of the given player: one more than the amount of players with a
+	 * higher rating, rounded to whole points.
+	 * @param name the name of the player
+	 */
+	/*
+	 *@ ensures		1 <= \result && \result <= size() + 1;
+	 */
+	/*@ pure */public synchronized int getRank(/*@ non_null */String name) {
+		return count - countUpTo(bucket(getRating(name))) + 1;
+	}
+
+	/**
+	 * Returns the names of the players with the highest ratings, from the highest down.
+	 * @param amount the maximum amount of names
+	 */
+	/*@ pure */public synchronized List<String> getLeaderboard(int amount) {
+		List<String> result = new ArrayList<>(index.keySet());
+		result.sort((a, b) -> Double.compare(getRating(b), getRating(a)));
+		return new ArrayList<>(result.subList(0, Math.min(amount, result.size())));
+	}
+
+	/**
+	 * Returns the position in the file of the given record.
+	 */
+	/*@ pure */private static int offset(int record) {
+		return HEADER_SIZE + record * RECORD_SIZE;
+	}
+
+	/**
+	 * Returns the bucket of the Fenwick tree that counts the given rating.
+	 */
+	/*@ pure */private static int bucket(double rating) {
+		return (int) Math.max(0, Math.min(BUCKETS - 1, Math.round(rating)));
+	}
+
+	/**
+	 * Returns the amount of players with a rating in the given bucket or a lower one.
+	 */
+	/*@ pure */private int countUpTo(int bucket) {
+		int result = 0;
+		for (int i = bucket + 1; i > 0; i -= i & -i) {
+			result += tree[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Reads the name of the given record.
+	 */
+	/*@ pure */private String readName(int record) {
+		byte[] bytes = new byte[NAME_LENGTH];
+		int length = 0;
+		for (int i = 0; i < NAME_LENGTH; i++) {
+			bytes[i] = buffer.get(offset(record) + i);
+			if (bytes[i] != 0) {
+				length = i + 1;
+			}
+		}
+		return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+	}
+
+	// ----- Commands -----
+	/**
+	 * Creates a record with the initial rating for the given player, unless it has one.
+	 * @param name a valid name, of letters only and at most NAME_LENGTH long
+	 * @return the number of the record of the player
+	 * @throws IOException if the file cannot grow
+	 */
+	public synchronized int register(/*@ non_null */String name) throws IOException {
+		Integer result = index.get(name);
+		if (result == null) {
+			if (count == capacity) {
+				map(capacity * 2);
+			}
+			result = count;
+			byte[] bytes = name.getBytes(StandardCharsets.US_ASCII);
+			for (int i = 0; i < NAME_LENGTH; i++) {
+				buffer.put(offset(result) + i, i < bytes.length ? bytes[i] : 0);
+			}
+			write(result, Elo.INITIAL, 0, 0);
+			addToTree(bucket(Elo.INITIAL), 1);
+			count++;
+			buffer.putInt(4, count);
+			index.put(name, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Updates the ratings of the players of a finished game and writes them to the file.
+	 * Players without a record are registered first.
+	 * @param names the names of the players
+	 * @param scores the final scores, in the same order
+	 * @throws IOException if the file cannot grow
+	 */
+	/*
+	 *@ requires	names.length == scores.length && names.length > 1;
+	 */
+	public synchronized void recordGame(/*@ non_null */String[] names,
+					/*@ non_null */int[] scores) throws IOException {
+		double[] ratings = new double[names.length];
+		int[] games = new int[names.length];
+		int best = 0;
+		for (int i = 0; i < names.length; i++) {
+			register(names[i]);
+			ratings[i] = getRating(names[i]);
+			games[i] = getGames(names[i]);
+			best = Math.max(best, scores[i]);
+		}
+		double[] updated = Elo.update(ratings, games, scores);
+		for (int i = 0; i < names.length; i++) {
+			int record = index.get(names[i]);
+			addToTree(bucket(getRating(names[i])), -1);
+			addToTree(bucket(updated[i]), 1);
+			write(record, updated[i], getGames(names[i]) + 1,
+							getWins(names[i]) + (scores[i] == best ? 1 : 0));
+		}
+		buffer.force();
+	}
+
+	/**
+	 * Writes the rating, games and wins of a record.
+	 */
+	private void write(int record, double rating, int games, int wins) {
+		buffer.putDouble(offset(record) + NAME_LENGTH, rating);
+		buffer.putInt(offset(record) + NAME_LENGTH + 8, games);
+		buffer.putInt(offset(record) + NAME_LENGTH + 12, wins);
+	}
+
+	/**
+	 * Adds the given amount to the count of a bucket of the Fenwick tree.
+	 */
+	private void addToTree(int bucket, int amount) {
+		for (int i = bucket + 1; i <= BUCKETS; i += i & -i) {
+			tree[i] += amount;
+		}
+	}
+
+	/**
+	 * Maps the file into memory with room for the given amount of records,
+	 * growing the file if needed.
+	 */
+	private void map(int records) throws IOException {
+		capacity = records;
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, offset(records));
+	}
+
+	/**
+	 * Writes all changes to the file and closes it.
+	 */
+	public synchronized void close() throws IOException {
+		buffer.force();
+		channel.close();
+		file.close();
+	}
+}
@@ -1,27 +1,38 @@
 package network;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import exceptions.InvalidNameException;
+import util.Log;
+import util.Metrics;
 
 @SuppressWarnings("resource")
 public class Server {
 
 	private static final String USAGE = "When starting the Server '"
-							+ Server.class.getName() + "', please declare the <port>.";
+							+ Server.class.getName() + "', please declare the <port>,"
+							+ " optionally followed by a [metricsPort] and a [dumpInterval]"
+							+ " in seconds. The ratings of the players are kept in the file given"
+							+ " by the system property 'qwirkle.ratings', if it is set.";
 	/**
 	 * Runs the server, using the argument given on startup as the port the server will use.
+	 * If a second port is given, the metrics can be read on that port of the loopback address.
+	 * If an interval is given as well, the metrics are also printed every interval.
 	 * Prints a standard message if an error occurs
 	 * @param args
 	 */
 	public static void main(String[] args) {
-		if (args.length != 1) {
+		if (args.length < 1 || args.length > 3) {
 			System.out.println(USAGE);
 			System.exit(0);
 		}
@@ -29,19 +40,40 @@ public class Server {
 		Server server = null;
 		try {
 			server = new Server(Integer.parseInt(args[0]));
+			if (args.length > 1) {
+				Metrics.getDefault().serve(Integer.parseInt(args[1]));
+			}
+			if (args.length > 2) {
+				Metrics.getDefault().startDump(Integer.parseInt(args[2]) * 1000L, System.out);
+			}
 		} catch (NumberFormatException e) {
 			System.out.println("This is not a valid port number. Please only use numbers.");
+		} catch (IOException e) {
+			System.out.println("The metrics port could not be opened: " + e.getMessage());
+		}
+		String ratings = System.getProperty("qwirkle.ratings");
+		if (ratings != null) {
+			try {
+				server.setRatingStore(new RatingStore(new File(ratings)));
+			} catch (IOException e) {
+				System.out.println("The ratings could not be opened: " + e.getMessage());
+			}
 		}
 		server.run();
 	}
 	
+	private static final LongAdder CONNECTIONS = Metrics.getDefault().counter("connections.total");
+	private static final LongAdder GAMES = Metrics.getDefault().counter("games.started");
+	
 	// ----- Instance Variables -----
 	
 	private int port;
 	private List<NetworkPlayer> readyPlayers;
-	private List<GameHandler> threads;
+	private Map<Integer, GameHandler> games;
 	private boolean waiting;
 	private Timer waitingForPlayers;
+	private TimerTask startGameTask;
+	private RatingStore ratings;
 	
 	
 	// ---- Constructor: ----
@@ -51,11 +83,52 @@ public class Server {
 	 */
 	public Server(int portArg) {
 		port = portArg;
-		threads = new ArrayList<>();
+		games = new ConcurrentHashMap<>();
 		readyPlayers = new ArrayList<>();
+		waitingForPlayers = new Timer(true);
+	}
+	
+	// ---- Queries: ----
+	/**
+	 * Returns the running game with the given number, or the most recently started
+	 * running game if the number is 0.
+	 * @param gameID the number of the game, or 0
+	 * @return the game, or null if there is no such running game
+	 */
+	public GameHandler findGame(int gameID) {
+		GameHandler result = null;
+		if (gameID != 0) {
+			result = games.get(gameID);
+		} else {
+			for (GameHandler game: games.values()) {
+				if (!game.isFinished()
+								&& (result == null || game.getGameID() > result.getGameID())) {
+					result = game;
+				}
+			}
+		}
+		if (result != null && result.isFinished()) {
+			result = null;
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the store with the ratings of the players, or null if they are not kept.
+	 */
+	/*@ pure */public RatingStore getRatingStore() {
+		return ratings;
 	}
 	
 	// ---- Commands: ----
+	/**
+	 * Sets the store in which the ratings of the players are kept across games.
+	 * @param store the store, or null to not keep ratings
+	 */
+	public void setRatingStore(RatingStore store) {
+		ratings = store;
+	}
+	
 	/**
 	 * Creates the ServerSocket and waits for connections.
 	 * If a connection is established, a new NetworkPlayer is made to handle the connection.
@@ -65,14 +138,15 @@ public class Server {
 		try {
 			ServerSocket ssock = new ServerSocket(port);
 			while (true) {
-				print("Waiting for new Client.");
+				Log.debug("server", "Waiting for new Client.");
 				Socket sock = ssock.accept();
-				print("Received new connection: " + sock.getPort());
+				CONNECTIONS.increment();
+				Log.debug("server", "Received new connection: " + sock.getPort());
 				NetworkPlayer networkPlayer = new NetworkPlayer(this, sock);
 				new Thread(networkPlayer).start();
 			}
 		} catch (IOException e) {
-			System.err.println(e.getMessage());
+			Log.error("server", e.getMessage());
 		}
 	}
 
@@ -82,16 +156,16 @@ public class Server {
 	 * of ready Players is cleared.
 	 * @param player the player to add.
 	 */
-	public void setReady(NetworkPlayer player) {
+	public synchronized void setReady(NetworkPlayer player) {
 		readyPlayers.add(player);
 		if (readyPlayers.size() > 1 && !waiting) {
 			waiting = true;
-			waitingForPlayers = new Timer();
-			waitingForPlayers.schedule(new StartGameTask(this), 20000);
+			startGameTask = new StartGameTask(this);
+			waitingForPlayers.schedule(startGameTask, 20000);
 		}
 		if (readyPlayers.size() == 4) {
+			startGameTask.cancel();
 			createGame();
-			waitingForPlayers.cancel();
 		}
 	}
 	
@@ -99,11 +173,13 @@ public class Server {
 	 * Creates a game with the players from readyPlayers.
 	 * After the game is started, the readyPlayers list is emptied.
 	 */
-	public void createGame() {
-		GameHandler game = new GameHandler(readyPlayers);
+	public synchronized void createGame() {
+		GameHandler game = new GameHandler(readyPlayers, ratings);
 		game.start();
-		threads.add(game);
-		print("Created new game");
+		GAMES.increment();
+		games.values().removeIf(GameHandler::isFinished);
+		games.put(game.getGameID(), game);
+		print("Created new game " + game.getTag());
 		readyPlayers = new ArrayList<>();
 		waiting = false;
 	}
@@ -114,7 +190,7 @@ public class Server {
 	 * @param name the name to check
 	 * @return -1 or the ID.
 	 */
-	public int validName(String name) throws InvalidNameException {
+	public synchronized int validName(String name) throws InvalidNameException {
 		int result = -1;
 		if (!name.contains(" ") && name.length() < 17 && name.length() >= 1
 						&& name.matches("[a-zA-Z]+")) {
@@ -127,11 +203,11 @@ public class Server {
 	}
 	
 	/**
-	 * Prints the given message on the standard output.
+	 * Logs the given message, which ends up on the standard output.
 	 * @param message the message to print
 	 */
 	public void print(String message) {
-		System.out.println(message);
+		Log.info("server", message);
 	}
 	
 	/**
@@ -148,10 +224,15 @@ public class Server {
 		}
 		
 		/**
-		 * Calls the createGame() method to start a new Game.
+		 * Calls the createGame() method to start a new Game, unless a full game
+		 * has been started in the meantime.
 		 */
 		public void run() {
-			server.createGame();
+			synchronized (server) {
+				if (server.startGameTask == this && server.waiting) {
+					server.createGame();
+				}
+			}
 		}
 	}
 }
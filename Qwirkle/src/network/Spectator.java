@@ -0,0 +1,125 @@
+package network;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import util.Log;
+import util.Metrics;
+
+/**
+ * A connection that watches a game without playing in it. The messages for the spectator
+ * are put in a bounded queue and written to the socket by a thread of its own, so a slow
+ * connection never holds up the game or the other spectators. A spectator that falls so far
+ * behind that its queue is full is dropped.
+ */
+public class Spectator {
+
+	// ----- Constants -----
+	public static final int CAPACITY = 256;
+	private static final AtomicLong ACTIVE = Metrics.getDefault().gauge("spectators.active");
+	private static final LongAdder DROPPED = Metrics.getDefault().counter("spectators.dropped");
+	private static final String END = new String("END");
+
+	// ----- Instance Variables -----
+	private final NetworkPlayer connection;
+	private final BufferedWriter out;
+	private final BlockingQueue<String> queue;
+	private final Thread writer;
+	private volatile boolean closed;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new Spectator on the socket of the given connection and starts its writer.
+	 * @param connection the connection that asked to spectate, closed with the spectator
+	 * @param sock the socket of the connection
+	 * @throws IOException if the socket cannot be written to
+	 */
+	public Spectator(/*@ non_null */NetworkPlayer connection, /*@ non_null */Socket sock)
+					throws IOException {
+		this.connection = connection;
+		out = new BufferedWriter(new OutputStreamWriter(sock.getOutputStream()));
+		queue = new ArrayBlockingQueue<>(CAPACITY);
+		writer = new Thread(this::write, "spectator-" + sock.getPort());
+		writer.setDaemon(true);
+		ACTIVE.incrementAndGet();
+		writer.start();
+	}
+
+	// ----- Queries -----
+	/**
+	 * Tests if this Spectator has been closed or dropped.
+	 */
+	/*@ pure */public boolean isClosed() {
+		return closed;
+	}
+
+	// ----- Commands -----
+	/**
+	 * Queues a message for this Spectator without waiting. Drops the spectator if its
+	 * queue is full.
+	 * @param message the message
+	 * @return false if the spectator is closed or has been dropped
+	 */
+	public boolean offer(/*@ non_null */String message) {
+		boolean result = !closed;
+		if (result && !queue.offer(message)) {
+			DROPPED.increment();
+			Log.info(connection.getTag(), "Dropped a spectator that fell behind.");
+			close();
+			result = false;
+		}
+		return result;
+	}
+
+	/**
+	 * Closes this Spectator once the messages queued so far have been written.
+	 */
+	public void finish() {
+		if (!closed && !queue.offer(END)) {
+			close();
+		}
+	}
+
+	/**
+	 * Writes the queued messages to the socket, flushing whenever the queue is empty.
+	 */
+	private void write() {
+		try {
+			while (!closed) {
+				String message = queue.take();
+				if (message == END) {
+					out.flush();
+					close();
+				} else {
+					out.write(message);
+					out.newLine();
+					if (queue.isEmpty()) {
+						out.flush();
+					}
+				}
+			}
+		} catch (IOException e) {
+			close();
+		} catch (InterruptedException e) {
+			close();
+		}
+	}
+
+	/**
+	 * Stops the writer and closes the connection.
+	 */
+	public synchronized void close() {
+		if (!closed) {
+			closed = true;
+			ACTIVE.decrementAndGet();
+			writer.interrupt();
+			connection.shutDown();
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package network;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Passes the public messages of a game on to its spectators. The game thread only hands
+ * each message to the feed, which is a single append to an unbounded queue; a thread of the
+ * feed then offers it to every spectator. So the time a turn takes does not depend on the
+ * amount of spectators, and the messages and the admission of new spectators stay in the
+ * order in which the game produced them.
+ */
+public class SpectatorFeed {
+
+	// ----- Instance Variables -----
+	private final ExecutorService executor;
+	private final List<Spectator> spectators;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new SpectatorFeed with its own thread.
+	 * @param tag the tag of the game, used for the name of the thread
+	 */
+	public SpectatorFeed(/*@ non_null */String tag) {
+		executor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "spectators-" + tag);
+			thread.setDaemon(true);
+			return thread;
+		});
+		spectators = new ArrayList<>();
+	}
+
+	// ----- Commands -----
+	/**
+	 * Admits the given spectators, which first receive the snapshot of the game.
+	 * @param joining the new spectators
+	 * @param snapshot the lines that describe the game up to now
+	 */
+	public void admit(/*@ non_null */List<Spectator> joining,
+					/*@ non_null */List<String> snapshot) {
+		executor.execute(() -> {
+			for (Spectator spectator: joining) {
+				boolean open = true;
+				for (int i = 0; i < snapshot.size() && open; i++) {
+					open = spectator.offer(snapshot.get(i));
+				}
+				if (open) {
+					spectators.add(spectator);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Sends the given message to all spectators. Spectators that have fallen behind
+	 * are dropped.
+	 * @param message the message
+	 */
+	public void publish(/*@ non_null */String message) {
+		executor.execute(() -> spectators.removeIf(spectator -> !spectator.offer(message)));
+	}
+
+	/**
+	 * Closes all spectators once they have received every message, and stops the feed.
+	 */
+	public void shutDown() {
+		executor.execute(() -> {
+			for (Spectator spectator: spectators) {
+				spectator.finish();
+			}
+			spectators.clear();
+		});
+		executor.shutdown();
+	}
+}
@@ -2,9 +2,20 @@ package test;
 
 import org.junit.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import model.AsyncBoardListener;
 import model.Board;
+import model.BoardEvent;
+import model.BoardSnapshot;
 import model.Piece;
 import model.Place;
+import model.Trade;
 
 import static org.junit.Assert.*;
 
@@ -83,13 +94,63 @@ public class TestBoard {
 	
 	@Test
 	public void testBoardDimensions() {
-		assertTrue(board.getMinColumn() == 85);
-		assertTrue(board.getMinRow() == 86);
-		assertTrue(board.getMaxColumn() == 97);
-		assertTrue(board.getMaxRow() == 97);
-		assertTrue(board.getSize() == 183);
-		
-		assertTrue(board.getBoard().length == 183);
+		assertTrue(board.getMinColumn() == Board.ORIGIN);
+		assertTrue(board.getMinRow() == Board.ORIGIN);
+		assertTrue(board.getMaxColumn() == Board.ORIGIN);
+		assertTrue(board.getMaxRow() == Board.ORIGIN);
+		assertTrue(board.getChunkCount() == 0);
+		board.setPiece(91, 91, pieceGreenDiamond);
+		board.setPiece(91, 92, pieceGreenCircle);
+		assertTrue(board.getMinRow() == 90);
+		assertTrue(board.getMaxRow() == 92);
+		assertTrue(board.getMinColumn() == 90);
+		assertTrue(board.getMaxColumn() == 93);
+		board.setPiece(91, 92, null);
+		assertTrue(board.getMaxColumn() == 92);
+	}
+	
+	@Test
+	public void testCandidates() {
+		assertTrue(board.getCandidates().size() == 1);
+		board.setPiece(91, 91, pieceGreenDiamond);
+		board.setPiece(91, 92, pieceGreenCircle);
+		List<int[]> candidates = board.getCandidates();
+		assertTrue(candidates.size() == 6);
+		assertArrayEquals(new int[] {90, 91}, candidates.get(0));
+		assertArrayEquals(new int[] {92, 92}, candidates.get(5));
+		for (int[] cell: candidates) {
+			assertTrue(board.isEmpty(cell[0], cell[1]));
+		}
+		board.setPiece(91, 92, null);
+		assertTrue(board.getFrontierSize() == 4);
+		assertTrue(board.deepCopy().getFrontierSize() == 4);
+	}
+	
+	@Test
+	public void testUnboundedBoard() {
+		assertTrue(board.isField(-500, 1000));
+		board.setPiece(-500, 1000, pieceGreenDiamond);
+		assertEquals(pieceGreenDiamond, board.getCell(-500, 1000));
+		assertTrue(board.getMinRow() == -501);
+		assertTrue(board.getMaxColumn() == 1001);
+		board.setPiece(Board.ORIGIN, Board.ORIGIN, pieceGreenCircle);
+		board.setPiece(Board.ORIGIN, Board.ORIGIN + 1, pieceGreenSpade);
+		assertTrue(board.getChunkCount() == 2);
+		assertTrue(board.isEmpty(-499, 1000));
+		Board copy = board.deepCopy();
+		assertEquals(board.getHash(), copy.getHash());
+		assertEquals(pieceGreenDiamond, copy.getCell(-500, 1000));
+		board.apply(new Place[] {new Place(pieceGreenDiamond, Board.ORIGIN, Board.ORIGIN - 1)}, 1);
+		assertEquals(3, board.getScore(1));
+		long version = board.getSnapshot().getVersion();
+		board.reset();
+		assertTrue(board.getChunkCount() == 0);
+		assertTrue(board.isEmpty(-500, 1000));
+		assertEquals(0, board.getScore(1));
+		assertEquals(0, board.getUndoDepth());
+		assertTrue(board.getSnapshot().getVersion() > version);
+		assertEquals(0, board.getSnapshot().getPieceCount());
+		assertEquals(0, board.getSnapshot().getScore(1));
 	}
 	
 	@Test
@@ -149,4 +210,172 @@ public class TestBoard {
 		board.setPiece(92, 92, pieceGreenSpade);
 		assertTrue("Score equals 4", board.getScore(places) == 4);
 	}
+	
+	// ----- Events -----
+	
+	@Test
+	public void testEvents() {
+		List<List<BoardEvent>> batches = new ArrayList<>();
+		board.setPiece(90, 90, pieceGreenHeart);
+		board.addListener((b, events) -> batches.add(events));
+		board.setPiece(91, 91, pieceGreenDiamond);
+		board.addScore(1, 2);
+		board.draw();
+		assertTrue("No batch before the turn ends", batches.isEmpty());
+		board.endTurn();
+		assertEquals(1, batches.size());
+		List<BoardEvent> events = batches.get(0);
+		assertEquals(4, events.size());
+		assertEquals(BoardEvent.Type.TILE_PLACED, events.get(0).getType());
+		assertEquals(91, events.get(0).getRow());
+		assertEquals(pieceGreenDiamond, events.get(0).getPiece());
+		assertEquals(BoardEvent.Type.SCORE_CHANGED, events.get(1).getType());
+		assertEquals(1, events.get(1).getPlayerID());
+		assertEquals(2, events.get(1).getValue());
+		assertEquals(BoardEvent.Type.STACK_CHANGED, events.get(2).getType());
+		assertEquals(107, events.get(2).getValue());
+		assertEquals(BoardEvent.Type.TURN_ENDED, events.get(3).getType());
+		board.endTurn();
+		assertEquals(1, batches.get(1).size());
+	}
+	
+	@Test
+	public void testAsyncListener() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch delivered = new CountDownLatch(3);
+		List<Integer> rows = Collections.synchronizedList(new ArrayList<>());
+		List<String> threads = Collections.synchronizedList(new ArrayList<>());
+		AsyncBoardListener async = new AsyncBoardListener((b, events) -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			assertSame(board, b);
+			rows.add(events.get(0).getRow());
+			threads.add(Thread.currentThread().getName());
+			delivered.countDown();
+		}, "AsyncTest");
+		board.addListener(async);
+		for (int row = 90; row < 93; row++) {
+			board.setPiece(row, 91, pieceGreenDiamond);
+			board.endTurn();
+		}
+		// The target is still waiting on the first batch, so the turns ended without it.
+		assertTrue("Nothing delivered yet", rows.isEmpty());
+		assertTrue("Batches are queued", async.getBacklog() >= 2);
+		release.countDown();
+		assertTrue(delivered.await(5, TimeUnit.SECONDS));
+		assertEquals(Arrays.asList(90, 91, 92), rows);
+		for (String name: threads) {
+			assertEquals("AsyncTest", name);
+		}
+		async.close();
+	}
+	
+	@Test
+	public void testApplyAndUndo() {
+		board.setPiece(91, 91, pieceGreenDiamond);
+		List<Piece> stack = new ArrayList<>(board.getStack());
+		long hash = board.getHash();
+		Place[] places = new Place[]{new Place(pieceGreenCircle, 91, 92),
+										new Place(pieceGreenSpade, 91, 93)};
+		Piece[] drawn = board.apply(places, 1);
+		assertEquals(2, drawn.length);
+		assertEquals(106, board.getStackSize());
+		assertEquals(3, board.getScore(1));
+		assertEquals(pieceGreenSpade, board.getCell(91, 93));
+		Trade[] trade = new Trade[]{new Trade(drawn[0]), new Trade(drawn[1])};
+		assertEquals(2, board.apply(trade, 1).length);
+		assertEquals(106, board.getStackSize());
+		assertEquals(2, board.getUndoDepth());
+		assertArrayEquals(trade, board.undo());
+		assertArrayEquals(places, board.undo());
+		assertEquals(0, board.getUndoDepth());
+		assertEquals(0, board.getScore(1));
+		assertTrue(board.isEmpty(91, 92));
+		assertEquals(hash, board.getHash());
+		assertEquals(stack, board.getStack());
+	}
+	
+	@Test
+	public void testFits() {
+		Piece redDiamond = new Piece(Piece.Color.RED, Piece.Shape.DIAMOND);
+		board.setPiece(91, 91, pieceGreenDiamond);
+		board.setPiece(91, 92, pieceGreenSpade);
+		assertTrue(board.fits(91, 93, pieceGreenCircle));
+		assertTrue(board.fits(91, 90, pieceGreenCircle));
+		assertFalse(board.fits(91, 93, pieceGreenDiamond));
+		assertFalse(board.fits(91, 93, redDiamond));
+		assertTrue(board.fits(92, 91, redDiamond));
+		// Joining two segments that share a shape.
+		board.setPiece(91, 94, new Piece(Piece.Color.GREEN, Piece.Shape.CIRCLE));
+		assertFalse(board.fits(91, 93, pieceGreenCircle));
+		assertTrue(board.fits(91, 93, new Piece(Piece.Color.GREEN, Piece.Shape.HEART)));
+		// The segments are split again when a piece is removed, also on a copy.
+		Board copy = board.deepCopy();
+		copy.setPiece(91, 92, null);
+		assertTrue(copy.fits(91, 90, pieceGreenSpade));
+		assertFalse(copy.fits(91, 92, pieceGreenDiamond));
+		assertTrue(copy.fits(91, 93, pieceGreenSpade));
+		assertFalse(board.fits(91, 90, pieceGreenSpade));
+	}
+	
+	@Test
+	public void testDeadCells() {
+		// Only a green heart fits both the green row and the column of the red heart.
+		board.setPiece(91, 91, new Piece(Piece.Color.RED, Piece.Shape.SQUARE));
+		board.setPiece(92, 90, pieceGreenDiamond);
+		board.setPiece(92, 91, new Piece(Piece.Color.GREEN, Piece.Shape.SQUARE));
+		board.setPiece(91, 92, new Piece(Piece.Color.RED, Piece.Shape.HEART));
+		assertFalse(board.isDead(92, 92));
+		Piece greenHeart = new Piece(Piece.Color.GREEN, Piece.Shape.HEART);
+		board.setPiece(50, 50, greenHeart);
+		board.setPiece(50, 52, new Piece(Piece.Color.GREEN, Piece.Shape.HEART));
+		assertFalse(board.isDead(92, 92));
+		board.setPiece(50, 54, new Piece(Piece.Color.GREEN, Piece.Shape.HEART));
+		assertTrue(board.isDead(92, 92));
+		for (int[] cell: board.getCandidates()) {
+			assertFalse(cell[0] == 92 && cell[1] == 92);
+		}
+		assertEquals(board.getFrontierSize() - board.getDeadCount(), board.getCandidates().size());
+		assertTrue(board.deepCopy().isDead(92, 92));
+		// A red circle above the red heart leaves no shape in common with the green row.
+		board.setPiece(50, 54, null);
+		board.setPiece(90, 92, new Piece(Piece.Color.RED, Piece.Shape.CIRCLE));
+		assertTrue(board.isDead(92, 92));
+		board.setPiece(90, 92, null);
+		assertFalse(board.isDead(92, 92));
+		board.setPiece(92, 92, greenHeart);
+		assertFalse(board.isDead(92, 92));
+	}
+	
+	@Test
+	public void testSnapshot() {
+		BoardSnapshot first = board.getSnapshot();
+		assertEquals(0, first.getVersion());
+		assertEquals(108, first.getStackSize());
+		board.setPiece(91, 91, pieceGreenDiamond);
+		board.addScore(1, 1);
+		board.endTurn();
+		BoardSnapshot second = board.getSnapshot();
+		assertTrue(second.getVersion() > first.getVersion());
+		assertTrue(first.isEmpty(91, 91));
+		assertEquals(pieceGreenDiamond, second.getCell(91, 91));
+		assertEquals(1, second.getScore(1));
+		// Changes after the turn do not reach the published snapshot.
+		board.setPiece(91, 91, null);
+		board.setPiece(91, 92, pieceGreenSpade);
+		board.addScore(1, 2);
+		assertEquals(pieceGreenDiamond, second.getCell(91, 91));
+		assertTrue(second.isEmpty(91, 92));
+		assertEquals(1, second.getScore(1));
+		assertEquals(1, second.getPieceCount());
+		assertEquals(90, second.getMinRow());
+		assertEquals(92, second.getMaxColumn());
+		assertSame(second, board.deepCopy().getSnapshot());
+		board.endTurn();
+		assertEquals(pieceGreenSpade, board.getSnapshot().getCell(91, 92));
+		assertTrue(board.getSnapshot().isEmpty(91, 91));
+	}
 }
@@ -0,0 +1,97 @@
+package test;
+
+import org.junit.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import ansi.AnsiTUI;
+import model.Board;
+import model.Piece;
+import view.TextBoardRenderer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the class BoardRenderer. Testing full and incremental rendering.
+ */
+public class TestBoardRenderer {
+
+	private Board board;
+	private TextBoardRenderer renderer;
+	private ByteArrayOutputStream bytes;
+	private PrintStream out;
+
+	@Before
+	public void setUp() {
+		board = new Board();
+		renderer = new TextBoardRenderer();
+		bytes = new ByteArrayOutputStream();
+		out = new PrintStream(bytes);
+	}
+
+	private String render(String footer) {
+		bytes.reset();
+		renderer.render(board, footer, out);
+		return bytes.toString();
+	}
+
+	@Test
+	public void testFullRender() {
+		board.setPiece(91, 91, new Piece(Piece.Color.RED, Piece.Shape.CIRCLE));
+		String[] lines = render("Scores:").split(System.lineSeparator());
+		assertEquals(board.getMaxRow() - board.getMinRow() + 3, lines.length);
+		assertTrue(lines[91 - board.getMinRow() + 1].startsWith(" 91|   "));
+		assertTrue(lines[91 - board.getMinRow() + 1].contains("| Ro|"));
+		assertEquals("Scores:", lines[lines.length - 1]);
+		assertEquals(render("Scores:"), render("Scores:"));
+	}
+
+	@Test
+	public void testIncrementalRender() {
+		renderer.setIncremental(true);
+		board.setPiece(91, 91, new Piece(Piece.Color.RED, Piece.Shape.CIRCLE));
+		assertTrue(render(null).startsWith("\u001B[H\u001B[2J"));
+		board.setPiece(91, 92, new Piece(Piece.Color.RED, Piece.Shape.SQUARE));
+		int line = 91 - renderer.getFrameMinRow() + 2;
+		int column = (92 - renderer.getFrameMinColumn()) * 4 + 6;
+		int below = renderer.getFrameRows() + 2;
+		assertEquals("\u001B[" + line + ";" + column + "HRs\u001B[" + below + ";1H\u001B[J",
+						render(null));
+		assertEquals("\u001B[" + below + ";1H\u001B[J", render(null));
+	}
+
+	@Test
+	public void testTrackedRender() {
+		renderer.setIncremental(true);
+		renderer.setTracking(true);
+		render(null);
+		board.setPiece(91, 91, new Piece(Piece.Color.RED, Piece.Shape.CIRCLE));
+		board.setPiece(90, 91, new Piece(Piece.Color.BLUE, Piece.Shape.CIRCLE));
+		renderer.markDirty(91, 91);
+		String output = render(null);
+		assertTrue(output.contains("Ro"));
+		assertFalse(output.contains("Bo"));
+	}
+
+	@Test
+	public void testAnsiTUIRendersChanges() {
+		new AnsiTUI(board, 2);
+		PrintStream console = System.out;
+		System.setOut(out);
+		try {
+			board.setPiece(91, 91, new Piece(Piece.Color.RED, Piece.Shape.CIRCLE));
+			board.endTurn();
+			assertTrue(bytes.toString().startsWith("\u001B[H\u001B[2J"));
+			bytes.reset();
+			board.setPiece(91, 92, new Piece(Piece.Color.RED, Piece.Shape.SQUARE));
+			board.endTurn();
+			String output = bytes.toString();
+			assertFalse(output.contains("\u001B[2J"));
+			assertFalse(output.contains("Ro"));
+			assertTrue(output.endsWith("\u001B[J"));
+		} finally {
+			System.setOut(console);
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package test;
+
+import org.junit.*;
+
+import model.Board;
+import model.ClientBoard;
+import model.Piece;
+import model.Place;
+import model.UnseenTiles;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the class ClientBoard. Testing the stack count and the unseen pieces.
+ */
+public class TestClientBoard {
+
+	private ClientBoard board;
+	private Piece redCircle;
+
+	@Before
+	public void setUp() {
+		board = new ClientBoard();
+		redCircle = new Piece(Piece.Color.RED, Piece.Shape.CIRCLE);
+	}
+
+	@Test
+	public void testStack() {
+		assertEquals(108, board.getStackSize());
+		assertTrue(board.getStack().isEmpty());
+		assertNull(board.draw());
+		assertEquals(107, board.getStackSize());
+		board.returnToStack(6);
+		assertEquals(113, board.getStackSize());
+		for (int i = 0; i < 113; i++) {
+			board.draw();
+		}
+		assertTrue(board.emptyStack());
+	}
+
+	@Test
+	public void testUnseen() {
+		UnseenTiles unseen = board.getUnseenTiles();
+		assertEquals(3, unseen.getCount(redCircle));
+		board.setPiece(91, 91, redCircle);
+		assertEquals(2, unseen.getCount(redCircle));
+		assertEquals(107, unseen.getTotal());
+	}
+
+	@Test
+	public void testUndo() {
+		UnseenTiles unseen = board.getUnseenTiles();
+		board.apply(new Place[] {new Place(redCircle, 91, 91)}, 0);
+		assertEquals(2, unseen.getCount(redCircle));
+		assertEquals(107, board.getStackSize());
+		board.undo();
+		assertEquals(3, unseen.getCount(redCircle));
+		assertEquals(108, unseen.getTotal());
+		assertEquals(108, board.getStackSize());
+		assertTrue(board.isEmpty(91, 91));
+	}
+
+	@Test
+	public void testCodes() {
+		for (int i = 0; i < Piece.CODES; i++) {
+			assertEquals(i, Piece.fromCode(i).getCode());
+		}
+	}
+
+	@Test
+	public void testDeepCopy() {
+		board.setPiece(91, 91, redCircle);
+		Board copy = board.deepCopy();
+		assertSame(redCircle, copy.getCell(91, 91));
+		assertEquals(board.getMinRow(), copy.getMinRow());
+		assertEquals(board.getMaxColumn(), copy.getMaxColumn());
+		assertEquals(108, copy.getStackSize());
+		assertEquals(board.getHash(), copy.getHash());
+		UnseenTiles unseen = ((ClientBoard) copy).getUnseenTiles();
+		assertNotSame(board.getUnseenTiles(), unseen);
+		assertEquals(2, unseen.getCount(redCircle));
+		copy.setPiece(91, 92, new Piece(Piece.Color.RED, Piece.Shape.SQUARE));
+		assertEquals(107, board.getUnseenTiles().getTotal());
+		assertEquals(106, unseen.getTotal());
+	}
+}
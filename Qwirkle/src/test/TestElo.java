@@ -0,0 +1,25 @@
+package test;
+
+import org.junit.*;
+
+import util.Elo;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the class Elo. Testing the update of the ratings after a game.
+ */
+
+public class TestElo {
+
+	/**
+	 * A new player who wins from another new player gains half of the largest K-factor.
+	 */
+	@Test
+	public void testUpdate() {
+		double[] ratings = Elo.update(new double[] {Elo.INITIAL, Elo.INITIAL},
+						new int[] {0, 0}, new int[] {10, 5});
+		assertEquals(Elo.INITIAL + Elo.MAX_K / 2, ratings[0], 1e-6);
+		assertEquals(Elo.INITIAL - Elo.MAX_K / 2, ratings[1], 1e-6);
+	}
+}
@@ -0,0 +1,74 @@
+package test;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.Board;
+import model.Evaluator;
+import model.Piece;
+import model.Place;
+import model.UnseenTiles;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the class Evaluator. Testing the lines of five counted by the board and the features.
+ */
+public class TestEvaluator {
+
+	private Board board;
+	private Place[] five;
+	private Piece greenCircle;
+
+	@Before
+	public void setUp() {
+		board = new Board();
+		five = new Place[5];
+		for (int shape = 0; shape < 5; shape++) {
+			five[shape] = new Place(new Piece(Piece.Color.GREEN, Piece.Shape.values()[shape]),
+							91, 91 + shape);
+		}
+		greenCircle = new Piece(Piece.Color.GREEN, Piece.Shape.CIRCLE);
+	}
+
+	@Test
+	public void testOpenFives() {
+		board.apply(new Place[] {five[0], five[1], five[2], five[3]}, 0);
+		assertEquals(0, board.getOpenFives());
+		board.apply(new Place[] {five[4]}, 0);
+		assertEquals(1, board.getOpenFives());
+		assertEquals(1, board.getOpenFives(greenCircle.getCode()));
+		Board copy = board.deepCopy();
+		// Completing the line closes it.
+		board.apply(new Place[] {new Place(greenCircle, 91, 96)}, 0);
+		assertEquals(0, board.getOpenFives());
+		board.undo();
+		assertEquals(1, board.getOpenFives(greenCircle.getCode()));
+		board.undo();
+		assertEquals(0, board.getOpenFives());
+		assertEquals(1, copy.getOpenFives());
+	}
+
+	@Test
+	public void testFeatures() {
+		board.apply(five, 0);
+		List<Piece> hand = new ArrayList<>();
+		hand.add(greenCircle);
+		Piece red = new Piece(Piece.Color.RED, Piece.Shape.DIAMOND);
+		hand.add(red);
+		Place[] move = new Place[] {new Place(red, 92, 91)};
+		long leave = Evaluator.leaveOf(hand, move);
+		assertEquals(1L << greenCircle.getCode(), leave);
+		UnseenTiles unseen = new UnseenTiles();
+		double[] features = new double[Evaluator.FEATURES];
+		Evaluator.features(board, 2, leave, 1, unseen, features);
+		assertEquals(2, features[Evaluator.SCORE], 0);
+		assertEquals(1, features[Evaluator.COMPLETIONS], 0);
+		assertEquals(6.0 * 3 / 108, features[Evaluator.THREATS], 1e-9);
+		assertEquals(0, features[Evaluator.LEAVE_DOUBLES], 0);
+		Evaluator evaluator = new Evaluator(new double[] {1, 0, 0, 0, 0});
+		assertEquals(2, evaluator.evaluate(board, 2, leave, 1, unseen), 0);
+	}
+}
@@ -73,6 +73,29 @@ public class TestGame {
 		//assertTrue()
 	}
 	
+	/**
+	 * Checks if the opening table ignores duplicates and finds lines of one shape.
+	 */
+	@Test
+	public void testOpening() {
+		Piece blueCircle = new Piece(Piece.Color.BLUE, Piece.Shape.CIRCLE);
+		player1.receive(new Piece(Piece.Color.RED, Piece.Shape.SQUARE));
+		player1.receive(new Piece(Piece.Color.RED, Piece.Shape.SQUARE));
+		player1.receive(new Piece(Piece.Color.RED, Piece.Shape.CIRCLE));
+		player1.receive(blueCircle);
+		player1.receive(new Piece(Piece.Color.GREEN, Piece.Shape.CIRCLE));
+		assertTrue(game.findMaxScore(player1.getHand()) == 3);
+		Place[] opening = OpeningTable.findOpening(player1.getHand(), 91, 91);
+		assertTrue(opening.length == 3);
+		assertTrue(opening[2].getColumn() == 93);
+		boolean usesHandPiece = false;
+		for (Place place: opening) {
+			assertTrue(place.getPiece().getShape() == Piece.Shape.CIRCLE);
+			usesHandPiece = usesHandPiece || place.getPiece() == blueCircle;
+		}
+		assertTrue(usesHandPiece);
+	}
+	
 	/**
 	 * Checks if getScore gives the bonus for finishing a row.
 	 */
@@ -0,0 +1,49 @@
+package test;
+
+import org.junit.*;
+
+import util.Histogram;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the class Histogram. Testing the buckets and the percentiles.
+ */
+
+public class TestHistogram {
+
+	private Histogram histogram;
+
+	@Before
+	public void setUp() {
+		histogram = new Histogram();
+	}
+
+	/**
+	 * Small values have their own bucket, larger values are kept within 1/16.
+	 */
+	@Test
+	public void testBuckets() {
+		for (long value = 0; value < 100000; value += 7) {
+			long upper = Histogram.upperBound(Histogram.bucketOf(value));
+			assertTrue("Upper bound above value", upper >= value);
+			assertTrue("Relative error", upper - value <= value / 16);
+		}
+		assertEquals(5, Histogram.upperBound(Histogram.bucketOf(5)));
+		assertTrue(Histogram.bucketOf(Long.MAX_VALUE) > Histogram.bucketOf(1L << 40));
+	}
+
+	@Test
+	public void testPercentiles() {
+		assertEquals(0, histogram.getPercentile(50));
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(i * 1000);
+		}
+		assertEquals(100, histogram.getCount());
+		assertEquals(100000, histogram.getMax());
+		assertEquals(50500, histogram.getMean(), 0.001);
+		long median = histogram.getPercentile(50);
+		assertTrue(median >= 50000 && median <= 50000 + 50000 / 16);
+		assertEquals(100000, histogram.getPercentile(100));
+	}
+}
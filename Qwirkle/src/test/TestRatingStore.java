@@ -0,0 +1,64 @@
+package test;
+
+import org.junit.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import network.RatingStore;
+import util.Elo;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the class RatingStore. Testing ratings, ranks, growing and reopening the file.
+ */
+public class TestRatingStore {
+
+	private File file;
+	private RatingStore store;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("ratings", ".dat");
+		file.delete();
+		store = new RatingStore(file);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		store.close();
+		file.delete();
+	}
+
+	@Test
+	public void testRecordGame() throws IOException {
+		store.register("Tycho");
+		assertEquals(Elo.INITIAL, store.getRating("Tycho"), 1e-9);
+		assertEquals(Elo.INITIAL, store.getRating("Nobody"), 1e-9);
+		store.recordGame(new String[] {"Tycho", "Jeroen"}, new int[] {80, 60});
+		assertEquals(2, store.size());
+		assertTrue(store.getRating("Tycho") > store.getRating("Jeroen"));
+		assertEquals(1, store.getWins("Tycho"));
+		assertEquals(1, store.getGames("Jeroen"));
+		assertEquals(1, store.getRank("Tycho"));
+		assertEquals(2, store.getRank("Jeroen"));
+		assertEquals("Tycho", store.getLeaderboard(1).get(0));
+	}
+
+	@Test
+	public void testReopen() throws IOException {
+		for (int i = 0; i < 1500; i++) {
+			store.register("player" + (char) ('a' + i % 26) + (char) ('a' + i / 26 % 26)
+							+ (char) ('a' + i / 676));
+		}
+		store.recordGame(new String[] {"Tycho", "Jeroen"}, new int[] {50, 70});
+		double rating = store.getRating("Jeroen");
+		store.close();
+		store = new RatingStore(file);
+		assertEquals(1502, store.size());
+		assertEquals(rating, store.getRating("Jeroen"), 1e-9);
+		assertEquals(1, store.getRank("Jeroen"));
+		assertEquals(1502, store.getRank("Tycho"));
+	}
+}
@@ -0,0 +1,176 @@
+package test;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import exceptions.InvalidMoveException;
+import model.Board;
+import model.ComputerPlayer;
+import model.HintService;
+import model.Move;
+import model.MoveGenerator;
+import model.Piece;
+import model.Place;
+import model.SearchStrategy;
+import model.TranspositionTable;
+import model.UnseenTiles;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the Zobrist hash, the TranspositionTable, the MoveGenerator, the SearchStrategy,
+ * the HintService and the Ponderer.
+ */
+public class TestSearch {
+
+	private Board board;
+	private Piece redCircle;
+	private Piece redSquare;
+	private Piece blueCircle;
+
+	@Before
+	public void setUp() {
+		board = new Board();
+		redCircle = new Piece(Piece.Color.RED, Piece.Shape.CIRCLE);
+		redSquare = new Piece(Piece.Color.RED, Piece.Shape.SQUARE);
+		blueCircle = new Piece(Piece.Color.BLUE, Piece.Shape.CIRCLE);
+	}
+
+	@Test
+	public void testHash() {
+		assertEquals(0, board.getHash());
+		board.setPiece(91, 91, redCircle);
+		board.setPiece(91, 92, redSquare);
+		Board other = new Board();
+		other.setPiece(91, 92, redSquare);
+		other.setPiece(91, 91, redCircle);
+		assertEquals(board.getHash(), other.getHash());
+		assertEquals(board.getHash(), board.deepCopy().getHash());
+		other.setPiece(91, 91, blueCircle);
+		assertNotEquals(board.getHash(), other.getHash());
+		board.setPiece(91, 91, null);
+		board.setPiece(91, 92, null);
+		assertEquals(0, board.getHash());
+	}
+
+	@Test
+	public void testTable() {
+		TranspositionTable table = new TranspositionTable(4);
+		table.put(1, 2, 10, null);
+		assertNull(table.get(1, 3));
+		assertEquals(10, table.get(1, 2).getScore());
+		table.put(5, 1, 20, null);
+		assertEquals("Shallower entry does not replace", 10, table.get(1, 1).getScore());
+		table.newSearch();
+		table.put(5, 1, 20, null);
+		assertNull("Entry of an older search is replaced", table.get(1, 1));
+		assertEquals(20, table.get(5, 1).getScore());
+	}
+
+	@Test
+	public void testGeneratedMovesAreValid() throws InvalidMoveException {
+		board.setPiece(91, 91, redCircle);
+		board.setPiece(91, 92, redSquare);
+		ComputerPlayer player = new ComputerPlayer("bot", 0, "Search", 100);
+		List<Piece> hand = new ArrayList<>();
+		hand.add(new Piece(Piece.Color.RED, Piece.Shape.DIAMOND));
+		hand.add(new Piece(Piece.Color.RED, Piece.Shape.HEART));
+		hand.add(new Piece(Piece.Color.GREEN, Piece.Shape.CIRCLE));
+		hand.add(new Piece(Piece.Color.RED, Piece.Shape.CIRCLE));
+		for (Piece piece: hand) {
+			player.receive(piece);
+		}
+		List<Place[]> moves = new MoveGenerator(board.deepCopy()).generate(hand);
+		int longest = 0;
+		for (Place[] move: moves) {
+			assertTrue(board.validMove(move, player));
+			longest = Math.max(longest, move.length);
+		}
+		assertEquals(3, longest);
+		assertFalse(moves.isEmpty());
+	}
+
+	@Test
+	public void testSearchPlaysValidGame() throws InvalidMoveException {
+		ComputerPlayer player = new ComputerPlayer("bot", 0, "Search", 50);
+		for (int i = 0; i < 6; i++) {
+			player.receive(board.draw());
+		}
+		Place[] move = (Place[]) player.determineFirstMove(board);
+		for (int turn = 0; turn < 10; turn++) {
+			if (move[0] != null) {
+				assertTrue(board.validMove(move, player));
+				for (Place place: move) {
+					board.setPiece(place.getRow(), place.getColumn(), place.getPiece());
+					player.remove(place.getPiece());
+					player.receive(board.draw());
+				}
+			}
+			move = new SearchStrategy(50).findMove(player.getHand(), board);
+		}
+	}
+
+	@Test
+	public void testEndgame() throws InvalidMoveException {
+		while (!board.emptyStack()) {
+			board.draw();
+		}
+		board.setPiece(91, 91, redCircle);
+		ComputerPlayer player = new ComputerPlayer("bot", 0, "Endgame", 1000);
+		UnseenTiles unseen = new UnseenTiles();
+		unseen.see(redCircle);
+		player.setUnseenTiles(unseen);
+		player.receive(redSquare);
+		player.receive(new Piece(Piece.Color.RED, Piece.Shape.DIAMOND));
+		for (int code = 0; code < Piece.CODES; code++) {
+			int count = unseen.getCount(Piece.fromCode(code));
+			for (int i = 0; i < count && unseen.getTotal() > 2; i++) {
+				unseen.see(Piece.fromCode(code));
+			}
+		}
+		Move[] move = player.determineMove(board);
+		assertTrue(board.validMove(move, player));
+		assertEquals("Empties the hand for the bonus", 2, move.length);
+	}
+
+	@Test
+	public void testHints() {
+		board.setPiece(91, 91, redCircle);
+		List<Piece> hand = new ArrayList<>();
+		hand.add(redSquare);
+		hand.add(blueCircle);
+		hand.add(new Piece(Piece.Color.RED, Piece.Shape.DIAMOND));
+		HintService service = new HintService("test", 2);
+		service.prepare(board, hand);
+		List<HintService.Hint> hints = service.getHints(board, hand);
+		assertEquals(2, hints.size());
+		assertEquals(4, hints.get(0).getScore());
+		assertTrue(hints.get(0).getScore() >= hints.get(1).getScore());
+		assertSame(hints, service.getHints(board, hand));
+		board.setPiece(91, 92, redSquare);
+		hand.remove(redSquare);
+		assertNotSame(hints, service.getHints(board, hand));
+		service.shutDown();
+	}
+
+	@Test
+	public void testPonder() throws InvalidMoveException {
+		board.setPiece(91, 91, redCircle);
+		ComputerPlayer player = new ComputerPlayer("bot", 0, "Search", 50);
+		player.setPondering(true);
+		player.receive(redSquare);
+		player.receive(blueCircle);
+		player.ponder(board);
+		Move[] move = player.determineMove(board);
+		assertTrue(board.validMove(move, player));
+		assertEquals(1, player.getPonderer().getHits());
+		player.ponder(board);
+		board.setPiece(92, 91, new Piece(Piece.Color.GREEN, Piece.Shape.CIRCLE));
+		move = player.determineMove(board);
+		assertTrue(board.validMove(move, player));
+		assertEquals(2, player.getPonderer().getHits() + player.getPonderer().getMisses());
+		player.setPondering(false);
+	}
+}
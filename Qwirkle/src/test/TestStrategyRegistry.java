@@ -0,0 +1,102 @@
+package test;
+
+import org.junit.*;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+import model.Board;
+import model.LocalPlayer;
+import model.Piece;
+import model.Place;
+import model.SearchStrategy;
+import model.Strategy;
+import model.StrategyConfig;
+import model.StrategyProvider;
+import model.StrategyRegistry;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the class StrategyRegistry. Testing the built-in strategies, the parameters and
+ * providers that are added.
+ */
+public class TestStrategyRegistry {
+
+	/**
+	 * A strategy that never places a piece, for a provider outside the built-in ones.
+	 */
+	public static class PassProvider implements StrategyProvider {
+
+		public String getName() {
+			return "Pass";
+		}
+
+		public String getDescription() {
+			return "Passing Computer player";
+		}
+
+		public Set<Capability> getCapabilities() {
+			return EnumSet.of(Capability.SEARCH_DEPTH);
+		}
+
+		public Strategy create(LocalPlayer player, StrategyConfig config) {
+			return (HashSet<Piece> hand, Board board) -> new Place[1];
+		}
+	}
+
+	private StrategyRegistry registry;
+	private StrategyConfig defaults;
+
+	@Before
+	public void setUp() {
+		registry = StrategyRegistry.getDefault();
+		defaults = new StrategyConfig(100);
+	}
+
+	@Test
+	public void testBuiltins() {
+		assertEquals("Random", registry.getProviders().get(0).getName());
+		assertEquals("Endgame", registry.get("endgame:500").getName());
+		assertNull(registry.get("Nothing"));
+		assertTrue(registry.get("Search").getCapabilities()
+						.contains(StrategyProvider.Capability.SEARCH_DEPTH));
+		assertEquals(SearchStrategy.MAX_DEPTH, defaults.getDepth());
+	}
+
+	@Test
+	public void testParse() {
+		assertEquals(500, registry.parse("Search:500", defaults).getTimeToThink());
+		StrategyConfig config = registry.parse("Search:time=200,depth=2", defaults);
+		assertEquals(200, config.getTimeToThink());
+		assertEquals(2, config.getDepth());
+		assertEquals(defaults.getDepth(), registry.parse("Random", defaults).getDepth());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnusedParameter() {
+		registry.parse("Random:depth=2", defaults);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownParameter() {
+		registry.parse("Search:threads=4", defaults);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownStrategy() {
+		registry.parse("Nothing:100", defaults);
+	}
+
+	@Test
+	public void testExtraProvider() {
+		StrategyRegistry extended = new StrategyRegistry(
+						Collections.singletonList(new PassProvider()));
+		assertEquals(registry.getProviders().size() + 1, extended.getProviders().size());
+		assertEquals(5, extended.parse("Pass:depth=5", defaults).getDepth());
+		assertNull(extended.create("Pass", null, defaults).findMove(new HashSet<>(),
+						new Board())[0]);
+	}
+}
@@ -0,0 +1,37 @@
+package test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.*;
+
+import controller.Tournament;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the class Tournament. Testing the pairing and the standings.
+ */
+
+public class TestTournament {
+
+	/**
+	 * Checks if a round robin Tournament plays every pair and rates the players.
+	 */
+	@Test
+	public void testRoundRobin() {
+		List<String> entries = Arrays.asList("Random:5", "RandomWithScore:5", "Search:5");
+		Tournament tournament = new Tournament(entries, 5, Tournament.Pairing.ROUND_ROBIN, 2, 1,
+						new ForkJoinPool(2), new PrintStream(new ByteArrayOutputStream()));
+		tournament.run();
+		double previous = Double.MAX_VALUE;
+		for (Tournament.Standing standing: tournament.getStandings()) {
+			assertEquals(2, standing.getGames());
+			assertTrue(standing.getRating() <= previous);
+			previous = standing.getRating();
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package test;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import model.Move;
+import model.Piece;
+import model.Place;
+import model.Trade;
+import model.TradePlanner;
+import model.UnseenTiles;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the class TradePlanner. Testing the choice of pieces and of trading or placing.
+ */
+public class TestTradePlanner {
+
+	private TradePlanner planner;
+	private UnseenTiles unseen;
+	private List<Piece> hand;
+	private Piece odd;
+
+	@Before
+	public void setUp() {
+		planner = new TradePlanner(new Random(42));
+		hand = new ArrayList<>();
+		for (int shape = 0; shape < 5; shape++) {
+			hand.add(new Piece(Piece.Color.RED, Piece.Shape.values()[shape]));
+		}
+		odd = new Piece(Piece.Color.BLUE, Piece.Shape.CIRCLE);
+		hand.add(odd);
+		unseen = new UnseenTiles();
+		for (Piece piece: hand) {
+			unseen.see(piece);
+		}
+	}
+
+	@Test
+	public void testPlanTrade() {
+		Trade[] trade = planner.planTrade(hand, unseen, 50);
+		assertEquals(1, trade.length);
+		assertSame(odd, trade[0].getPiece());
+		assertEquals(0, planner.planTrade(hand, unseen, 0).length);
+	}
+
+	@Test
+	public void testDecide() {
+		Place[] placement = new Place[] {new Place(odd, 91, 92)};
+		assertArrayEquals(placement, planner.decide(hand, placement, 8, unseen, 50));
+		Move[] moves = planner.decide(hand, null, 0, unseen, 50);
+		assertTrue(moves[0] instanceof Trade);
+		moves = planner.decide(hand, null, 0, unseen, 0);
+		assertEquals(1, moves.length);
+		assertNull(moves[0].getPiece());
+	}
+
+	@Test
+	public void testDecideKeepsQwirkle() {
+		// Placing a red piece for a point or two breaks the five reds, so the odd piece is traded.
+		Place[] placement = new Place[] {new Place(hand.get(0), 91, 92)};
+		for (int score = 1; score <= 2; score++) {
+			Move[] moves = planner.decide(hand, placement, score, unseen, 50);
+			assertEquals(1, moves.length);
+			assertTrue(moves[0] instanceof Trade);
+			assertSame(odd, moves[0].getPiece());
+		}
+	}
+}
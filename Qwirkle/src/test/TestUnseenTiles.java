@@ -0,0 +1,66 @@
+package test;
+
+import org.junit.*;
+
+import model.Board;
+import model.ComputerPlayer;
+import model.Piece;
+import model.UnseenTiles;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test the class UnseenTiles. Testing the counts, the probabilities and the feeds.
+ */
+public class TestUnseenTiles {
+
+	private UnseenTiles unseen;
+	private Piece redCircle;
+	private Piece redSquare;
+
+	@Before
+	public void setUp() {
+		unseen = new UnseenTiles();
+		redCircle = new Piece(Piece.Color.RED, Piece.Shape.CIRCLE);
+		redSquare = new Piece(Piece.Color.RED, Piece.Shape.SQUARE);
+	}
+
+	@Test
+	public void testCounts() {
+		assertEquals(108, unseen.getTotal());
+		unseen.see(redCircle);
+		unseen.see(redSquare);
+		assertEquals(2, unseen.getCount(redCircle));
+		assertEquals(16, unseen.getCount(Piece.Color.RED));
+		assertEquals(17, unseen.getCount(Piece.Shape.CIRCLE));
+		unseen.unsee(redCircle);
+		assertEquals(3, unseen.getCount(redCircle));
+		assertEquals(107, unseen.getTotal());
+	}
+
+	@Test
+	public void testProbabilities() {
+		assertEquals(3.0 / 108, unseen.probability(redCircle), 1e-9);
+		assertEquals(1 - (105.0 / 108) * (104.0 / 107), unseen.chanceToDraw(redCircle, 2), 1e-9);
+		for (int i = 0; i < 3; i++) {
+			unseen.see(redCircle);
+		}
+		assertEquals(0, unseen.chanceToDraw(redCircle, 6), 1e-9);
+		assertTrue(unseen.chanceToDraw(Piece.Color.RED, 6) > unseen.chanceToDraw(redSquare, 6));
+	}
+
+	@Test
+	public void testFeeds() {
+		Board board = new Board();
+		ComputerPlayer player = new ComputerPlayer("bot", 0, "Random", 100);
+		player.receive(redSquare);
+		board.addListener(unseen);
+		player.setUnseenTiles(unseen);
+		assertEquals(2, unseen.getCount(redSquare));
+		board.setPiece(91, 91, redCircle);
+		board.endTurn();
+		assertEquals(2, unseen.getCount(redCircle));
+		player.remove(redSquare);
+		assertEquals(3, unseen.getCount(redSquare));
+	}
+}
@@ -11,6 +11,8 @@ import model.Place;
 import model.Player;
 import model.Trade;
 
+import static org.junit.Assert.*;
+
 
 /**
  * Test the valid methods of Board, used for determening if a move is valid for the board.
@@ -74,7 +76,7 @@ public class TestValid {
 	
 	@Test
 	public void testInValidField() throws InvalidMoveException {
-		Place[] place = new Place[]{new Place(pieceGreenSpade, -1, -1)};
+		Place[] place = new Place[]{new Place(pieceGreenSpade, -Board.LIMIT, Board.LIMIT)};
 		exception.expect(InvalidMoveException.class);
 		board.cellsAreValid(place);
 	}
@@ -117,7 +119,7 @@ public class TestValid {
 									new Place(pieceRedCircle, 91, 92)};
 		board.setPiece(place[0].getRow(), place[0].getColumn(), place[0].getPiece());
 		board.setPiece(place[1].getRow(), place[1].getColumn(), place[1].getPiece());
-		board.isUninterruptedRow(place);
+		board.checkLines(place);
 	}
 
 	
@@ -127,7 +129,7 @@ public class TestValid {
 									new Place(pieceRedCircle, 92, 91)};
 		board.setPiece(place[0].getRow(), place[0].getColumn(), place[0].getPiece());
 		board.setPiece(place[1].getRow(), place[1].getColumn(), place[1].getPiece());
-		board.isUninterruptedColumn(place);
+		board.checkLines(place);
 	}
 	
 	@Test
@@ -137,7 +139,7 @@ public class TestValid {
 		board.setPiece(place[0].getRow(), place[0].getColumn(), place[0].getPiece());
 		board.setPiece(place[1].getRow(), place[1].getColumn(), place[1].getPiece());
 		exception.expect(InvalidMoveException.class);
-		board.isUninterruptedRow(place);
+		board.checkLines(place);
 	}
 	
 	@Test
@@ -147,7 +149,7 @@ public class TestValid {
 		board.setPiece(place[0].getRow(), place[0].getColumn(), place[0].getPiece());
 		board.setPiece(place[1].getRow(), place[1].getColumn(), place[1].getPiece());
 		exception.expect(InvalidMoveException.class);
-		board.isUninterruptedColumn(place);
+		board.checkLines(place);
 	}
 	
 	@Test
@@ -178,7 +180,7 @@ public class TestValid {
 										new Place(pieceGreenSpade, 91, 93)};
 		board.setPiece(place[0].getRow(), place[0].getColumn(), place[0].getPiece());
 		board.setPiece(place[1].getRow(), place[1].getColumn(), place[1].getPiece());
-		board.pieceIsConnectedRowAndUnique(place);
+		board.checkLines(place);
 	}
 	
 	@Test
@@ -189,7 +191,7 @@ public class TestValid {
 		board.setPiece(place[0].getRow(), place[0].getColumn(), place[0].getPiece());
 		board.setPiece(place[1].getRow(), place[1].getColumn(), place[1].getPiece());
 		exception.expect(InvalidMoveException.class);
-		board.pieceIsConnectedRowAndUnique(place);
+		board.checkLines(place);
 	}
 	
 	@Test
@@ -200,7 +202,7 @@ public class TestValid {
 		board.setPiece(place[0].getRow(), place[0].getColumn(), place[0].getPiece());
 		board.setPiece(place[1].getRow(), place[1].getColumn(), place[1].getPiece());
 		exception.expect(InvalidMoveException.class);
-		board.pieceIsConnectedRowAndUnique(place);
+		board.checkLines(place);
 	}
 	
 	// Test if piece fits in Column
@@ -211,7 +213,7 @@ public class TestValid {
 										new Place(pieceGreenSpade, 93, 91)};
 		board.setPiece(place[0].getRow(), place[0].getColumn(), place[0].getPiece());
 		board.setPiece(place[1].getRow(), place[1].getColumn(), place[1].getPiece());
-		board.pieceIsConnectedColumnAndUnique(place);
+		board.checkLines(place);
 	}
 	
 	@Test
@@ -222,7 +224,7 @@ public class TestValid {
 		board.setPiece(place[0].getRow(), place[0].getColumn(), place[0].getPiece());
 		board.setPiece(place[1].getRow(), place[1].getColumn(), place[1].getPiece());
 		exception.expect(InvalidMoveException.class);
-		board.pieceIsConnectedColumnAndUnique(place);
+		board.checkLines(place);
 	}
 	
 	@Test
@@ -233,7 +235,7 @@ public class TestValid {
 		board.setPiece(place[0].getRow(), place[0].getColumn(), place[0].getPiece());
 		board.setPiece(place[1].getRow(), place[1].getColumn(), place[1].getPiece());
 		exception.expect(InvalidMoveException.class);
-		board.pieceIsConnectedColumnAndUnique(place);
+		board.checkLines(place);
 	}
 	
 	// Test if a piece fits in a board
@@ -302,5 +304,30 @@ public class TestValid {
 		exception.expect(InvalidMoveException.class);
 		board.validMove(trade, player);
 	}
+	
+	// Test validating and scoring in one pass
+	@Test
+	public void testValidateAndScore() throws InvalidMoveException {
+		board.setPiece(91, 91, pieceGreenDiamond);
+		board.setPiece(92, 92, pieceRedCircle);
+		player.receive(pieceGreenCircle);
+		Place[] place = new Place[]{new Place(pieceGreenCircle, 91, 92),
+									new Place(pieceGreenSpade, 91, 93)};
+		player.receive(pieceGreenSpade);
+		assertEquals(5, board.validateAndScore(place, player));
+		assertEquals(5, board.getScore(place));
+		assertTrue(board.isEmpty(91, 92));
+	}
+	
+	@Test
+	public void testJoinedRowWithDouble() throws InvalidMoveException {
+		board.setPiece(91, 91, pieceGreenDiamond);
+		board.setPiece(91, 92, pieceGreenCircle);
+		board.setPiece(91, 94, pieceGreenDiamond);
+		player.receive(pieceGreenSpade);
+		Place[] place = new Place[]{new Place(pieceGreenSpade, 91, 93)};
+		exception.expect(InvalidMoveException.class);
+		board.validateAndScore(place, player);
+	}
 
 }
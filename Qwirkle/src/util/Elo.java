@@ -0,0 +1,69 @@
+package util;
+
+/**
+ * Elo ratings for games with two or more players. A game of n players is rated as the duels
+ * between every pair of its players, each won by the player with the higher score, and the
+ * change of every player is divided by n - 1, so a game counts as much as a single duel.
+ * Like the uncertainty in TrueSkill, the K factor of a player starts high and shrinks with the
+ * amount of games played, so new players find their rating quickly and settle afterwards.
+ */
+public class Elo {
+
+	// ----- Constants -----
+	public static final double INITIAL = 1500;
+	public static final double MAX_K = 64;
+	public static final double MIN_K = 16;
+	private static final double SETTLE_GAMES = 20;
+
+	private Elo() {
+	}
+
+	// ----- Queries -----
+	/**
+	 * Returns the expected result, between 0 and 1, of a duel between two ratings.
+	 * @param rating the rating of the player
+	 * @param opponent the rating of the opponent
+	 */
+	/*@ pure */public static double expected(double rating, double opponent) {
+		return 1 / (1 + Math.pow(10, (opponent - rating) / 400));
+	}
+
+	/**
+	 * Returns the K factor of a player that has played the given amount of games.
+	 * @param games the amount of games played
+	 */
+	/*
+	 *@ ensures		MIN_K <= \result && \result <= MAX_K;
+	 */
+	/*@ pure */public static double kFactor(int games) {
+		return Math.max(MIN_K, MAX_K / (1 + games / SETTLE_GAMES));
+	}
+
+	/**
+	 * Returns the new ratings of the players of a game.
+	 * @param ratings the ratings before the game
+	 * @param games the amount of games each player had played before the game
+	 * @param scores the scores of the players in the game
+	 * @return the ratings after the game, in the same order
+	 */
+	/*
+	 *@ requires	ratings.length == games.length && ratings.length == scores.length;
+	 *				ratings.length > 1;
+	 */
+	/*@ pure */public static double[] update(/*@ non_null */double[] ratings,
+					/*@ non_null */int[] games, /*@ non_null */int[] scores) {
+		int n = ratings.length;
+		double[] result = new double[n];
+		for (int i = 0; i < n; i++) {
+			double change = 0;
+			for (int j = 0; j < n; j++) {
+				if (i != j) {
+					double actual = scores[i] > scores[j] ? 1 : scores[i] == scores[j] ? 0.5 : 0;
+					change += actual - expected(ratings[i], ratings[j]);
+				}
+			}
+			result[i] = ratings[i] + kFactor(games[i]) * change / (n - 1);
+		}
+		return result;
+	}
+}
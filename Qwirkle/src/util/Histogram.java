@@ -0,0 +1,136 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram for latencies, in the style of an HDR histogram.
+ * Values are counted in buckets that are linear within each power of two, so every
+ * recorded value is kept with a relative error of at most 1/16. Recording a value
+ * is a few bit operations and an atomic increment, so it can be used on hot paths.
+ */
+public class Histogram {
+
+	/*@
+	 	private invariant	counts.length() == BUCKETS;
+	 */
+	// ----- Constants -----
+	private static final int SUB_BITS = 4;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+	// ----- Instance Variables -----
+	private final AtomicLongArray counts;
+	private final LongAdder count;
+	private final LongAdder sum;
+	private final AtomicLong max;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new, empty Histogram.
+	 */
+	public Histogram() {
+		counts = new AtomicLongArray(BUCKETS);
+		count = new LongAdder();
+		sum = new LongAdder();
+		max = new AtomicLong();
+	}
+
+	// ----- Queries -----
+	/**
+	 * Returns the amount of recorded values.
+	 */
+	/*@ pure */public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Returns the largest recorded value.
+	 */
+	/*@ pure */public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Returns the mean of the recorded values, or 0 if there are none.
+	 */
+	/*@ pure */public double getMean() {
+		long n = count.sum();
+		return n == 0 ? 0 : (double) sum.sum() / n;
+	}
+
+	/**
+	 * Returns the value below which the given percentage of the recorded values lie.
+	 * The result is the upper bound of the bucket the percentile falls in.
+	 * @param percentile a percentage between 0 and 100
+	 */
+	/*
+	 *@ requires	0 <= percentile && percentile <= 100;
+	 *@ ensures		\result <= getMax();
+	 */
+	/*@ pure */public long getPercentile(double percentile) {
+		long n = count.sum();
+		long result = 0;
+		if (n > 0) {
+			long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+			long seen = 0;
+			for (int i = 0; i < BUCKETS && seen < rank; i++) {
+				seen += counts.get(i);
+				if (seen >= rank) {
+					result = Math.min(upperBound(i), max.get());
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the bucket a value is counted in.
+	 */
+	/*
+	 *@ requires	0 <= value;
+	 *@ ensures		0 <= \result && \result < BUCKETS;
+	 */
+	/*@ pure */public static int bucketOf(long value) {
+		int result;
+		if (value < SUB_COUNT) {
+			result = (int) value;
+		} else {
+			int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+			result = (shift + 1) * SUB_COUNT + (int) ((value >>> shift) & (SUB_COUNT - 1));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the largest value that is counted in the given bucket.
+	 */
+	/*@ pure */public static long upperBound(int bucket) {
+		long result;
+		if (bucket < SUB_COUNT) {
+			result = bucket;
+		} else {
+			int shift = bucket / SUB_COUNT - 1;
+			long sub = bucket % SUB_COUNT;
+			result = ((SUB_COUNT + sub) << shift) + (1L << shift) - 1;
+		}
+		return result;
+	}
+
+	// ----- Commands -----
+	/**
+	 * Records a value. Negative values are counted as 0.
+	 * @param value the value to record
+	 */
+	public void record(long value) {
+		long v = Math.max(0, value);
+		counts.incrementAndGet(bucketOf(v));
+		count.increment();
+		sum.add(v);
+		long current = max.get();
+		while (v > current && !max.compareAndSet(current, v)) {
+			current = max.get();
+		}
+	}
+}
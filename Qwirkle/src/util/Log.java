@@ -0,0 +1,232 @@
+package util;
+
+import java.io.PrintStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An asynchronous logger with levels and tags.
+ * Game threads hand their records to a fixed size ring buffer without taking a lock;
+ * a single background thread formats the records and writes them to the stream in batches.
+ * When the buffer is full, records are dropped and counted instead of blocking the game.
+ * The level of the default logger is read from the system property "qwirkle.log", and is
+ * INFO when that property does not name a level.
+ */
+public class Log {
+
+	/**
+	 * The levels of log records, from least to most important.
+	 */
+	public enum Level { DEBUG, INFO, WARN, ERROR };
+
+	private static final int CAPACITY = 8192;
+	private static final long IDLE_WAIT = 1000000L;
+	private static final Log DEFAULT = new Log(System.out, CAPACITY, defaultLevel());
+
+	/**
+	 * Returns the logger that is shared by the whole process.
+	 */
+	public static Log getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Logs a message with level DEBUG on the default logger.
+	 * @param tag the game or component the message is about
+	 * @param message the message
+	 */
+	public static void debug(String tag, String message) {
+		DEFAULT.log(Level.DEBUG, tag, message);
+	}
+
+	/**
+	 * Logs a message with level INFO on the default logger.
+	 * @param tag the game or component the message is about
+	 * @param message the message
+	 */
+	public static void info(String tag, String message) {
+		DEFAULT.log(Level.INFO, tag, message);
+	}
+
+	/**
+	 * Logs a message with level WARN on the default logger.
+	 * @param tag the game or component the message is about
+	 * @param message the message
+	 */
+	public static void warn(String tag, String message) {
+		DEFAULT.log(Level.WARN, tag, message);
+	}
+
+	/**
+	 * Logs a message with level ERROR on the default logger.
+	 * @param tag the game or component the message is about
+	 * @param message the message
+	 */
+	public static void error(String tag, String message) {
+		DEFAULT.log(Level.ERROR, tag, message);
+	}
+
+	/**
+	 * Tests if DEBUG messages are logged by the default logger.
+	 * Used to skip building messages that would be dropped anyway.
+	 */
+	public static boolean isDebugEnabled() {
+		return DEFAULT.isEnabled(Level.DEBUG);
+	}
+
+	/**
+	 * Returns the level named by the system property "qwirkle.log", or INFO if it names none.
+	 */
+	private static Level defaultLevel() {
+		Level result;
+		try {
+			result = Level.valueOf(System.getProperty("qwirkle.log", "INFO").toUpperCase());
+		} catch (IllegalArgumentException e) {
+			System.err.println("Unknown log level, logging from INFO.");
+			result = Level.INFO;
+		}
+		return result;
+	}
+
+	/*@
+	 	private invariant	head <= tail.get() && tail.get() - head <= capacity;
+	 */
+	// ----- Instance Variables -----
+	private final PrintStream out;
+	private final int capacity;
+	private final int mask;
+	private final Level[] levels;
+	private final String[] tags;
+	private final String[] messages;
+	private final long[] times;
+	private final AtomicLongArray published;
+	private final AtomicLong tail;
+	private volatile long head;
+	private volatile Level threshold;
+	private final LongAdder dropped;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new Log that writes to the given stream, and starts its writer thread.
+	 * @param out the stream to write to
+	 * @param capacity the amount of records the buffer holds, rounded up to a power of two
+	 * @param threshold the least important level that is logged
+	 */
+	public Log(/*@ non_null */PrintStream out, int capacity, /*@ non_null */Level threshold) {
+		this.out = out;
+		this.capacity = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+		mask = this.capacity - 1;
+		levels = new Level[this.capacity];
+		tags = new String[this.capacity];
+		messages = new String[this.capacity];
+		times = new long[this.capacity];
+		published = new AtomicLongArray(this.capacity);
+		tail = new AtomicLong();
+		this.threshold = threshold;
+		dropped = Metrics.getDefault().counter("log.dropped");
+		Thread writer = new Thread(this::write, "log-writer");
+		writer.setDaemon(true);
+		writer.start();
+		Runtime.getRuntime().addShutdownHook(new Thread(this::flush));
+	}
+
+	// ----- Queries -----
+	/**
+	 * Tests if messages of the given level are logged.
+	 */
+	/*@ pure */public boolean isEnabled(Level level) {
+		return level.compareTo(threshold) >= 0;
+	}
+
+	/**
+	 * Returns the amount of records that were dropped because the buffer was full.
+	 */
+	/*@ pure */public long getDropped() {
+		return dropped.sum();
+	}
+
+	// ----- Commands -----
+	/**
+	 * Sets the least important level that is logged.
+	 */
+	public void setLevel(/*@ non_null */Level level) {
+		threshold = level;
+	}
+
+	/**
+	 * Hands a record to the writer thread. Never blocks: if the buffer is full
+	 * the record is dropped.
+	 * @param level the level of the record
+	 * @param tag the game or component the message is about
+	 * @param message the message
+	 */
+	public void log(Level level, String tag, String message) {
+		if (isEnabled(level)) {
+			long seq = tail.get();
+			boolean claimed = false;
+			while (!claimed && seq - head < capacity) {
+				claimed = tail.compareAndSet(seq, seq + 1);
+				if (!claimed) {
+					seq = tail.get();
+				}
+			}
+			if (claimed) {
+				int slot = (int) seq & mask;
+				levels[slot] = level;
+				tags[slot] = tag;
+				messages[slot] = message;
+				times[slot] = System.currentTimeMillis();
+				published.set(slot, seq + 1);
+			} else {
+				dropped.increment();
+			}
+		}
+	}
+
+	/**
+	 * Waits until all records handed to this Log so far have been written, for at most a second.
+	 */
+	public void flush() {
+		long target = tail.get();
+		long deadline = System.currentTimeMillis() + 1000;
+		while (head < target && System.currentTimeMillis() < deadline) {
+			LockSupport.parkNanos(IDLE_WAIT);
+		}
+	}
+
+	/**
+	 * The loop of the writer thread. Takes all published records from the buffer,
+	 * formats them in one batch and writes the batch to the stream.
+	 */
+	private void write() {
+		SimpleDateFormat format = new SimpleDateFormat("HH:mm:ss.SSS");
+		StringBuilder batch = new StringBuilder();
+		Date date = new Date();
+		while (true) {
+			long seq = head;
+			int slot = (int) seq & mask;
+			while (published.get(slot) == seq + 1) {
+				date.setTime(times[slot]);
+				batch.append(format.format(date)).append(' ').append(levels[slot]).append(" [")
+						.append(tags[slot]).append("] ").append(messages[slot])
+						.append(System.lineSeparator());
+				tags[slot] = null;
+				messages[slot] = null;
+				seq++;
+				slot = (int) seq & mask;
+			}
+			if (batch.length() > 0) {
+				out.print(batch);
+				out.flush();
+				batch.setLength(0);
+				head = seq;
+			} else {
+				LockSupport.parkNanos(IDLE_WAIT);
+			}
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package util;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A registry of named counters, gauges and latency histograms.
+ * Call sites look up their metric once and keep the reference, so updating it on a hot path
+ * costs no more than an uncontended atomic add. The registry can be dumped as text,
+ * periodically to a stream or on request over a local socket.
+ */
+public class Metrics {
+
+	private static final Metrics DEFAULT = new Metrics();
+
+	/**
+	 * Returns the registry that is shared by the whole process.
+	 */
+	public static Metrics getDefault() {
+		return DEFAULT;
+	}
+
+	// ----- Instance Variables -----
+	private final Map<String, LongAdder> counters;
+	private final Map<String, AtomicLong> gauges;
+	private final Map<String, Histogram> histograms;
+	private final long startTime;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new, empty registry.
+	 */
+	public Metrics() {
+		counters = new ConcurrentHashMap<>();
+		gauges = new ConcurrentHashMap<>();
+		histograms = new ConcurrentHashMap<>();
+		startTime = System.currentTimeMillis();
+	}
+
+	// ----- Queries -----
+	/**
+	 * Returns the counter with the given name, creating it if needed.
+	 * @param name the name of the counter
+	 */
+	public /*@ non_null */LongAdder counter(/*@ non_null */String name) {
+		return counters.computeIfAbsent(name, n -> new LongAdder());
+	}
+
+	/**
+	 * Returns the gauge with the given name, creating it if needed.
+	 * A gauge is a value that can go up and down, like the amount of active games.
+	 * @param name the name of the gauge
+	 */
+	public /*@ non_null */AtomicLong gauge(/*@ non_null */String name) {
+		return gauges.computeIfAbsent(name, n -> new AtomicLong());
+	}
+
+	/**
+	 * Returns the histogram with the given name, creating it if needed.
+	 * @param name the name of the histogram
+	 */
+	public /*@ non_null */Histogram histogram(/*@ non_null */String name) {
+		return histograms.computeIfAbsent(name, n -> new Histogram());
+	}
+
+	/**
+	 * Returns a textual dump of all metrics, sorted by name.
+	 * Histograms hold nanoseconds and are printed in milliseconds.
+	 */
+	/*@ pure */public /*@ non_null */String dump() {
+		StringBuilder result = new StringBuilder();
+		long uptime = System.currentTimeMillis() - startTime;
+		result.append("# metrics, uptime ").append(uptime / 1000).append(" s\n");
+		for (Map.Entry<String, AtomicLong> gauge: new TreeMap<>(gauges).entrySet()) {
+			result.append("gauge ").append(gauge.getKey()).append(' ')
+					.append(gauge.getValue().get()).append('\n');
+		}
+		for (Map.Entry<String, LongAdder> counter: new TreeMap<>(counters).entrySet()) {
+			result.append("counter ").append(counter.getKey()).append(' ')
+					.append(counter.getValue().sum()).append('\n');
+		}
+		for (Map.Entry<String, Histogram> entry: new TreeMap<>(histograms).entrySet()) {
+			Histogram h = entry.getValue();
+			result.append(String.format("histogram %s count=%d mean=%.3f p50=%.3f p90=%.3f"
+							+ " p99=%.3f max=%.3f ms%n", entry.getKey(), h.getCount(),
+							h.getMean() / 1e6, h.getPercentile(50) / 1e6,
+							h.getPercentile(90) / 1e6, h.getPercentile(99) / 1e6,
+							h.getMax() / 1e6));
+		}
+		return result.toString();
+	}
+
+	// ----- Commands -----
+	/**
+	 * Removes all metrics whose name starts with the given prefix.
+	 * Used to drop the metrics of a single game once it has ended.
+	 * @param prefix the prefix of the names to remove
+	 */
+	public void remove(/*@ non_null */String prefix) {
+		counters.keySet().removeIf(name -> name.startsWith(prefix));
+		gauges.keySet().removeIf(name -> name.startsWith(prefix));
+		histograms.keySet().removeIf(name -> name.startsWith(prefix));
+	}
+
+	/**
+	 * Prints the dump to the given stream every interval.
+	 * @param interval the time between two dumps in milliseconds
+	 * @param out the stream to print to
+	 * @return the Timer, which can be cancelled to stop dumping
+	 */
+	public Timer startDump(long interval, /*@ non_null */PrintStream out) {
+		Timer timer = new Timer("metrics-dump", true);
+		timer.schedule(new TimerTask() {
+			public void run() {
+				out.print(dump());
+				out.flush();
+			}
+		}, interval, interval);
+		return timer;
+	}
+
+	/**
+	 * Serves the dump on the given port of the loopback address.
+	 * Every connection receives the current dump, after which it is closed,
+	 * so it can be read with for example netcat.
+	 * @param port the port to listen to
+	 * @throws IOException if the port cannot be opened
+	 */
+	public void serve(int port) throws IOException {
+		ServerSocket ssock = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		Thread endpoint = new Thread(() -> {
+			while (!ssock.isClosed()) {
+				try (Socket sock = ssock.accept();
+						PrintWriter out = new PrintWriter(
+										new OutputStreamWriter(sock.getOutputStream()))) {
+					out.print(dump());
+				} catch (IOException e) {
+					Log.warn("metrics", e.getMessage());
+				}
+			}
+		}, "metrics-endpoint");
+		endpoint.setDaemon(true);
+		endpoint.start();
+	}
+}
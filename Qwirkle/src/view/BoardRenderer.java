@@ -0,0 +1,271 @@
+package view;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+import model.ReadableBoard;
+import model.Piece;
+
+/**
+ * Renders a Board, or a snapshot of one, as text. The renderer keeps a frame buffer with the
+ * pieces it has drawn. In incremental mode the frame is MARGIN cells wider than the board on
+ * every side, and as long as the bounds of the board stay within the frame, only the cells
+ * that differ from the frame buffer are written, each after an ANSI cursor position, and the
+ * screen below the board is erased for what the view prints next; when the board outgrows
+ * the frame the whole frame is drawn again.
+ * All output is built in one reusable buffer and written with a single print.
+ * Subclasses decide what the frame and the cells look like.
+ */
+public abstract class BoardRenderer {
+
+	public static final int MARGIN = 2;
+	private static final String CSI = "\u001B[";
+
+	/*@
+	 	private invariant	frame == null || frame.length == rows * columns;
+	 	private invariant	dirty.length % 2 == 0 && 0 <= dirtyCount && dirtyCount <= dirty.length;
+	 */
+	// ----- Instance Variables -----
+	private final StringBuilder buffer;
+	private Piece[] frame;
+	private int minRow;
+	private int minColumn;
+	private int rows;
+	private int columns;
+	private String footer;
+	private boolean incremental;
+	private boolean tracking;
+	private int[] dirty;
+	private int dirtyCount;
+
+	// ----- Constructor -----
+	/**
+	 * Creates a new BoardRenderer that redraws the whole board on every render.
+	 */
+	public BoardRenderer() {
+		buffer = new StringBuilder(4096);
+		dirty = new int[32];
+	}
+
+	// ----- Queries -----
+	/**
+	 * Tests if only changed cells are written.
+	 */
+	/*@ pure */public boolean isIncremental() {
+		return incremental;
+	}
+
+	/**
+	 * Returns the piece that was drawn at the given position of the frame.
+	 * @param row the row, counted from the top of the frame
+	 * @param column the column, counted from the left of the frame
+	 */
+	/*@ pure */protected Piece getFrameCell(int row, int column) {
+		return frame[row * columns + column];
+	}
+
+	/**
+	 * Returns the row of the board at the top of the frame.
+	 */
+	/*@ pure */public int getFrameMinRow() {
+		return minRow;
+	}
+
+	/**
+	 * Returns the column of the board at the left of the frame.
+	 */
+	/*@ pure */public int getFrameMinColumn() {
+		return minColumn;
+	}
+
+	/**
+	 * Returns the amount of rows of the frame.
+	 */
+	/*@ pure */public int getFrameRows() {
+		return rows;
+	}
+
+	/**
+	 * Returns the amount of columns of the frame.
+	 */
+	/*@ pure */public int getFrameColumns() {
+		return columns;
+	}
+
+	/**
+	 * Returns the screen line, starting at 1, of the given row of the frame.
+	 * @param row the row, counted from the top of the frame
+	 */
+	/*@ pure */protected abstract int lineOf(int row);
+
+	/**
+	 * Returns the screen column, starting at 1, where the given column of the frame is drawn.
+	 * @param column the column, counted from the left of the frame
+	 */
+	/*@ pure */protected abstract int columnOf(int column);
+
+	/**
+	 * Returns the first screen line below a frame with the given amount of rows.
+	 * @param frameRows the amount of rows of the frame
+	 */
+	/*@ pure */protected abstract int lineBelow(int frameRows);
+
+	// ----- Commands -----
+	/**
+	 * Sets if only changed cells are written. Incremental rendering positions the cursor
+	 * relative to the top of the screen and erases everything below the board, so it should
+	 * only be used on an ANSI terminal by views that print little else, like the AnsiTUI.
+	 */
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+		invalidate();
+	}
+
+	/**
+	 * Sets if all changes of the board are reported with markDirty. When they are,
+	 * an incremental render only looks at the reported cells instead of comparing
+	 * every visible cell with the frame buffer.
+	 */
+	public void setTracking(boolean tracking) {
+		this.tracking = tracking;
+		dirtyCount = 0;
+	}
+
+	/**
+	 * Reports that the given cell of the board has changed since the last render.
+	 * @param row the row of the cell
+	 * @param column the column of the cell
+	 */
+	public void markDirty(int row, int column) {
+		if (dirtyCount == dirty.length) {
+			dirty = Arrays.copyOf(dirty, dirty.length * 2);
+		}
+		dirty[dirtyCount] = row;
+		dirty[dirtyCount + 1] = column;
+		dirtyCount += 2;
+	}
+
+	/**
+	 * Forgets the frame buffer, so the next render draws the whole board.
+	 */
+	public void invalidate() {
+		frame = null;
+		dirtyCount = 0;
+	}
+
+	/**
+	 * Renders the board and writes it to the stream.
+	 * @param b the board to render
+	 * @param footerLine a line that is printed below the board, or null
+	 * @param out the stream to write to
+	 */
+	public void render(/*@ non_null */ReadableBoard b, String footerLine,
+					/*@ non_null */PrintStream out) {
+		buffer.setLength(0);
+		if (!incremental || frame == null || b.getMinRow() < minRow
+						|| b.getMinColumn() < minColumn || b.getMaxRow() >= minRow + rows
+						|| b.getMaxColumn() >= minColumn + columns) {
+			readFrame(b);
+			if (incremental) {
+				buffer.append(CSI).append('H').append(CSI).append("2J");
+			}
+			appendFrame(buffer, b);
+			if (footerLine != null) {
+				buffer.append(footerLine).append(System.lineSeparator());
+			}
+		} else {
+			if (tracking) {
+				for (int i = 0; i < dirtyCount; i += 2) {
+					update(b, dirty[i], dirty[i + 1]);
+				}
+			} else {
+				for (int i = minRow; i < minRow + rows; i++) {
+					for (int j = minColumn; j < minColumn + columns; j++) {
+						update(b, i, j);
+					}
+				}
+			}
+			int below = lineBelow(rows);
+			if (footerLine != null && !footerLine.equals(footer)) {
+				moveTo(below, 1);
+				buffer.append(footerLine).append(CSI).append('K');
+			}
+			moveTo(footerLine != null ? below + 1 : below, 1);
+			buffer.append(CSI).append('J');
+		}
+		footer = footerLine;
+		dirtyCount = 0;
+		out.print(buffer);
+		out.flush();
+	}
+
+	/**
+	 * Reads the visible part of the board into the frame buffer. In incremental mode
+	 * the frame leaves room for the board to grow.
+	 */
+	private void readFrame(ReadableBoard b) {
+		int margin = incremental ? MARGIN : 0;
+		minRow = b.getMinRow() - margin;
+		minColumn = b.getMinColumn() - margin;
+		rows = b.getMaxRow() - minRow + 1 + margin;
+		columns = b.getMaxColumn() - minColumn + 1 + margin;
+		if (frame == null || frame.length != rows * columns) {
+			frame = new Piece[rows * columns];
+		}
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				frame[i * columns + j] = b.getCell(minRow + i, minColumn + j);
+			}
+		}
+	}
+
+	/**
+	 * Compares a cell of the board with the frame buffer and writes it if it has changed.
+	 */
+	private void update(ReadableBoard b, int row, int column) {
+		int i = row - minRow;
+		int j = column - minColumn;
+		if (i >= 0 && i < rows && j >= 0 && j < columns) {
+			Piece piece = b.getCell(row, column);
+			if (piece != frame[i * columns + j]) {
+				frame[i * columns + j] = piece;
+				moveTo(lineOf(i), columnOf(j));
+				appendCell(buffer, piece);
+			}
+		}
+	}
+
+	/**
+	 * Appends the ANSI code that moves the cursor to the given screen position.
+	 */
+	private void moveTo(int line, int column) {
+		buffer.append(CSI).append(line).append(';').append(column).append('H');
+	}
+
+	/**
+	 * Appends the whole board, with its edges, to the buffer.
+	 * The frame buffer holds the pieces to draw, within the bounds given by the frame queries.
+	 * @param out the buffer to append to
+	 * @param b the board that is drawn
+	 */
+	protected abstract void appendFrame(StringBuilder out, ReadableBoard b);
+
+	/**
+	 * Appends a single cell to the buffer.
+	 * @param out the buffer to append to
+	 * @param piece the piece in the cell, or null if it is empty
+	 */
+	protected abstract void appendCell(StringBuilder out, Piece piece);
+
+	/**
+	 * Appends a row number of three characters wide.
+	 */
+	protected static void appendIndex(StringBuilder out, int index) {
+		if (index < 10) {
+			out.append("  ");
+		} else if (index < 100) {
+			out.append(' ');
+		}
+		out.append(index);
+	}
+}
@@ -2,19 +2,21 @@ package view;
 
 import model.*;
 
-import java.util.Observable;
-import java.util.Observer;
+import java.util.List;
 
 import controller.*;
 
 /**
  * The TUI class is used as the textual user interface.
  */
-public class TUI implements Observer {
+public class TUI implements BoardListener {
+
+	public static final int MENU_WIDTH = 33;
 
 	// ----- Instance Variables -----
 	private Game control;
 	private Board board;
+	private BoardRenderer renderer;
 	int playerCount;
 	
 	// ----- Constructor -----
@@ -22,26 +24,29 @@ public class TUI implements Observer {
 		control = game;
 		board = control.getBoard();
 		playerCount = control.getPlayerCount();
-		board.addObserver(this);
+		renderer = new TextBoardRenderer();
+		board.addListener(this);
 	}
 	
 	public TUI(Board board, int players) {
 		control = null;
 		this.board = board;
 		playerCount = players;
-		board.addObserver(this);
+		renderer = new TextBoardRenderer();
+		board.addListener(this);
 	}
 	
 	
 	// ----- Commands -----
 	
 	/**
-	 * Called when the TUI is notified that the class it's observing (board)
-	 * has been changed. Prints the new board and score.
+	 * Called when a turn on the board has ended. Prints the snapshot of the board that
+	 * the turn published, with the scores. As the snapshot never changes, this may run on
+	 * another thread.
 	 */
-	public void update(Observable o, Object arg) {
-		printBoard(board);
-		printScore(board);
+	public void boardChanged(Board b, List<BoardEvent> events) {
+		BoardSnapshot snapshot = b.getSnapshot();
+		renderer.render(snapshot, getScoreLine(snapshot), System.out);
 	}
 	
 	/**
@@ -49,27 +54,7 @@ public class TUI implements Observer {
 	 * @param b the board to print
 	 */
 	public void printBoard(Board b) {
-		String edges = getEdges(b);
-		System.out.println(edges);
-		for (int i = b.getMinRow(); i <= b.getMaxRow(); i++) {
-			String row = "";
-			if (i < 10) {
-				row = "  " + i;
-			} else if (i < 100) {
-				row = " " + i;
-			} else {
-				row = "" + i;
-			}
-			for (int j = b.getMinColumn(); j <= b.getMaxColumn(); j++) {
-				if (b.getCell(i, j) != null) {
-					row = row + "| " + b.getCell(i, j).toString();
-				} else {
-					row = row + "|   ";
-				}
-			}
-			row = row + "|";
-			System.out.println(row);
-		}
+		renderer.render(b, null, System.out);
 	}
 	
 	/**
@@ -77,29 +62,59 @@ public class TUI implements Observer {
 	 * @param b the board for the score to print.
 	 */
 	public void printScore(Board b) {
-		String result = "Scores:";
+		System.out.println(getScoreLine(b));
+	}
+	
+	// ----- Queries -----
+	
+	/**
+	 * Returns a line of a menu: the label, dots up to a fixed width and the number to
+	 * type for the option.
+	 * @param label the description of the option
+	 * @param option the number of the option
+	 */
+	/*@ pure */public static String menuLine(String label, int option) {
+		StringBuilder result = new StringBuilder(label).append(' ');
+		while (result.length() < MENU_WIDTH) {
+			result.append('.');
+		}
+		return result.append(' ').append(option).toString();
+	}
+	
+	/**
+	 * Returns the line with the scores of all players.
+	 * @param b the board for the score.
+	 */
+	/*@ pure */public String getScoreLine(ReadableBoard b) {
+		StringBuilder result = new StringBuilder("Scores:");
 		for (int i = 0; i < playerCount; i++) {
-			result += " player" + i + ": " + b.getScore(i);
+			result.append(" player").append(i).append(": ").append(b.getScore(i));
 		}
-		System.out.println(result);
+		return result.toString();
 	}
 	
 	/**
 	 * Returns a String with the indexes atop the board.
 	 */
 	public static String getEdges(Board b) {
-		String topIndex = "   ";
-		for (int i = b.getMinColumn(); i <= b.getMaxColumn(); i++) {
+		return getEdges(b.getMinColumn(), b.getMaxColumn());
+	}
+	
+	/**
+	 * Returns a String with the indexes atop the given columns.
+	 */
+	public static String getEdges(int minColumn, int maxColumn) {
+		StringBuilder topIndex = new StringBuilder("   ");
+		for (int i = minColumn; i <= maxColumn; i++) {
 			if (i < 10) {
-				topIndex += "   " + i;
-
+				topIndex.append("   ");
 			} else if (i < 100) {
-				topIndex += "  " + i;
-
+				topIndex.append("  ");
 			} else {
-				topIndex += " " + i;
+				topIndex.append(' ');
 			}
+			topIndex.append(i);
 		}
-		return topIndex;
+		return topIndex.toString();
 	}
-}
\ No newline at end of file
+}
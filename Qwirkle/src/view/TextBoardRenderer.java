@@ -0,0 +1,47 @@
+package view;
+
+import model.ReadableBoard;
+import model.Piece;
+
+/**
+ * Renders a Board with plain characters, as used by the TUI.
+ * Every cell is four characters wide: a border, a space and the two characters of the piece.
+ */
+public class TextBoardRenderer extends BoardRenderer {
+
+	// ----- Queries -----
+	/*@ pure */protected int lineOf(int row) {
+		return row + 2;
+	}
+
+	/*@ pure */protected int columnOf(int column) {
+		return column * 4 + 6;
+	}
+
+	/*@ pure */protected int lineBelow(int frameRows) {
+		return frameRows + 2;
+	}
+
+	// ----- Commands -----
+	protected void appendFrame(StringBuilder out, ReadableBoard b) {
+		String newLine = System.lineSeparator();
+		out.append(TUI.getEdges(getFrameMinColumn(), getFrameMinColumn() + getFrameColumns() - 1))
+						.append(newLine);
+		for (int i = 0; i < getFrameRows(); i++) {
+			appendIndex(out, getFrameMinRow() + i);
+			for (int j = 0; j < getFrameColumns(); j++) {
+				out.append("| ");
+				appendCell(out, getFrameCell(i, j));
+			}
+			out.append('|').append(newLine);
+		}
+	}
+
+	protected void appendCell(StringBuilder out, Piece piece) {
+		if (piece != null) {
+			out.append(piece.toString());
+		} else {
+			out.append("  ");
+		}
+	}
+}